@@ -0,0 +1,45 @@
+package com.nerdysoft.library.exceptionhandler;
+
+import com.nerdysoft.library.exceptionhandler.exceptions.BookNotFoundException;
+import com.nerdysoft.library.exceptionhandler.exceptions.UserBookRelationConflictException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Benchmarks of building error responses, each handler builds a response body.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiceExceptionHandlerBenchmark {
+
+  private final ServiceExceptionHandler exceptionHandler = new ServiceExceptionHandler();
+  private final BookNotFoundException notFoundException =
+      new BookNotFoundException("Book not found");
+  private final UserBookRelationConflictException conflictException =
+      new UserBookRelationConflictException("Book is already borrowed");
+
+  @Benchmark
+  public ResponseEntity<Object> handleUnitNotFoundException() {
+    return exceptionHandler.handleUnitNotFoundException(notFoundException);
+  }
+
+  @Benchmark
+  public ResponseEntity<Object> handleConflictException() {
+    return exceptionHandler.handleActionForbiddenException(conflictException);
+  }
+}
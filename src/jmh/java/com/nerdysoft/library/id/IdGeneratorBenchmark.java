@@ -0,0 +1,42 @@
+package com.nerdysoft.library.id;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of random and time-ordered ID generation by several threads at once, the way IDs are
+ * generated by concurrent requests.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+  private final TimeOrderedIdGenerator timeOrderedIdGenerator = new TimeOrderedIdGenerator();
+
+  @Benchmark
+  public UUID generateRandomId() {
+    return UUID.randomUUID();
+  }
+
+  @Benchmark
+  public UUID generateTimeOrderedId() {
+    return timeOrderedIdGenerator.generateId();
+  }
+}
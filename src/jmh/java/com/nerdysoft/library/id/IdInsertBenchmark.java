@@ -0,0 +1,92 @@
+package com.nerdysoft.library.id;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of batch inserts into a table shaped as users_books with random and time-ordered
+ * primary keys. The table is filled before the measurement and keeps growing, so the primary key
+ * index is large enough for the position of new keys to matter. The database is kept in a file, so
+ * index pages are written to a disk as in a server database.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdInsertBenchmark {
+
+  private static final String URL = "jdbc:h2:./target/jmh-ids-%s";
+  private static final String CREATE_TABLE =
+      "CREATE TABLE relations (id UUID PRIMARY KEY, user_id UUID NOT NULL, book_id UUID NOT NULL)";
+  private static final String INSERT_RELATION =
+      "INSERT INTO relations (id, user_id, book_id) VALUES (?, ?, ?)";
+  private static final int INITIAL_ROWS = 500_000;
+  private static final int BATCH_SIZE = 1000;
+  private static final UUID USER_ID = UUID.randomUUID();
+  private static final UUID BOOK_ID = UUID.randomUUID();
+
+  @Param({"random", "timeOrdered"})
+  private String idType;
+
+  private Connection connection;
+  private PreparedStatement insertRelation;
+  private Supplier<UUID> ids;
+
+  @Setup(Level.Trial)
+  public void createTable() throws SQLException {
+    TimeOrderedIdGenerator timeOrderedIdGenerator = new TimeOrderedIdGenerator();
+    ids = "random".equals(idType) ? UUID::randomUUID : timeOrderedIdGenerator::generateId;
+    connection = DriverManager.getConnection(URL.formatted(idType), "sa", "");
+
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(CREATE_TABLE);
+    }
+    insertRelation = connection.prepareStatement(INSERT_RELATION);
+
+    for (int i = 0; i < INITIAL_ROWS / BATCH_SIZE; i++) {
+      insertRelations();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void deleteDatabase() throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute("DROP ALL OBJECTS DELETE FILES");
+    }
+    connection.close();
+  }
+
+  @Benchmark
+  public int[] insertRelations() throws SQLException {
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      insertRelation.setObject(1, ids.get());
+      insertRelation.setObject(2, USER_ID);
+      insertRelation.setObject(3, BOOK_ID);
+      insertRelation.addBatch();
+    }
+    return insertRelation.executeBatch();
+  }
+}
@@ -0,0 +1,69 @@
+package com.nerdysoft.library.mapper;
+
+import com.nerdysoft.library.TestDataGenerator;
+import com.nerdysoft.library.repository.entity.Book;
+import com.nerdysoft.library.repository.entity.User;
+import com.nerdysoft.library.service.dto.BookDto;
+import com.nerdysoft.library.service.dto.UserDto;
+import java.util.concurrent.TimeUnit;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of MapStruct mappings and of the reflective merge of DTOs into entities.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+  private final BookMapper bookMapper = Mappers.getMapper(BookMapper.class);
+  private final UserMapper userMapper = Mappers.getMapper(UserMapper.class);
+
+  private Book book;
+  private BookDto bookDto;
+  private User user;
+  private UserDto userDto;
+
+  @Setup
+  public void setUp() {
+    book = TestDataGenerator.generateBook();
+    bookDto = TestDataGenerator.generateBookDto();
+    user = TestDataGenerator.generateUser();
+    userDto = TestDataGenerator.generateUserDto();
+  }
+
+  @Benchmark
+  public BookDto bookToDto() {
+    return bookMapper.toDto(book);
+  }
+
+  @Benchmark
+  public Book bookMergeWithDto() {
+    return bookMapper.mergeWithDto(bookDto, book);
+  }
+
+  @Benchmark
+  public UserDto userToDto() {
+    return userMapper.toDto(user);
+  }
+
+  @Benchmark
+  public User userMergeWithDto() {
+    return userMapper.mergeWithDto(userDto, user);
+  }
+}
@@ -0,0 +1,150 @@
+package com.nerdysoft.library.service.impl;
+
+import com.nerdysoft.library.LibraryApplication;
+import com.nerdysoft.library.TestDataGenerator;
+import com.nerdysoft.library.service.BookService;
+import com.nerdysoft.library.service.UserService;
+import com.nerdysoft.library.service.dto.BookDto;
+import com.nerdysoft.library.service.dto.BookWrapper;
+import com.nerdysoft.library.service.dto.UserDto;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+/**
+ * Benchmarks of service flows against the in-memory H2 database configured in the test settings.
+ * The application context is started once per fork without a web server.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+
+  private static final UUID BOOK_ID = UUID.fromString("42d3f123-dd2f-4a10-a182-6506edd9d355");
+  private static final UUID USER_WITHOUT_BOOKS_ID =
+      UUID.fromString("ccc5848f-b32f-44b5-86f1-b51aac112be0");
+  private static final UUID USER_ID = UUID.fromString("f0d9bdfc-38e7-4a34-b07f-8216574efbb5");
+  private static final UUID LOWEST_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+  private static final String USER_NAME = "John Doe";
+  private static final int BOOK_AMOUNT = Integer.MAX_VALUE / 2;
+  private static final String GET_BOOK_BY_ID_CACHE = "getBookByIdCache";
+  private static final String GET_USER_BY_ID_CACHE = "getUserByIdCache";
+
+  private ConfigurableApplicationContext context;
+  private BookService bookService;
+  private UserService userService;
+  private CacheManager cacheManager;
+  private JdbcTemplate jdbcTemplate;
+  private BookDto bookDto;
+
+  @Setup(Level.Trial)
+  public void startContext() {
+    context =
+        new SpringApplicationBuilder(LibraryApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties("spring.jpa.show-sql=false")
+            .run();
+    bookService = context.getBean(BookService.class);
+    userService = context.getBean(UserService.class);
+    cacheManager = context.getBean(CacheManager.class);
+    jdbcTemplate = context.getBean(JdbcTemplate.class);
+    new ResourceDatabasePopulator(new ClassPathResource("db/test-data.sql"))
+        .execute(jdbcTemplate.getDataSource());
+    jdbcTemplate.update("UPDATE books SET amount = ? WHERE id = ?", BOOK_AMOUNT, BOOK_ID);
+    bookDto = TestDataGenerator.generateBookDto();
+    bookDto.setId(null);
+  }
+
+  @TearDown(Level.Trial)
+  public void stopContext() {
+    context.close();
+  }
+
+  @Benchmark
+  public BookDto getBookByIdFromCache() {
+    return bookService.getBookById(BOOK_ID);
+  }
+
+  @Benchmark
+  public BookDto getBookByIdFromDatabase() {
+    cacheManager.getCache(GET_BOOK_BY_ID_CACHE).clear();
+    return bookService.getBookById(BOOK_ID);
+  }
+
+  @Benchmark
+  public UserDto getUserByIdFromDatabase() {
+    cacheManager.getCache(GET_USER_BY_ID_CACHE).clear();
+    return userService.getUserById(USER_ID);
+  }
+
+  @Benchmark
+  public Page<BookDto> getAllBorrowedBooks() {
+    return bookService.getAllBorrowedBooks(PageRequest.of(0, 20));
+  }
+
+  @Benchmark
+  public Slice<BookDto> getBorrowedBooksAfter() {
+    return bookService.getBorrowedBooksAfter(LOWEST_ID, 20);
+  }
+
+  @Benchmark
+  public BookWrapper getBooksBorrowedByUser() {
+    return bookService.getBooksBorrowedByUser(USER_NAME);
+  }
+
+  @Benchmark
+  public BookDto addExistingBook() {
+    return bookService.addBook(bookDto);
+  }
+
+  @Benchmark
+  public UserDto borrowBookByUser(BorrowedBook borrowedBook) {
+    userService.borrowBookByUser(USER_WITHOUT_BOOKS_ID, BOOK_ID);
+    return userService.getUserById(USER_WITHOUT_BOOKS_ID);
+  }
+
+  /**
+   * Returns the borrowed book after each invocation and resets the borrowed counters of the user
+   * and the book and the amount of the book, so every invocation borrows the book from the same
+   * state.
+   */
+  @State(Scope.Thread)
+  public static class BorrowedBook {
+
+    @TearDown(Level.Invocation)
+    public void returnBook(ServiceBenchmark benchmark) {
+      benchmark.jdbcTemplate.update(
+          "DELETE FROM users_books WHERE user_id = ?", USER_WITHOUT_BOOKS_ID);
+      benchmark.jdbcTemplate.update(
+          "UPDATE users SET borrowed_count = 0 WHERE id = ?", USER_WITHOUT_BOOKS_ID);
+      benchmark.jdbcTemplate.update(
+          "UPDATE books SET amount = ?, borrowed_copies = 0 WHERE id = ?", BOOK_AMOUNT, BOOK_ID);
+    }
+  }
+}
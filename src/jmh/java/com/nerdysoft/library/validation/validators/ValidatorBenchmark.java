@@ -0,0 +1,46 @@
+package com.nerdysoft.library.validation.validators;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of author name and book title validators with valid and invalid values.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidatorBenchmark {
+
+  private final NameValidator nameValidator = new NameValidator();
+  private final BookTitleValidator bookTitleValidator = new BookTitleValidator();
+
+  @Param({"Robert Martin", "robert martin junior"})
+  private String authorName;
+
+  @Param({"Clean Code", "cc"})
+  private String bookTitle;
+
+  @Benchmark
+  public boolean validateAuthorName() {
+    return nameValidator.isValid(authorName, null);
+  }
+
+  @Benchmark
+  public boolean validateBookTitle() {
+    return bookTitleValidator.isValid(bookTitle, null);
+  }
+}
@@ -0,0 +1,176 @@
+package com.nerdysoft.library.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.nerdysoft.library.LibraryApplication;
+import com.nerdysoft.library.TestDataGenerator;
+import com.nerdysoft.library.loadtest.Operation.Dataset;
+import com.nerdysoft.library.service.BookService;
+import com.nerdysoft.library.service.UserService;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Open-loop HTTP load generator. It starts the application on a random port against the in-memory
+ * H2 database of the test settings, seeds users and books, and sends a mix of requests at constant
+ * arrival rates regardless of response times. Throughput, latency percentiles and errors of each
+ * stage are written to a JSON report.
+ *
+ * <p>Run it with {@code mvn -P load-test -DskipTests verify}, settings are described in {@link
+ * LoadTestSettings}.
+ *
+ * @author Oleksandr Semenchenko
+ */
+public class LoadTest {
+
+  private static final double SATURATION_THRESHOLD = 0.95;
+  private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+  private final LoadTestSettings settings;
+  private final ObjectMapper objectMapper =
+      new ObjectMapper()
+          .registerModule(new JavaTimeModule())
+          .enable(SerializationFeature.INDENT_OUTPUT);
+  private final HttpClient httpClient =
+      HttpClient.newBuilder()
+          .version(HttpClient.Version.HTTP_1_1)
+          .connectTimeout(Duration.ofSeconds(5))
+          .build();
+
+  public LoadTest(LoadTestSettings settings) {
+    this.settings = settings;
+  }
+
+  public static void main(String[] args) throws Exception {
+    LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+
+    try (ConfigurableApplicationContext context =
+        new SpringApplicationBuilder(LibraryApplication.class)
+            .properties("server.port=0", "spring.jpa.show-sql=false", "logging.level.root=warn")
+            .run(args)) {
+      int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+      new LoadTest(settings).run(URI.create("http://localhost:" + port), seed(context, settings));
+    }
+  }
+
+  private static Dataset seed(ConfigurableApplicationContext context, LoadTestSettings settings)
+      throws IOException {
+    UserService userService = context.getBean(UserService.class);
+    BookService bookService = context.getBean(BookService.class);
+    ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+    List<UUID> userIds = new ArrayList<>();
+    List<UUID> bookIds = new ArrayList<>();
+    List<String> bookBodies = new ArrayList<>();
+
+    for (int i = 0; i < settings.users(); i++) {
+      userIds.add(userService.createUser(TestDataGenerator.generateUserDto(i)).getId());
+    }
+
+    for (int i = 0; i < settings.books(); i++) {
+      bookIds.add(
+          bookService.addBook(TestDataGenerator.generateBookDto(i, settings.bookAmount())).getId());
+      bookBodies.add(objectMapper.writeValueAsString(TestDataGenerator.generateBookDto(i, 1)));
+    }
+    return new Dataset(userIds, bookIds, bookBodies);
+  }
+
+  public void run(URI baseUri, Dataset dataset) throws IOException {
+    List<Map<String, Object>> stages = new ArrayList<>();
+    Integer saturationRate = null;
+
+    for (int rate : settings.rates()) {
+      Map<String, Object> stage = runStage(baseUri, dataset, rate);
+      stages.add(stage);
+
+      if (saturationRate == null
+          && (double) stage.get("throughput") < rate * SATURATION_THRESHOLD) {
+        saturationRate = rate;
+      }
+    }
+
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("settings", settings);
+    report.put("saturationRate", saturationRate);
+    report.put("stages", stages);
+    Files.createDirectories(settings.report().toAbsolutePath().getParent());
+    objectMapper.writeValue(settings.report().toFile(), report);
+  }
+
+  private Map<String, Object> runStage(URI baseUri, Dataset dataset, int rate) {
+    Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    settings.mix().keySet().forEach(operation -> stats.put(operation, new OperationStats()));
+    List<CompletableFuture<?>> requests = new ArrayList<>();
+    long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+    long start = System.nanoTime();
+    long end = start + TimeUnit.SECONDS.toNanos(settings.stageSeconds());
+
+    for (long scheduledAt = start; scheduledAt < end; scheduledAt += intervalNanos) {
+      LockSupport.parkNanos(scheduledAt - System.nanoTime());
+      Operation operation = pickOperation();
+      long requestScheduledAt = scheduledAt;
+      requests.add(
+          httpClient
+              .sendAsync(operation.buildRequest(baseUri, dataset), BodyHandlers.discarding())
+              .whenComplete(
+                  (response, error) ->
+                      stats
+                          .get(operation)
+                          .record(System.nanoTime() - requestScheduledAt, response, error)));
+    }
+
+    try {
+      CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new))
+          .get(DRAIN_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+    } catch (Exception e) {
+      // failed requests are recorded by their operation stats
+    }
+    double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+    long completed = stats.values().stream().mapToLong(OperationStats::getCount).sum();
+    long successes = stats.values().stream().mapToLong(OperationStats::getSuccesses).sum();
+    Map<String, Object> operations = new LinkedHashMap<>();
+    stats.forEach(
+        (operation, stat) -> operations.put(operation.getOperationName(), stat.toReport()));
+
+    Map<String, Object> stage = new LinkedHashMap<>();
+    stage.put("targetRate", rate);
+    stage.put("sent", requests.size());
+    stage.put("completed", completed);
+    stage.put("throughput", completed / elapsedSeconds);
+    stage.put("successfulThroughput", successes / elapsedSeconds);
+    stage.put("operations", operations);
+    return stage;
+  }
+
+  private Operation pickOperation() {
+    int totalWeight = settings.mix().values().stream().mapToInt(Integer::intValue).sum();
+    int point = ThreadLocalRandom.current().nextInt(totalWeight);
+
+    for (Map.Entry<Operation, Integer> weight : settings.mix().entrySet()) {
+      point -= weight.getValue();
+
+      if (point < 0) {
+        return weight.getKey();
+      }
+    }
+    throw new IllegalStateException("Operation mix is empty");
+  }
+}
@@ -0,0 +1,57 @@
+package com.nerdysoft.library.loadtest;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load test settings read from system properties. Every stage sends requests at a constant arrival
+ * rate for the same duration, stages with growing rates show where throughput stops following the
+ * rate.
+ *
+ * @param users - a quantity of seeded users
+ * @param books - a quantity of seeded books
+ * @param bookAmount - an amount of each seeded book
+ * @param rates - arrival rates of stages in requests per second
+ * @param stageSeconds - a duration of each stage
+ * @param mix - weights of operations
+ * @param report - a path of the JSON report
+ * @author Oleksandr Semenchenko
+ */
+public record LoadTestSettings(
+    int users,
+    int books,
+    int bookAmount,
+    List<Integer> rates,
+    int stageSeconds,
+    Map<Operation, Integer> mix,
+    Path report) {
+
+  public static LoadTestSettings fromSystemProperties() {
+    return new LoadTestSettings(
+        Integer.getInteger("loadtest.users", 1000),
+        Integer.getInteger("loadtest.books", 1000),
+        Integer.getInteger("loadtest.book-amount", 1000),
+        Arrays.stream(System.getProperty("loadtest.rates", "100,200,400,800").split(","))
+            .map(String::trim)
+            .map(Integer::valueOf)
+            .toList(),
+        Integer.getInteger("loadtest.stage-seconds", 30),
+        parseMix(
+            System.getProperty(
+                "loadtest.mix", "getBookById=40,getUser=20,borrow=20,addBook=10,borrowedBooks=10")),
+        Path.of(System.getProperty("loadtest.report", "target/load-test-report.json")));
+  }
+
+  private static Map<Operation, Integer> parseMix(String mix) {
+    Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+
+    for (String entry : mix.split(",")) {
+      String[] nameAndWeight = entry.split("=");
+      weights.put(Operation.of(nameAndWeight[0].trim()), Integer.valueOf(nameAndWeight[1].trim()));
+    }
+    return weights;
+  }
+}
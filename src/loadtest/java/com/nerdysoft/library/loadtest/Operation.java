@@ -0,0 +1,90 @@
+package com.nerdysoft.library.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Operations of the load test workload. Each operation builds a request for random seeded data.
+ *
+ * @author Oleksandr Semenchenko
+ */
+public enum Operation {
+  GET_BOOK_BY_ID("getBookById") {
+    @Override
+    HttpRequest buildRequest(URI baseUri, Dataset dataset) {
+      return get(baseUri.resolve("/v1/books/" + random(dataset.bookIds())));
+    }
+  },
+  GET_USER("getUser") {
+    @Override
+    HttpRequest buildRequest(URI baseUri, Dataset dataset) {
+      return get(baseUri.resolve("/v1/users/" + random(dataset.userIds())));
+    }
+  },
+  BORROW("borrow") {
+    @Override
+    HttpRequest buildRequest(URI baseUri, Dataset dataset) {
+      URI uri =
+          baseUri.resolve(
+              "/v1/users/%s/books/%s"
+                  .formatted(random(dataset.userIds()), random(dataset.bookIds())));
+      return HttpRequest.newBuilder(uri).PUT(BodyPublishers.noBody()).build();
+    }
+  },
+  ADD_BOOK("addBook") {
+    @Override
+    HttpRequest buildRequest(URI baseUri, Dataset dataset) {
+      return HttpRequest.newBuilder(baseUri.resolve("/v1/books"))
+          .header("Content-Type", "application/json")
+          .POST(BodyPublishers.ofString(random(dataset.bookBodies())))
+          .build();
+    }
+  },
+  BORROWED_BOOKS("borrowedBooks") {
+    @Override
+    HttpRequest buildRequest(URI baseUri, Dataset dataset) {
+      return get(baseUri.resolve("/v1/books/borrowed?page=0&size=20"));
+    }
+  };
+
+  private final String operationName;
+
+  Operation(String operationName) {
+    this.operationName = operationName;
+  }
+
+  public String getOperationName() {
+    return operationName;
+  }
+
+  public static Operation of(String operationName) {
+    return Arrays.stream(values())
+        .filter(operation -> operation.operationName.equals(operationName))
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("Unknown operation " + operationName));
+  }
+
+  abstract HttpRequest buildRequest(URI baseUri, Dataset dataset);
+
+  private static HttpRequest get(URI uri) {
+    return HttpRequest.newBuilder(uri).GET().build();
+  }
+
+  private static <T> T random(List<T> values) {
+    return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+  }
+
+  /**
+   * Seeded data the requests refer to.
+   *
+   * @param userIds - IDs of seeded users
+   * @param bookIds - IDs of seeded books
+   * @param bookBodies - JSON bodies of seeded books to add them again
+   */
+  public record Dataset(List<UUID> userIds, List<UUID> bookIds, List<String> bookBodies) {}
+}
@@ -0,0 +1,75 @@
+package com.nerdysoft.library.loadtest;
+
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latencies and outcomes of one operation within a stage. A latency is measured from the moment a
+ * request was scheduled to be sent, so a slow server does not hide queueing delays.
+ *
+ * @author Oleksandr Semenchenko
+ */
+public class OperationStats {
+
+  private static final int SIGNIFICANT_DIGITS = 3;
+
+  private final Histogram latencies = new ConcurrentHistogram(SIGNIFICANT_DIGITS);
+  private final LongAdder successes = new LongAdder();
+  private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+  public void record(long latencyNanos, HttpResponse<?> response, Throwable error) {
+    latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+
+    if (error != null) {
+      Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+      countError(cause.getClass().getSimpleName());
+    } else if (response.statusCode() >= 200 && response.statusCode() < 300) {
+      successes.increment();
+    } else {
+      countError(String.valueOf(response.statusCode()));
+    }
+  }
+
+  public long getCount() {
+    return latencies.getTotalCount();
+  }
+
+  public long getSuccesses() {
+    return successes.sum();
+  }
+
+  public Map<String, Object> toReport() {
+    Map<String, Long> errorCounts = new TreeMap<>();
+    errors.forEach((error, count) -> errorCounts.put(error, count.sum()));
+    Map<String, Double> latencyMillis = new LinkedHashMap<>();
+    latencyMillis.put("p50", percentileMillis(50));
+    latencyMillis.put("p95", percentileMillis(95));
+    latencyMillis.put("p99", percentileMillis(99));
+    latencyMillis.put("p999", percentileMillis(99.9));
+    latencyMillis.put("max", latencies.getMaxValue() / 1000.0);
+    latencyMillis.put("mean", latencies.getMean() / 1000.0);
+
+    Map<String, Object> report = new LinkedHashMap<>();
+    report.put("count", getCount());
+    report.put("successes", getSuccesses());
+    report.put("errors", errorCounts);
+    report.put("latencyMillis", latencyMillis);
+    return report;
+  }
+
+  private void countError(String error) {
+    errors.computeIfAbsent(error, key -> new LongAdder()).increment();
+  }
+
+  private double percentileMillis(double percentile) {
+    return latencies.getValueAtPercentile(percentile) / 1000.0;
+  }
+}
@@ -0,0 +1,99 @@
+package com.nerdysoft.library.actuator;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint to inspect application caches and evict their entries.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@Component
+@Endpoint(id = "cacheentries")
+@RequiredArgsConstructor
+public class CacheEntriesEndpoint {
+
+  private static final int DEFAULT_KEYS_LIMIT = 100;
+
+  private final CacheManager cacheManager;
+
+  @ReadOperation
+  public Map<String, CacheDescriptor> caches() {
+    Map<String, CacheDescriptor> caches = new LinkedHashMap<>();
+    cacheManager
+        .getCacheNames()
+        .forEach(cacheName -> caches.put(cacheName, describe(getNativeCache(cacheName), 0)));
+    return caches;
+  }
+
+  @ReadOperation
+  public CacheDescriptor cache(@Selector String cacheName, @Nullable Integer limit) {
+    Cache<Object, Object> nativeCache = getNativeCache(cacheName);
+    return Objects.isNull(nativeCache)
+        ? null
+        : describe(nativeCache, Objects.requireNonNullElse(limit, DEFAULT_KEYS_LIMIT));
+  }
+
+  /**
+   * Evicts an entry with the provided key from a cache or all entries if no key is provided.
+   *
+   * @param cacheName - a cache name
+   * @param key - a string representation of an entry key
+   */
+  @DeleteOperation
+  public void evict(@Selector String cacheName, @Nullable String key) {
+    Cache<Object, Object> nativeCache = getNativeCache(cacheName);
+
+    if (Objects.isNull(nativeCache)) {
+      return;
+    }
+
+    if (Objects.isNull(key)) {
+      nativeCache.invalidateAll();
+    } else {
+      nativeCache.asMap().keySet().removeIf(cacheKey -> cacheKey.toString().equals(key));
+    }
+  }
+
+  private Cache<Object, Object> getNativeCache(String cacheName) {
+    return cacheManager.getCache(cacheName) instanceof CaffeineCache caffeineCache
+        ? caffeineCache.getNativeCache()
+        : null;
+  }
+
+  private CacheDescriptor describe(Cache<Object, Object> nativeCache, int keysLimit) {
+    CacheStats stats = nativeCache.stats();
+    List<String> keys =
+        nativeCache.asMap().keySet().stream().limit(keysLimit).map(Object::toString).toList();
+    return new CacheDescriptor(
+        nativeCache.estimatedSize(),
+        stats.hitCount(),
+        stats.missCount(),
+        stats.hitRate(),
+        stats.evictionCount(),
+        stats.averageLoadPenalty(),
+        keys);
+  }
+
+  public record CacheDescriptor(
+      long estimatedSize,
+      long hitCount,
+      long missCount,
+      double hitRate,
+      long evictionCount,
+      double averageLoadPenaltyNanos,
+      List<String> keys) {}
+}
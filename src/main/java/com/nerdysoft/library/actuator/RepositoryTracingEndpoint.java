@@ -0,0 +1,78 @@
+package com.nerdysoft.library.actuator;
+
+import com.nerdysoft.library.loggin.RepositoryTracingProperties;
+import java.util.Map;
+import java.util.Objects;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint to change sample rates of repository tracing at runtime. Tracing itself is
+ * switched on and off by the level of the RepositoryTracing logger through the loggers endpoint.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@Component
+@Endpoint(id = "repositorytracing")
+@RequiredArgsConstructor
+public class RepositoryTracingEndpoint {
+
+  private final RepositoryTracingProperties properties;
+
+  @ReadOperation
+  public TracingDescriptor settings() {
+    return new TracingDescriptor(
+        properties.getDefaultSampleRate(),
+        properties.getMaxValueLength(),
+        Map.copyOf(properties.getSampleRates()));
+  }
+
+  /**
+   * Updates the default sample rate and the maximum length of traced values.
+   *
+   * @param defaultSampleRate - a share of traced calls from 0 to 1
+   * @param maxValueLength - a maximum length of a traced argument or result
+   */
+  @WriteOperation
+  public void updateSettings(@Nullable Double defaultSampleRate, @Nullable Integer maxValueLength) {
+    if (Objects.nonNull(defaultSampleRate)) {
+      properties.setDefaultSampleRate(verifySampleRate(defaultSampleRate));
+    }
+
+    if (Objects.nonNull(maxValueLength)) {
+      properties.setMaxValueLength(maxValueLength);
+    }
+  }
+
+  /**
+   * Sets a sample rate of a repository or a repository method.
+   *
+   * @param target - a "Repository" or "Repository.method" key
+   * @param sampleRate - a share of traced calls from 0 to 1
+   */
+  @WriteOperation
+  public void updateSampleRate(@Selector String target, double sampleRate) {
+    properties.getSampleRates().put(target, verifySampleRate(sampleRate));
+  }
+
+  @DeleteOperation
+  public void removeSampleRate(@Selector String target) {
+    properties.getSampleRates().remove(target);
+  }
+
+  private double verifySampleRate(double sampleRate) {
+    if (sampleRate < 0 || sampleRate > 1) {
+      throw new IllegalArgumentException("Sample rate must be from 0 to 1");
+    }
+    return sampleRate;
+  }
+
+  public record TracingDescriptor(
+      double defaultSampleRate, int maxValueLength, Map<String, Double> sampleRates) {}
+}
@@ -0,0 +1,207 @@
+package com.nerdysoft.library.audit;
+
+import com.nerdysoft.library.service.event.StockChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Append-only journal of borrowings and changes of book amounts. A change is recorded after its
+ * transaction commits, a request thread only offers a record to a bounded queue and never waits. A
+ * single writer thread drains the queue, appends records to memory mapped segments and forces each
+ * drained batch to the storage device by one call, so the cost of a sync is shared by all records
+ * that arrived during the previous one. A segment that is full is closed and the next one is
+ * created.
+ *
+ * <p>The journal is not a guaranteed trail. It deliberately trades completeness for the latency of
+ * requests: a record which doesn't fit the queue is dropped, and so is a batch the writer fails to
+ * write. Dropped records are counted and logged at WARN with their user, book and operation, up to
+ * a limit per interval, so the journal can be completed from the log. Records beyond the limit are
+ * lost, only their number is logged.
+ *
+ * <p>The journal starts before and stops after the web server, so records of requests completed
+ * during a graceful shutdown are written. Segments are read by {@link AuditJournalReader}.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "application.audit-journal", name = "enabled")
+@EnableConfigurationProperties(AuditJournalProperties.class)
+public class AuditJournal implements SmartLifecycle {
+
+  public static final String RECORD_COUNTER = "library.audit-journal.records";
+  public static final String QUEUE_GAUGE = "library.audit-journal.queue";
+
+  private static final String RESULT_TAG = "result";
+  private static final String WRITTEN = "written";
+  private static final String DROPPED = "dropped";
+  private static final String QUEUE_FULL = "the queue is full";
+  private static final String WRITE_FAILED = "the batch cannot be written";
+  private static final String WRITER_THREAD_NAME = "audit-journal-writer";
+  private static final long POLL_TIMEOUT_MILLIS = 100;
+  private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+  private final AuditJournalProperties properties;
+  private final int segmentSize;
+  private final BlockingQueue<AuditRecord> queue;
+  private final Counter writtenRecords;
+  private final Counter droppedRecords;
+  private final DroppedRecordLog droppedRecordLog;
+
+  private volatile boolean running;
+  private Thread writer;
+
+  public AuditJournal(AuditJournalProperties properties, MeterRegistry meterRegistry) {
+    long segmentBytes = properties.getSegmentSize().toBytes();
+
+    if (segmentBytes < AuditRecordLayout.RECORD_SIZE || segmentBytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(
+          "Audit journal segment size must be from %d bytes to 2GB"
+              .formatted(AuditRecordLayout.RECORD_SIZE));
+    }
+    this.properties = properties;
+    this.segmentSize = (int) segmentBytes;
+    this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+    this.writtenRecords = meterRegistry.counter(RECORD_COUNTER, RESULT_TAG, WRITTEN);
+    this.droppedRecords = meterRegistry.counter(RECORD_COUNTER, RESULT_TAG, DROPPED);
+    this.droppedRecordLog =
+        new DroppedRecordLog(properties.getDropLogLimit(), properties.getDropLogInterval());
+    meterRegistry.gauge(QUEUE_GAUGE, queue, Collection::size);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onStockChanged(StockChangedEvent event) {
+    append(
+        new AuditRecord(
+            Instant.now(), event.userId(), event.bookId(), event.operation(), event.delta()));
+  }
+
+  /**
+   * Queues a record without waiting.
+   *
+   * @param auditRecord - a record
+   * @return - true if the record is queued, false if it is dropped
+   */
+  public boolean append(AuditRecord auditRecord) {
+    if (queue.offer(auditRecord)) {
+      return true;
+    }
+    droppedRecords.increment();
+    droppedRecordLog.log(auditRecord, QUEUE_FULL);
+    return false;
+  }
+
+  @Override
+  public void start() {
+    running = true;
+    writer = new Thread(this::writeRecords, WRITER_THREAD_NAME);
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+
+    try {
+      writer.join(properties.getShutdownTimeout().toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    if (writer.isAlive()) {
+      log.warn("Audit journal writer hasn't finished in {}", properties.getShutdownTimeout());
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  @Override
+  public int getPhase() {
+    return PHASE;
+  }
+
+  private void writeRecords() {
+    List<AuditRecord> batch = new ArrayList<>();
+    AuditJournalSegment segment = null;
+
+    while (running || !queue.isEmpty()) {
+      AuditRecord auditRecord;
+
+      try {
+        auditRecord = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        running = false;
+        continue;
+      }
+
+      if (auditRecord == null) {
+        continue;
+      }
+      batch.add(auditRecord);
+      queue.drainTo(batch);
+
+      try {
+        segment = writeBatch(segment, batch);
+        writtenRecords.increment(batch.size());
+      } catch (IOException | UncheckedIOException e) {
+        log.error("Audit journal batch of {} records cannot be written", batch.size(), e);
+        droppedRecords.increment(batch.size());
+        batch.forEach(droppedRecord -> droppedRecordLog.log(droppedRecord, WRITE_FAILED));
+        closeSegment(segment);
+        segment = null;
+      }
+      batch.clear();
+    }
+    closeSegment(segment);
+  }
+
+  private AuditJournalSegment writeBatch(AuditJournalSegment segment, List<AuditRecord> batch)
+      throws IOException {
+    if (segment == null) {
+      segment = AuditJournalSegment.openLast(properties.getDirectory(), segmentSize);
+    }
+
+    for (AuditRecord auditRecord : batch) {
+      if (segment.isFull()) {
+        segment.close();
+        segment =
+            AuditJournalSegment.open(
+                properties.getDirectory(), segment.getIndex() + 1, segmentSize);
+      }
+      segment.append(auditRecord);
+    }
+    segment.force();
+    return segment;
+  }
+
+  private void closeSegment(AuditJournalSegment segment) {
+    if (segment == null) {
+      return;
+    }
+
+    try {
+      segment.close();
+    } catch (IOException | UncheckedIOException e) {
+      log.error("Audit journal segment {} cannot be closed", segment.getIndex(), e);
+    }
+  }
+}
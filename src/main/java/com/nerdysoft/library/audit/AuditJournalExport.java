@@ -0,0 +1,105 @@
+package com.nerdysoft.library.audit;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Command line tool which exports the audit journal to the standard output as CSV or as JSON lines.
+ * It reads segment files only and doesn't start the application, so it can be run next to a running
+ * application or on a copy of the journal.
+ *
+ * <pre>
+ * java -cp library-service.jar -Dloader.main=com.nerdysoft.library.audit.AuditJournalExport \
+ *     org.springframework.boot.loader.launch.PropertiesLauncher &lt;directory&gt; [csv|ndjson]
+ * </pre>
+ *
+ * @author Oleksandr Semenchenko
+ */
+public final class AuditJournalExport {
+
+  private static final String USAGE = "Usage: AuditJournalExport <directory> [csv|ndjson]";
+  private static final String CSV_HEADER = "timestamp,operation,user_id,book_id,delta\n";
+  private static final String CSV_LINE = "%s,%s,%s,%s,%d\n";
+  private static final String NDJSON_LINE =
+      "{\"timestamp\":\"%s\",\"operation\":\"%s\",\"userId\":%s,\"bookId\":\"%s\",\"delta\":%d}\n";
+  private static final int USAGE_EXIT_CODE = 2;
+
+  private AuditJournalExport() {}
+
+  public static void main(String[] args) throws IOException {
+    if (args.length == 0 || args.length > 2) {
+      System.err.println(USAGE);
+      System.exit(USAGE_EXIT_CODE);
+    }
+    Format format;
+
+    try {
+      format = args.length == 2 ? Format.valueOf(args[1].toUpperCase(Locale.ROOT)) : Format.CSV;
+    } catch (IllegalArgumentException e) {
+      System.err.println(USAGE);
+      System.exit(USAGE_EXIT_CODE);
+      return;
+    }
+    Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+    export(Path.of(args[0]), format, writer);
+    writer.flush();
+  }
+
+  /**
+   * Exports records of a journal.
+   *
+   * @param directory - a journal directory
+   * @param format - an output format
+   * @param writer - an output
+   * @return - a number of exported records
+   */
+  static long export(Path directory, Format format, Writer writer) throws IOException {
+    if (format == Format.CSV) {
+      writer.write(CSV_HEADER);
+    }
+
+    long exportedRecords = 0;
+
+    try (Stream<AuditRecord> records = AuditJournalReader.read(directory)) {
+      Iterator<AuditRecord> iterator = records.iterator();
+
+      while (iterator.hasNext()) {
+        writer.write(format(iterator.next(), format));
+        exportedRecords++;
+      }
+      return exportedRecords;
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private static String format(AuditRecord auditRecord, Format format) {
+    if (format == Format.CSV) {
+      return CSV_LINE.formatted(
+          auditRecord.timestamp(),
+          auditRecord.operation(),
+          auditRecord.userId() == null ? "" : auditRecord.userId(),
+          auditRecord.bookId(),
+          auditRecord.delta());
+    }
+    return NDJSON_LINE.formatted(
+        auditRecord.timestamp(),
+        auditRecord.operation(),
+        auditRecord.userId() == null ? "null" : "\"" + auditRecord.userId() + "\"",
+        auditRecord.bookId(),
+        auditRecord.delta());
+  }
+
+  enum Format {
+    CSV,
+    NDJSON
+  }
+}
@@ -0,0 +1,27 @@
+package com.nerdysoft.library.audit;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Settings of the audit journal. A segment size is rounded down to whole records and is limited by
+ * 2GB, the size of a memory mapping. Records which don't fit the queue are dropped, up to a drop
+ * log limit of dropped records per drop log interval are logged.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@Data
+@ConfigurationProperties("application.audit-journal")
+public class AuditJournalProperties {
+
+  private boolean enabled;
+  private Path directory = Path.of("audit-journal");
+  private DataSize segmentSize = DataSize.ofMegabytes(64);
+  private int queueCapacity = 65536;
+  private Duration shutdownTimeout = Duration.ofSeconds(10);
+  private int dropLogLimit = 100;
+  private Duration dropLogInterval = Duration.ofMinutes(1);
+}
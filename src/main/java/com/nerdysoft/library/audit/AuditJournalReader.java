@@ -0,0 +1,53 @@
+package com.nerdysoft.library.audit;
+
+import static com.nerdysoft.library.audit.AuditRecordLayout.RECORD_SIZE;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Reads the audit journal by scanning its segments in order. Each segment is mapped read-only and
+ * is read up to the first slot without a complete record, so a journal can be read while the
+ * application appends to it.
+ *
+ * @author Oleksandr Semenchenko
+ */
+public final class AuditJournalReader {
+
+  private AuditJournalReader() {}
+
+  /**
+   * Reads records of a journal. Segments are mapped lazily while the stream is consumed.
+   *
+   * @param directory - a journal directory
+   * @return - records in the order they were appended
+   */
+  public static Stream<AuditRecord> read(Path directory) throws IOException {
+    return AuditJournalSegment.list(directory).stream().flatMap(AuditJournalReader::readSegment);
+  }
+
+  private static Stream<AuditRecord> readSegment(Path segment) {
+    ByteBuffer buffer = map(segment);
+    return IntStream.iterate(
+            0,
+            position -> position + RECORD_SIZE <= buffer.capacity(),
+            position -> position + RECORD_SIZE)
+        .mapToObj(position -> AuditRecordLayout.read(buffer, position))
+        .takeWhile(Objects::nonNull);
+  }
+
+  private static ByteBuffer map(Path segment) {
+    try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+      return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
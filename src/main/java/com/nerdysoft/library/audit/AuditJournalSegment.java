@@ -0,0 +1,185 @@
+package com.nerdysoft.library.audit;
+
+import static com.nerdysoft.library.audit.AuditRecordLayout.RECORD_SIZE;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A segment file of the audit journal mapped into memory. Segments are named by their index padded
+ * with zeros, so the order of names is the order of records. A segment is opened at the first slot
+ * without a complete record, which resumes writing after a restart and overwrites a record torn by
+ * a crash.
+ *
+ * <p>A closed segment is unmapped at once instead of when its buffer is garbage collected, so a
+ * long-running writer keeps only the current segment mapped. The JDK has no public API to unmap a
+ * buffer, the segment uses {@code sun.misc.Unsafe.invokeCleaner} and leaves the mapping to the
+ * garbage collector if the method is unavailable.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@Slf4j
+final class AuditJournalSegment implements Closeable {
+
+  private static final String FILE_NAME_FORMAT = "audit-%020d.journal";
+  private static final String FILE_NAME_PREFIX = "audit-";
+  private static final String FILE_NAME_SUFFIX = ".journal";
+  private static final Unmapper UNMAPPER = Unmapper.create();
+
+  private final long index;
+  private final FileChannel channel;
+  private MappedByteBuffer buffer;
+  private int position;
+  private int forcedPosition;
+
+  private AuditJournalSegment(long index, FileChannel channel, MappedByteBuffer buffer) {
+    this.index = index;
+    this.channel = channel;
+    this.buffer = buffer;
+    while (!isFull() && AuditRecordLayout.read(buffer, position) != null) {
+      position += RECORD_SIZE;
+    }
+    this.forcedPosition = position;
+  }
+
+  /**
+   * Opens the last segment in a directory or the first one if the directory has no segments.
+   *
+   * @param directory - a journal directory
+   * @param size - a size of a new segment in bytes
+   * @return - an opened segment
+   */
+  static AuditJournalSegment openLast(Path directory, int size) throws IOException {
+    Files.createDirectories(directory);
+    List<Path> segments = list(directory);
+    long index = segments.isEmpty() ? 0 : index(segments.get(segments.size() - 1));
+    return open(directory, index, size);
+  }
+
+  static AuditJournalSegment open(Path directory, long index, int size) throws IOException {
+    FileChannel channel =
+        FileChannel.open(
+            directory.resolve(FILE_NAME_FORMAT.formatted(index)),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+
+    try {
+      long mappedSize = Math.max(channel.size(), size) / RECORD_SIZE * RECORD_SIZE;
+      return new AuditJournalSegment(
+          index, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize));
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Lists segments of a directory in the order of their records.
+   *
+   * @param directory - a journal directory
+   * @return - segment files
+   */
+  static List<Path> list(Path directory) throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return List.of();
+    }
+
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .filter(
+              file -> {
+                String fileName = file.getFileName().toString();
+                return fileName.startsWith(FILE_NAME_PREFIX) && fileName.endsWith(FILE_NAME_SUFFIX);
+              })
+          .sorted()
+          .toList();
+    }
+  }
+
+  long getIndex() {
+    return index;
+  }
+
+  boolean isFull() {
+    return position + RECORD_SIZE > buffer.capacity();
+  }
+
+  void append(AuditRecord auditRecord) {
+    AuditRecordLayout.write(buffer, position, auditRecord);
+    position += RECORD_SIZE;
+  }
+
+  /** Writes records appended since the previous call to the storage device. */
+  void force() {
+    if (position > forcedPosition) {
+      buffer.force(forcedPosition, position - forcedPosition);
+      forcedPosition = position;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (buffer == null) {
+      return;
+    }
+
+    try {
+      force();
+    } finally {
+      try {
+        channel.close();
+      } finally {
+        UNMAPPER.unmap(buffer);
+        buffer = null;
+      }
+    }
+  }
+
+  private static long index(Path segment) {
+    String fileName = segment.getFileName().toString();
+    return Long.parseLong(
+        fileName.substring(
+            FILE_NAME_PREFIX.length(), fileName.length() - FILE_NAME_SUFFIX.length()));
+  }
+
+  /** Releases a mapping through {@code sun.misc.Unsafe.invokeCleaner}. */
+  private record Unmapper(Object unsafe, Method invokeCleaner) {
+
+    static Unmapper create() {
+      try {
+        Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+        Field unsafeField = unsafeClass.getDeclaredField("theUnsafe");
+        unsafeField.setAccessible(true);
+        return new Unmapper(
+            unsafeField.get(null), unsafeClass.getMethod("invokeCleaner", ByteBuffer.class));
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        log.warn("Audit journal segments cannot be unmapped, they are left to GC", e);
+        return new Unmapper(null, null);
+      }
+    }
+
+    void unmap(ByteBuffer buffer) {
+      if (invokeCleaner == null) {
+        return;
+      }
+
+      try {
+        invokeCleaner.invoke(unsafe, buffer);
+      } catch (ReflectiveOperationException e) {
+        log.warn("Audit journal segment cannot be unmapped, it is left to GC", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,18 @@
+package com.nerdysoft.library.audit;
+
+import com.nerdysoft.library.service.event.StockOperation;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A record of the audit journal. A user is provided only for a borrowed book, a timestamp is kept
+ * with millisecond precision.
+ *
+ * @param timestamp - a time when the change was committed
+ * @param userId - a user ID
+ * @param bookId - a book ID
+ * @param operation - an operation
+ * @param delta - a change of the amount of available copies
+ */
+public record AuditRecord(
+    Instant timestamp, UUID userId, UUID bookId, StockOperation operation, int delta) {}
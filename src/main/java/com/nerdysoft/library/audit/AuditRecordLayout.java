@@ -0,0 +1,84 @@
+package com.nerdysoft.library.audit;
+
+import com.nerdysoft.library.service.event.StockOperation;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary layout of an audit record. A record takes 64 bytes in big-endian order:
+ *
+ * <pre>
+ *  0  timestamp, epoch milliseconds   long
+ *  8  user ID, zeros if absent        two longs
+ * 24  book ID                         two longs
+ * 40  delta                           int
+ * 44  operation code                  byte
+ * 45  reserved, zeros                 15 bytes
+ * 60  CRC32C of bytes 0-59            int
+ * </pre>
+ *
+ * The checksum is written last, so a slot which is not written yet or is written partly, for
+ * example by a crash, doesn't pass the check and marks the end of a segment.
+ *
+ * @author Oleksandr Semenchenko
+ */
+final class AuditRecordLayout {
+
+  static final int RECORD_SIZE = 64;
+
+  private static final int TIMESTAMP_OFFSET = 0;
+  private static final int USER_ID_OFFSET = 8;
+  private static final int BOOK_ID_OFFSET = 24;
+  private static final int DELTA_OFFSET = 40;
+  private static final int OPERATION_OFFSET = 44;
+  private static final int CHECKSUM_OFFSET = 60;
+  private static final int LONG_SIZE = Long.BYTES;
+
+  private AuditRecordLayout() {}
+
+  static void write(ByteBuffer buffer, int position, AuditRecord auditRecord) {
+    UUID userId = auditRecord.userId();
+    buffer.putLong(position + TIMESTAMP_OFFSET, auditRecord.timestamp().toEpochMilli());
+    buffer.putLong(position + USER_ID_OFFSET, userId == null ? 0 : userId.getMostSignificantBits());
+    buffer.putLong(
+        position + USER_ID_OFFSET + LONG_SIZE,
+        userId == null ? 0 : userId.getLeastSignificantBits());
+    buffer.putLong(position + BOOK_ID_OFFSET, auditRecord.bookId().getMostSignificantBits());
+    buffer.putLong(
+        position + BOOK_ID_OFFSET + LONG_SIZE, auditRecord.bookId().getLeastSignificantBits());
+    buffer.putInt(position + DELTA_OFFSET, auditRecord.delta());
+    buffer.put(position + OPERATION_OFFSET, auditRecord.operation().getCode());
+    buffer.putInt(position + CHECKSUM_OFFSET, checksum(buffer, position));
+  }
+
+  /**
+   * Reads a record at a position.
+   *
+   * @param buffer - a segment
+   * @param position - a position of the record
+   * @return - a record or null if the slot holds no complete record
+   */
+  static AuditRecord read(ByteBuffer buffer, int position) {
+    if (buffer.getInt(position + CHECKSUM_OFFSET) != checksum(buffer, position)) {
+      return null;
+    }
+    long userIdHigh = buffer.getLong(position + USER_ID_OFFSET);
+    long userIdLow = buffer.getLong(position + USER_ID_OFFSET + LONG_SIZE);
+    return new AuditRecord(
+        Instant.ofEpochMilli(buffer.getLong(position + TIMESTAMP_OFFSET)),
+        userIdHigh == 0 && userIdLow == 0 ? null : new UUID(userIdHigh, userIdLow),
+        new UUID(
+            buffer.getLong(position + BOOK_ID_OFFSET),
+            buffer.getLong(position + BOOK_ID_OFFSET + LONG_SIZE)),
+        StockOperation.ofCode(buffer.get(position + OPERATION_OFFSET)),
+        buffer.getInt(position + DELTA_OFFSET));
+  }
+
+  private static int checksum(ByteBuffer buffer, int position) {
+    CRC32C checksum = new CRC32C();
+    checksum.update(buffer.slice(position, CHECKSUM_OFFSET));
+    return (int) checksum.getValue();
+  }
+}
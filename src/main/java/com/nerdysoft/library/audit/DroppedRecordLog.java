@@ -0,0 +1,77 @@
+package com.nerdysoft.library.audit;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Logs records dropped by the audit journal, so an operator can restore them from the log. Up to a
+ * limit of records per interval are logged at WARN with their user, book and operation, the others
+ * are only counted, and their number is logged with the first record logged in a later interval.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@Slf4j
+final class DroppedRecordLog {
+
+  private final int limit;
+  private final long intervalMillis;
+  private final LongSupplier clock;
+
+  private long intervalStart;
+  private int loggedRecords;
+  private long suppressedRecords;
+
+  DroppedRecordLog(int limit, Duration interval) {
+    this(limit, interval, System::currentTimeMillis);
+  }
+
+  DroppedRecordLog(int limit, Duration interval, LongSupplier clock) {
+    this.limit = limit;
+    this.intervalMillis = interval.toMillis();
+    this.clock = clock;
+    this.intervalStart = clock.getAsLong();
+  }
+
+  /**
+   * Logs a dropped record unless the limit of the current interval is reached.
+   *
+   * @param auditRecord - a dropped record
+   * @param reason - a reason the record is dropped for
+   * @return - true if the record is logged, false if it is only counted
+   */
+  boolean log(AuditRecord auditRecord, String reason) {
+    long suppressedBefore;
+
+    synchronized (this) {
+      long now = clock.getAsLong();
+
+      if (now - intervalStart >= intervalMillis) {
+        intervalStart = now;
+        loggedRecords = 0;
+      }
+
+      if (loggedRecords == limit) {
+        suppressedRecords++;
+        return false;
+      }
+      loggedRecords++;
+      suppressedBefore = suppressedRecords;
+      suppressedRecords = 0;
+    }
+
+    if (suppressedBefore > 0) {
+      log.warn(
+          "{} dropped audit records were not logged, the log limit was reached", suppressedBefore);
+    }
+    log.warn(
+        "Audit record dropped, {}: user {}, book {}, operation {}, delta {}, time {}",
+        reason,
+        auditRecord.userId(),
+        auditRecord.bookId(),
+        auditRecord.operation(),
+        auditRecord.delta(),
+        auditRecord.timestamp());
+    return true;
+  }
+}
@@ -0,0 +1,19 @@
+package com.nerdysoft.library.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the in-memory index of book suggestions. The index is loaded at startup, books are
+ * read by chunks of the chunk size and added to the index by the quantity of threads.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@Data
+@ConfigurationProperties("application.book-suggestions")
+public class BookSuggestionProperties {
+
+  private int maxResults = 10;
+  private int loadThreads = 4;
+  private int loadChunkSize = 10000;
+}
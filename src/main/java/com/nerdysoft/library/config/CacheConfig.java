@@ -0,0 +1,69 @@
+package com.nerdysoft.library.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import com.nerdysoft.library.datasource.ReplicaLagEviction;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caffeine caches evict entries by the W-TinyLFU policy when a cache reaches its maximum size. Only
+ * the caches listed in the application settings are created, so no cache grows without a bound.
+ * Statistics are recorded to be exposed as cache metrics, load times of values loaded by cached
+ * methods are recorded by {@link LoadTimingCaffeineCache}. With read replicas the caches repeat
+ * evictions by {@link ReplicaLagCaffeineCache}.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+  @Bean
+  public CacheManager cacheManager(
+      CacheProperties cacheProperties, ObjectProvider<ReplicaLagEviction> replicaLagEviction) {
+    Map<String, StatsCounter> statsCounters = new HashMap<>();
+    CaffeineCacheManager cacheManager =
+        new CaffeineCacheManager() {
+
+          @Override
+          protected org.springframework.cache.Cache adaptCaffeineCache(
+              String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+            ReplicaLagEviction eviction = replicaLagEviction.getIfAvailable();
+
+            if (eviction != null) {
+              return new ReplicaLagCaffeineCache(
+                  name, cache, statsCounters.get(name), isAllowNullValues(), eviction);
+            }
+            return new LoadTimingCaffeineCache(
+                name, cache, statsCounters.get(name), isAllowNullValues());
+          }
+        };
+    cacheManager.setCacheNames(List.of());
+    cacheProperties
+        .getSpecs()
+        .forEach(
+            (cacheName, cacheSpec) -> {
+              StatsCounter statsCounter = new ConcurrentStatsCounter();
+              statsCounters.put(cacheName, statsCounter);
+              Caffeine<Object, Object> builder =
+                  Caffeine.newBuilder()
+                      .maximumSize(cacheSpec.getMaximumSize())
+                      .recordStats(() -> statsCounter);
+
+              if (cacheSpec.getTimeToLive() != null) {
+                builder.expireAfterWrite(cacheSpec.getTimeToLive());
+              }
+              cacheManager.registerCustomCache(cacheName, builder.build());
+            });
+    return cacheManager;
+  }
+}
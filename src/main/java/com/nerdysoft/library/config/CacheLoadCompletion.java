@@ -0,0 +1,29 @@
+package com.nerdysoft.library.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Advice which ends a pending load of {@link LoadTimingCaffeineCache} when a cached method returns
+ * or throws. The advice wraps the cache interceptor, so a loaded value is put and timed before.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class CacheLoadCompletion {
+
+  @Around("@annotation(org.springframework.cache.annotation.Cacheable)")
+  public Object completeLoad(ProceedingJoinPoint joinPoint) throws Throwable {
+    try {
+      return joinPoint.proceed();
+    } finally {
+      LoadTimingCaffeineCache.endLoad();
+    }
+  }
+}
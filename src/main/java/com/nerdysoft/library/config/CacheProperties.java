@@ -0,0 +1,37 @@
+package com.nerdysoft.library.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of application caches and of Hibernate second-level cache regions. Each cache is bounded
+ * by the maximum quantity of entries and the time to live of an entry.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@Data
+@ConfigurationProperties("application.cache")
+public class CacheProperties {
+
+  private Map<String, CacheSpec> specs = new LinkedHashMap<>();
+  private SecondLevel secondLevel = new SecondLevel();
+
+  @Data
+  public static class CacheSpec {
+
+    private long maximumSize;
+
+    /** The time to live of an entry, entries do not expire if it is not set. */
+    private Duration timeToLive;
+  }
+
+  @Data
+  public static class SecondLevel {
+
+    private boolean enabled;
+    private Map<String, CacheSpec> regions = new LinkedHashMap<>();
+  }
+}
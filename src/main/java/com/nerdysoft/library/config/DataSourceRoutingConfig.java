@@ -0,0 +1,118 @@
+package com.nerdysoft.library.config;
+
+import com.nerdysoft.library.datasource.ReadYourWritesFilter;
+import com.nerdysoft.library.datasource.ReplicaLagEviction;
+import com.nerdysoft.library.datasource.ReplicaRoutingDataSource;
+import com.nerdysoft.library.datasource.ReplicaRoutingTransactionManager;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Replaces the auto-configured data source by one that routes read-only transactions to replicas.
+ * Every target has its own connection pool named after the target, pool metrics are tagged by the
+ * pool name. Read-only transactions routed to replicas do not put rows into the second-level cache,
+ * and evictions of the application caches are repeated until replicas catch up with a write.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@Configuration
+@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+@ConditionalOnProperty(prefix = "application.datasource-routing", name = "enabled")
+public class DataSourceRoutingConfig {
+
+  private static final String PRIMARY_POOL_NAME = "primary";
+  private static final String REPLICA_POOL_NAME = "replica-%d";
+
+  @Bean
+  @Primary
+  public DataSource dataSource(
+      DataSourceProperties dataSourceProperties,
+      DataSourceRoutingProperties routingProperties,
+      ObjectProvider<MeterRegistry> meterRegistry) {
+    HikariDataSource primary =
+        dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    primary.setPoolName(PRIMARY_POOL_NAME);
+    trackMetrics(primary, meterRegistry);
+
+    Map<String, DataSource> replicas = new LinkedHashMap<>();
+    List<DataSourceRoutingProperties.Replica> replicaProperties = routingProperties.getReplicas();
+
+    for (int i = 0; i < replicaProperties.size(); i++) {
+      HikariDataSource replica = createReplica(dataSourceProperties, replicaProperties.get(i));
+      replica.setPoolName(REPLICA_POOL_NAME.formatted(i + 1));
+      trackMetrics(replica, meterRegistry);
+      replicas.put(replica.getPoolName(), replica);
+    }
+    ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primary, replicas);
+    routingDataSource.afterPropertiesSet();
+    return new LazyConnectionDataSourceProxy(routingDataSource);
+  }
+
+  @Bean
+  public PlatformTransactionManager transactionManager(
+      DataSource dataSource, ObjectProvider<TransactionManagerCustomizers> customizers)
+      throws SQLException {
+    ReplicaRoutingTransactionManager transactionManager =
+        new ReplicaRoutingTransactionManager(dataSource.unwrap(ReplicaRoutingDataSource.class));
+    customizers.ifAvailable(
+        transactionManagerCustomizers ->
+            transactionManagerCustomizers.customize(transactionManager));
+    return transactionManager;
+  }
+
+  @Bean
+  public ReplicaLagEviction replicaLagEviction(
+      TaskScheduler taskScheduler, DataSourceRoutingProperties routingProperties) {
+    return new ReplicaLagEviction(taskScheduler, routingProperties.getReadYourWrites().getWindow());
+  }
+
+  @Bean
+  @ConditionalOnProperty(
+      prefix = "application.datasource-routing.read-your-writes",
+      name = "enabled")
+  public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+      DataSourceRoutingProperties routingProperties) {
+    return new FilterRegistrationBean<>(
+        new ReadYourWritesFilter(routingProperties.getReadYourWrites().getWindow()));
+  }
+
+  private HikariDataSource createReplica(
+      DataSourceProperties dataSourceProperties, DataSourceRoutingProperties.Replica replica) {
+    HikariDataSource dataSource =
+        DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .driverClassName(dataSourceProperties.determineDriverClassName())
+            .url(replica.getUrl())
+            .username(replica.getUsername())
+            .password(replica.getPassword())
+            .build();
+    dataSource.setReadOnly(true);
+    return dataSource;
+  }
+
+  private void trackMetrics(HikariDataSource dataSource, ObjectProvider<MeterRegistry> registry) {
+    registry.ifAvailable(
+        meterRegistry ->
+            dataSource.setMetricsTrackerFactory(
+                new MicrometerMetricsTrackerFactory(meterRegistry)));
+  }
+}
@@ -0,0 +1,37 @@
+package com.nerdysoft.library.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of read replicas. The primary database is configured by the standard datasource
+ * settings, a replica uses the driver of the primary.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@Data
+@ConfigurationProperties("application.datasource-routing")
+public class DataSourceRoutingProperties {
+
+  private boolean enabled;
+  private List<Replica> replicas = new ArrayList<>();
+  private ReadYourWrites readYourWrites = new ReadYourWrites();
+
+  @Data
+  public static class Replica {
+
+    private String url;
+    private String username;
+    private String password;
+  }
+
+  @Data
+  public static class ReadYourWrites {
+
+    private boolean enabled;
+    private Duration window = Duration.ofSeconds(5);
+  }
+}
@@ -1,8 +1,18 @@
 package com.nerdysoft.library.config;
 
+import com.nerdysoft.library.id.TimeOrderedIdGenerator;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.util.IdGenerator;
 
 @Configuration
 @EnableJpaAuditing
-public class JpaConfig {}
+public class JpaConfig {
+
+  /** Generates IDs of rows which are inserted by native statements and JDBC batches. */
+  @Bean
+  public IdGenerator idGenerator() {
+    return new TimeOrderedIdGenerator();
+  }
+}
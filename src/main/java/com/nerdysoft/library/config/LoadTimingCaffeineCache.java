@@ -0,0 +1,58 @@
+package com.nerdysoft.library.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+/**
+ * Caffeine cache which records the time between a missed lookup and a put of the same key by the
+ * same thread as a load. A not synchronized {@code @Cacheable} method loads a value outside of the
+ * cache, so Caffeine itself records no load time and the average load penalty would stay zero. A
+ * pending load ends with the put, or by {@link CacheLoadCompletion} when a loading method throws,
+ * so a failed load is not recorded and leaves nothing on a pooled thread.
+ *
+ * @author Oleksandr Semenchenko
+ */
+class LoadTimingCaffeineCache extends CaffeineCache {
+
+  private static final ThreadLocal<PendingLoad> PENDING_LOAD = new ThreadLocal<>();
+
+  private final StatsCounter statsCounter;
+
+  LoadTimingCaffeineCache(
+      String name,
+      Cache<Object, Object> cache,
+      StatsCounter statsCounter,
+      boolean allowNullValues) {
+    super(name, cache, allowNullValues);
+    this.statsCounter = statsCounter;
+  }
+
+  /** Ends a pending load of the current thread without recording it. */
+  static void endLoad() {
+    PENDING_LOAD.remove();
+  }
+
+  @Override
+  protected Object lookup(Object key) {
+    Object value = super.lookup(key);
+
+    if (value == null) {
+      PENDING_LOAD.set(new PendingLoad(this, key, System.nanoTime()));
+    }
+    return value;
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    super.put(key, value);
+    PendingLoad load = PENDING_LOAD.get();
+
+    if (load != null && load.cache() == this && load.key().equals(key)) {
+      PENDING_LOAD.remove();
+      statsCounter.recordLoadSuccess(System.nanoTime() - load.startNanos());
+    }
+  }
+
+  private record PendingLoad(LoadTimingCaffeineCache cache, Object key, long startNanos) {}
+}
@@ -0,0 +1,60 @@
+package com.nerdysoft.library.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.StatsCounter;
+import com.nerdysoft.library.datasource.ReplicaLagEviction;
+import com.nerdysoft.library.datasource.ReplicaRoutingDataSource;
+
+/**
+ * Caffeine cache of a deployment with read replicas. Evictions are repeated by {@link
+ * ReplicaLagEviction}, so a value loaded from a lagging replica doesn't outlive the replication
+ * window. A thread pinned to the primary database to read its own writes doesn't read cached values
+ * and puts the value it has read from the primary.
+ *
+ * @author Oleksandr Semenchenko
+ */
+class ReplicaLagCaffeineCache extends LoadTimingCaffeineCache {
+
+  private final ReplicaLagEviction replicaLagEviction;
+
+  ReplicaLagCaffeineCache(
+      String name,
+      Cache<Object, Object> cache,
+      StatsCounter statsCounter,
+      boolean allowNullValues,
+      ReplicaLagEviction replicaLagEviction) {
+    super(name, cache, statsCounter, allowNullValues);
+    this.replicaLagEviction = replicaLagEviction;
+  }
+
+  @Override
+  protected Object lookup(Object key) {
+    return ReplicaRoutingDataSource.isPinnedToPrimary() ? null : super.lookup(key);
+  }
+
+  @Override
+  public void evict(Object key) {
+    super.evict(key);
+    replicaLagEviction.repeat(() -> super.evict(key));
+  }
+
+  @Override
+  public boolean evictIfPresent(Object key) {
+    boolean isPresent = super.evictIfPresent(key);
+    replicaLagEviction.repeat(() -> super.evict(key));
+    return isPresent;
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    replicaLagEviction.repeat(super::clear);
+  }
+
+  @Override
+  public boolean invalidate() {
+    boolean isNotEmpty = super.invalidate();
+    replicaLagEviction.repeat(super::clear);
+    return isNotEmpty;
+  }
+}
@@ -0,0 +1,89 @@
+package com.nerdysoft.library.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.MissingCacheStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hibernate second-level cache backed by Caffeine through JCache. Only the regions listed in the
+ * application settings are created, Hibernate fails to start if an entity, a collection or a query
+ * refers to another region, so no region grows without a bound. Entries are kept by reference since
+ * Hibernate caches disassembled immutable states. Region statistics are exposed as Hibernate
+ * metrics.
+ *
+ * <p>The cache is local to an application instance, an entry changed by another instance stays
+ * stale for the time to live of its region at most. If the cache is disabled, it is switched off
+ * explicitly, otherwise Hibernate would pick the JCache region factory from the classpath with
+ * unbounded caches. Every application context gets its own cache manager, a caching provider shares
+ * its default one.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+  private static final String CACHE_MANAGER_URI = "urn:library:second-level-cache:%s";
+
+  @Bean(destroyMethod = "close")
+  @ConditionalOnProperty(prefix = "application.cache.second-level", name = "enabled")
+  public CacheManager secondLevelCacheManager(CacheProperties cacheProperties) {
+    CachingProvider cachingProvider =
+        Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+    CacheManager cacheManager =
+        cachingProvider.getCacheManager(
+            URI.create(CACHE_MANAGER_URI.formatted(UUID.randomUUID())),
+            cachingProvider.getDefaultClassLoader());
+    cacheProperties
+        .getSecondLevel()
+        .getRegions()
+        .forEach(
+            (regionName, regionSpec) -> {
+              CaffeineConfiguration<Object, Object> configuration =
+                  new CaffeineConfiguration<>()
+                      .setStoreByValue(false)
+                      .setMaximumSize(OptionalLong.of(regionSpec.getMaximumSize()));
+
+              if (regionSpec.getTimeToLive() != null) {
+                configuration.setExpireAfterWrite(
+                    OptionalLong.of(regionSpec.getTimeToLive().toNanos()));
+              }
+              cacheManager.createCache(regionName, configuration);
+            });
+    return cacheManager;
+  }
+
+  @Bean
+  public HibernatePropertiesCustomizer secondLevelCacheCustomizer(
+      ObjectProvider<CacheManager> secondLevelCacheManager) {
+    return properties -> {
+      CacheManager cacheManager = secondLevelCacheManager.getIfAvailable();
+
+      if (cacheManager == null) {
+        properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+        properties.put(AvailableSettings.USE_QUERY_CACHE, false);
+        return;
+      }
+      properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+      properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+      properties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+      properties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+      properties.put(
+          ConfigSettings.MISSING_CACHE_STRATEGY,
+          MissingCacheStrategy.FAIL.getExternalRepresentation());
+      properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+    };
+  }
+}
@@ -2,18 +2,32 @@ package com.nerdysoft.library.controller;
 
 import static org.springframework.http.HttpStatus.NO_CONTENT;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.APPLICATION_NDJSON_VALUE;
 
+import com.nerdysoft.library.service.BookExportService;
+import com.nerdysoft.library.service.BookImportService;
 import com.nerdysoft.library.service.BookService;
+import com.nerdysoft.library.service.BookSuggestionService;
 import com.nerdysoft.library.service.dto.BookDto;
+import com.nerdysoft.library.service.dto.BookExportFormat;
+import com.nerdysoft.library.service.dto.BookImportFormat;
+import com.nerdysoft.library.service.dto.BookImportReportDto;
+import com.nerdysoft.library.service.dto.BookSuggestionsDto;
 import com.nerdysoft.library.service.dto.BookWrapper;
+import com.nerdysoft.library.service.dto.CursorPageDto;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -22,8 +36,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * The REST controller supports end points to manage books.
@@ -35,10 +51,16 @@ import org.springframework.web.bind.annotation.RestController;
 public class BookController {
 
   private static final String V1 = "/v1";
+  private static final String TEXT_CSV_VALUE = "text/csv";
   private static final String BOOKS_PATH = "/books";
   private static final String BOOKS_BORROWED_PATH = "/books/borrowed";
+  private static final String BOOKS_BORROWED_EXPORT_PATH = "/books/borrowed/export";
+  private static final String BOOKS_IMPORT_PATH = "/books/import";
+  private static final String BOOKS_SEARCH_PATH = "/books/search";
+  private static final String BOOKS_SUGGEST_PATH = "/books/suggest";
   private static final String BOOK_ID_PATH = "/books/{bookId}";
   private static final String USER_NAME_PATH = "/users/{userName}";
+  private static final String DEFAULT_PAGE_SIZE = "20";
 
   private static final String BAD_REQUEST_ERROR_EXAMPLE =
       """
@@ -75,7 +97,19 @@ public class BookController {
       }
       """;
 
+  private static final String NOT_VALID_CURSOR_ERROR_EXAMPLE =
+      """
+      {
+          "timestamp": "2024-08-17T10:21:35.145338912",
+          "errorCode": 400,
+          "details": "The cursor is not valid for the request, request the first page again"
+      }
+      """;
+
   private final BookService bookService;
+  private final BookImportService bookImportService;
+  private final BookSuggestionService bookSuggestionService;
+  private final BookExportService bookExportService;
 
   @Operation(
       summary = "Updates a book",
@@ -98,19 +132,170 @@ public class BookController {
     bookService.updateBook(bookDto);
   }
 
+  @Operation(
+      summary = "Returns a book",
+      operationId = "getBookById",
+      description = "Returns book data from a database",
+      responses = {
+        @ApiResponse(responseCode = "200", description = "Book data"),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Book data has the version from the If-None-Match header"),
+        @ApiResponse(
+            responseCode = "404",
+            description = "A book not found",
+            content = @Content(examples = @ExampleObject(BOOK_NOT_FOUND_ERROR_EXAMPLE)))
+      })
+  @GetMapping(value = V1 + BOOK_ID_PATH, produces = APPLICATION_JSON_VALUE)
+  public ResponseEntity<BookDto> getBookById(@PathVariable UUID bookId, WebRequest request) {
+    BookDto book = bookService.getBookById(bookId);
+    String eTag = String.valueOf(book.getVersion());
+
+    if (request.checkNotModified(eTag)) {
+      return null;
+    }
+    return ResponseEntity.ok().eTag(eTag).body(book);
+  }
+
+  /**
+   * Returns borrowed books in page format. If the 'after' parameter is present, a slice of books
+   * following the book with the provided ID is returned instead of a page.
+   *
+   * @param after - an ID of the last book of a previous slice
+   * @param pageable - a page number and a page size
+   * @return - a page or a slice of borrowed books
+   */
   @Operation(
       summary = "Returns all borrowed books",
       operationId = "getAllBorrowedBooks",
-      description = "Returns all borrowed books in page format",
+      description =
+          "Returns all borrowed books in page format or, if the 'after' parameter is provided, "
+              + "a slice of books following the book with the 'after' ID",
       responses = {
         @ApiResponse(responseCode = "200", description = "Pages with a list of borrowed books")
       })
   @GetMapping(value = V1 + BOOKS_BORROWED_PATH, produces = APPLICATION_JSON_VALUE)
-  public ResponseEntity<Page<BookDto>> getAllBorrowedBooks(Pageable pageable) {
-    Page<BookDto> borrowedBooks = bookService.getAllBorrowedBooks(pageable);
+  public ResponseEntity<Slice<BookDto>> getAllBorrowedBooks(
+      @RequestParam(required = false) UUID after, Pageable pageable) {
+    Slice<BookDto> borrowedBooks =
+        after == null
+            ? bookService.getAllBorrowedBooks(pageable)
+            : bookService.getBorrowedBooksAfter(after, pageable.getPageSize());
     return ResponseEntity.ok(borrowedBooks);
   }
 
+  /**
+   * Exports a relation between a user and a book per CSV row with 'userId,userName,bookId,title,
+   * author' columns. Rows are written to a response while they are read from a database.
+   *
+   * @param response - a response
+   * @throws IOException - if a response body cannot be opened
+   */
+  @Operation(
+      summary = "Exports borrowed books to CSV",
+      operationId = "exportBorrowedBooksToCsv",
+      description = "Streams all relations between users and books as CSV rows",
+      responses = {@ApiResponse(responseCode = "200", description = "Borrowed books")})
+  @GetMapping(value = V1 + BOOKS_BORROWED_EXPORT_PATH, produces = TEXT_CSV_VALUE)
+  public void exportBorrowedBooksToCsv(HttpServletResponse response) throws IOException {
+    response.setContentType(TEXT_CSV_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    bookExportService.exportBorrowedBooks(response.getOutputStream(), BookExportFormat.CSV);
+  }
+
+  /**
+   * Exports a relation between a user and a book per line as JSON.
+   *
+   * @param response - a response
+   * @throws IOException - if a response body cannot be opened
+   */
+  @Operation(
+      summary = "Exports borrowed books to NDJSON",
+      operationId = "exportBorrowedBooksToNdjson",
+      description = "Streams all relations between users and books as newline delimited JSON",
+      responses = {@ApiResponse(responseCode = "200", description = "Borrowed books")})
+  @GetMapping(value = V1 + BOOKS_BORROWED_EXPORT_PATH, produces = APPLICATION_NDJSON_VALUE)
+  public void exportBorrowedBooksToNdjson(HttpServletResponse response) throws IOException {
+    response.setContentType(APPLICATION_NDJSON_VALUE);
+    bookExportService.exportBorrowedBooks(response.getOutputStream(), BookExportFormat.NDJSON);
+  }
+
+  /**
+   * Returns books ordered by titles. A response contains a cursor of the next page until the last
+   * page is returned.
+   *
+   * @param author - an author of books
+   * @param available - true for books with available copies, false for books without them
+   * @param cursor - a cursor of a previous page
+   * @param size - a page size
+   * @return - a page of books
+   */
+  @Operation(
+      summary = "Returns books",
+      operationId = "getBooks",
+      description =
+          "Returns books ordered by titles, filtered by an author and availability. The next page "
+              + "is requested by the 'nextCursor' value of the previous page",
+      responses = {
+        @ApiResponse(responseCode = "200", description = "A page of books"),
+        @ApiResponse(
+            responseCode = "400",
+            description = "A cursor is not valid",
+            content = @Content(examples = @ExampleObject(NOT_VALID_CURSOR_ERROR_EXAMPLE)))
+      })
+  @GetMapping(value = V1 + BOOKS_PATH, produces = APPLICATION_JSON_VALUE)
+  public ResponseEntity<CursorPageDto<BookDto>> getBooks(
+      @RequestParam(required = false) String author,
+      @RequestParam(required = false) Boolean available,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
+    CursorPageDto<BookDto> books = bookService.getBooks(author, available, cursor, size);
+    return ResponseEntity.ok(books);
+  }
+
+  /**
+   * Searches books by words of titles and authors.
+   *
+   * @param q - words to search for
+   * @param pageable - a page number and a page size
+   * @return - a page of found books, the most relevant books go first
+   */
+  @Operation(
+      summary = "Searches books",
+      operationId = "searchBooks",
+      description =
+          "Returns books which titles or authors contain words of a query, "
+              + "ordered by relevance in page format",
+      responses = {@ApiResponse(responseCode = "200", description = "A page of found books")})
+  @GetMapping(value = V1 + BOOKS_SEARCH_PATH, produces = APPLICATION_JSON_VALUE)
+  public ResponseEntity<Page<BookDto>> searchBooks(@RequestParam String q, Pageable pageable) {
+    Page<BookDto> books = bookService.searchBooks(q, pageable);
+    return ResponseEntity.ok(books);
+  }
+
+  /**
+   * Suggests authors and titles for a type-ahead input.
+   *
+   * @param prefix - a beginning of an author or a title
+   * @param limit - the maximum quantity of authors and of titles
+   * @return - authors and titles which start with the prefix
+   */
+  @Operation(
+      summary = "Suggests authors and titles",
+      operationId = "suggestBooks",
+      description =
+          "Returns authors and titles which start with a prefix in the alphabetical order, "
+              + "a letter case and diacritics are ignored",
+      responses = {
+        @ApiResponse(responseCode = "200", description = "Suggested authors and titles")
+      })
+  @GetMapping(value = V1 + BOOKS_SUGGEST_PATH, produces = APPLICATION_JSON_VALUE)
+  public ResponseEntity<BookSuggestionsDto> suggestBooks(
+      @RequestParam String prefix, @RequestParam(required = false) Integer limit) {
+    BookSuggestionsDto suggestions = bookSuggestionService.suggest(prefix, limit);
+    return ResponseEntity.ok(suggestions);
+  }
+
   @Operation(
       summary = "Returns books",
       operationId = "getBooksBorrowedByUser",
@@ -173,4 +358,51 @@ public class BookController {
     BookDto addedBook = bookService.addBook(bookDto);
     return ResponseEntity.ok(addedBook);
   }
+
+  /**
+   * Imports books from a CSV request body with 'title,author,amount' columns. The header row is
+   * optional.
+   *
+   * @param inputStream - a request body
+   * @return - a summary of the import
+   */
+  @Operation(
+      summary = "Imports books from CSV",
+      operationId = "importBooksFromCsv",
+      description =
+          "Creates or updates books from CSV rows with 'title,author,amount' columns, "
+              + "not valid rows are skipped",
+      responses = {@ApiResponse(responseCode = "200", description = "A summary of the import")})
+  @PostMapping(
+      value = V1 + BOOKS_IMPORT_PATH,
+      consumes = TEXT_CSV_VALUE,
+      produces = APPLICATION_JSON_VALUE)
+  public ResponseEntity<BookImportReportDto> importBooksFromCsv(InputStream inputStream)
+      throws IOException {
+    BookImportReportDto report = bookImportService.importBooks(inputStream, BookImportFormat.CSV);
+    return ResponseEntity.ok(report);
+  }
+
+  /**
+   * Imports books from a request body where each line is a JSON book.
+   *
+   * @param inputStream - a request body
+   * @return - a summary of the import
+   */
+  @Operation(
+      summary = "Imports books from NDJSON",
+      operationId = "importBooksFromNdjson",
+      description =
+          "Creates or updates books from newline delimited JSON books, not valid rows are skipped",
+      responses = {@ApiResponse(responseCode = "200", description = "A summary of the import")})
+  @PostMapping(
+      value = V1 + BOOKS_IMPORT_PATH,
+      consumes = APPLICATION_NDJSON_VALUE,
+      produces = APPLICATION_JSON_VALUE)
+  public ResponseEntity<BookImportReportDto> importBooksFromNdjson(InputStream inputStream)
+      throws IOException {
+    BookImportReportDto report =
+        bookImportService.importBooks(inputStream, BookImportFormat.NDJSON);
+    return ResponseEntity.ok(report);
+  }
 }
@@ -5,14 +5,20 @@ import static org.springframework.http.HttpStatus.OK;
 import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
 import com.nerdysoft.library.service.UserService;
+import com.nerdysoft.library.service.dto.BookBorrowingDto;
+import com.nerdysoft.library.service.dto.BookIdsWrapper;
+import com.nerdysoft.library.service.dto.CursorPageDto;
 import com.nerdysoft.library.service.dto.UserDto;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import java.net.URI;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -21,8 +27,10 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 /**
@@ -38,6 +46,8 @@ public class UserController {
   private static final String USER_ID_PATH = "/users/{userId}";
   private static final String BOOK_PATH = "/books/{bookId}";
   private static final String USERS_PATH = "/users";
+  private static final String BOOKS_PATH = "/books";
+  private static final String DEFAULT_PAGE_SIZE = "20";
 
   private static final String USER_NOT_FOUND_ERROR_EXAMPLE =
       """
@@ -68,6 +78,26 @@ public class UserController {
         }
         """;
 
+  private static final String EMPTY_BOOK_IDS_ERROR_EXAMPLE =
+      """
+        {
+            "timestamp": "2024-08-16T00:12:43.422236202",
+            "errorCode": 400,
+            "details": {
+                "bookIds": "must not be empty"
+            }
+        }
+        """;
+
+  private static final String NOT_VALID_CURSOR_ERROR_EXAMPLE =
+      """
+      {
+          "timestamp": "2024-08-17T10:21:35.145338912",
+          "errorCode": 400,
+          "details": "The cursor is not valid for the request, request the first page again"
+      }
+      """;
+
   private final UserService userService;
 
   @Operation(
@@ -157,20 +187,98 @@ public class UserController {
     userService.borrowBookByUser(userId, bookId);
   }
 
+  /**
+   * Borrows several books by a user at once. The response contains an outcome for each book, a book
+   * that cannot be borrowed doesn't prevent borrowing other books.
+   *
+   * @param userId - a user ID
+   * @param bookIdsWrapper - IDs of books to borrow
+   * @return - outcomes of borrowing each book
+   */
+  @Operation(
+      summary = "Relates a user with several books",
+      operationId = "borrowBooks",
+      description = "Creates relations between a user and books in one transaction",
+      responses = {
+        @ApiResponse(responseCode = "200", description = "Outcomes of borrowing each book"),
+        @ApiResponse(
+            responseCode = "400",
+            description = "A request body contains no book IDs",
+            content = @Content(examples = @ExampleObject(EMPTY_BOOK_IDS_ERROR_EXAMPLE))),
+        @ApiResponse(
+            responseCode = "404",
+            description = "User not found",
+            content = @Content(examples = @ExampleObject(USER_NOT_FOUND_ERROR_EXAMPLE)))
+      })
+  @PutMapping(
+      value = V1 + USER_ID_PATH + BOOKS_PATH,
+      consumes = APPLICATION_JSON_VALUE,
+      produces = APPLICATION_JSON_VALUE)
+  public ResponseEntity<List<BookBorrowingDto>> borrowBooksByUser(
+      @PathVariable UUID userId, @RequestBody @Validated BookIdsWrapper bookIdsWrapper) {
+    List<BookBorrowingDto> borrowings =
+        userService.borrowBooksByUser(userId, bookIdsWrapper.getBookIds());
+    return ResponseEntity.ok(borrowings);
+  }
+
   @Operation(
       summary = "Returns a user",
       operationId = "getUser",
       description = "Returns user data from a database",
       responses = {
         @ApiResponse(responseCode = "200", description = "User data"),
+        @ApiResponse(
+            responseCode = "304",
+            description = "User data has the version from the If-None-Match header"),
         @ApiResponse(
             responseCode = "404",
             description = "User not found",
             content = @Content(examples = @ExampleObject(USER_NOT_FOUND_ERROR_EXAMPLE)))
       })
   @GetMapping(value = V1 + USER_ID_PATH, produces = APPLICATION_JSON_VALUE)
-  public ResponseEntity<UserDto> getUser(@PathVariable UUID userId) {
+  public ResponseEntity<UserDto> getUser(@PathVariable UUID userId, WebRequest request) {
     UserDto user = userService.getUserById(userId);
-    return ResponseEntity.ok(user);
+    String eTag = String.valueOf(user.getVersion());
+
+    if (request.checkNotModified(eTag)) {
+      return null;
+    }
+    return ResponseEntity.ok().eTag(eTag).body(user);
+  }
+
+  /**
+   * Returns users ordered by names or, if a membership date range is provided, by membership dates.
+   * A response contains a cursor of the next page until the last page is returned.
+   *
+   * @param membershipFrom - the first membership date
+   * @param membershipTo - the last membership date
+   * @param cursor - a cursor of a previous page
+   * @param size - a page size
+   * @return - a page of users
+   */
+  @Operation(
+      summary = "Returns users",
+      operationId = "getUsers",
+      description =
+          "Returns users ordered by names or, if a membership date range is provided, by "
+              + "membership dates. The next page is requested by the 'nextCursor' value of the "
+              + "previous page",
+      responses = {
+        @ApiResponse(responseCode = "200", description = "A page of users"),
+        @ApiResponse(
+            responseCode = "400",
+            description = "A cursor is not valid",
+            content = @Content(examples = @ExampleObject(NOT_VALID_CURSOR_ERROR_EXAMPLE)))
+      })
+  @GetMapping(value = V1 + USERS_PATH, produces = APPLICATION_JSON_VALUE)
+  public ResponseEntity<CursorPageDto<UserDto>> getUsers(
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate membershipFrom,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+          LocalDate membershipTo,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size) {
+    CursorPageDto<UserDto> users = userService.getUsers(membershipFrom, membershipTo, cursor, size);
+    return ResponseEntity.ok(users);
   }
 }
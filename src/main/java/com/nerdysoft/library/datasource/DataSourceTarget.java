@@ -0,0 +1,11 @@
+package com.nerdysoft.library.datasource;
+
+/**
+ * A kind of database a connection is routed to.
+ *
+ * @author Oleksandr Semenchenko
+ */
+public enum DataSourceTarget {
+  PRIMARY,
+  REPLICA
+}
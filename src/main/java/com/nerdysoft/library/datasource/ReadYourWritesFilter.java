@@ -0,0 +1,62 @@
+package com.nerdysoft.library.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Lets a client read its own writes while replicas catch up. A response to a modifying request
+ * carries a cookie that expires after the replication window. Read-only transactions of requests
+ * that send the cookie back are routed to the primary database.
+ *
+ * @author Oleksandr Semenchenko
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+  public static final String COOKIE_NAME = "library-read-primary";
+
+  private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+  private final Duration window;
+
+  public ReadYourWritesFilter(Duration window) {
+    this.window = window;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    if (!READ_METHODS.contains(request.getMethod())) {
+      response.addCookie(createCookie());
+    }
+    ReplicaRoutingDataSource.pinToPrimary(hasCookie(request));
+
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      ReplicaRoutingDataSource.pinToPrimary(false);
+    }
+  }
+
+  private Cookie createCookie() {
+    Cookie cookie = new Cookie(COOKIE_NAME, "true");
+    cookie.setMaxAge((int) window.toSeconds());
+    cookie.setPath("/");
+    cookie.setHttpOnly(true);
+    return cookie;
+  }
+
+  private boolean hasCookie(HttpServletRequest request) {
+    Cookie[] cookies = request.getCookies();
+    return cookies != null
+        && Arrays.stream(cookies).anyMatch(cookie -> COOKIE_NAME.equals(cookie.getName()));
+  }
+}
@@ -0,0 +1,53 @@
+package com.nerdysoft.library.datasource;
+
+import java.time.Duration;
+import java.time.Instant;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Repeats evictions of cached values until replicas catch up with a write. A read routed to a
+ * replica may return the state before the write for up to the replication window, and the value it
+ * loads after the write has evicted a key would stay cached for the whole time to live. An eviction
+ * is repeated when the transaction of the write commits and once more after the window, so a stale
+ * value is cached for the window at most.
+ *
+ * @author Oleksandr Semenchenko
+ */
+public class ReplicaLagEviction {
+
+  private final TaskScheduler taskScheduler;
+  private final Duration window;
+
+  public ReplicaLagEviction(TaskScheduler taskScheduler, Duration window) {
+    this.taskScheduler = taskScheduler;
+    this.window = window;
+  }
+
+  /**
+   * Repeats an eviction after the commit of a current transaction and after the replication window,
+   * or right away and after the window if there is no transaction.
+   *
+   * @param eviction - an eviction that has just been done
+   */
+  public void repeat(Runnable eviction) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+
+            @Override
+            public void afterCommit() {
+              repeatNowAndLater(eviction);
+            }
+          });
+    } else {
+      repeatNowAndLater(eviction);
+    }
+  }
+
+  private void repeatNowAndLater(Runnable eviction) {
+    eviction.run();
+    taskScheduler.schedule(eviction, Instant.now().plus(window));
+  }
+}
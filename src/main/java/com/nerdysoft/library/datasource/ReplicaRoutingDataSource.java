@@ -0,0 +1,87 @@
+package com.nerdysoft.library.datasource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routes connections of read-only transactions to replicas in turn and all other connections to the
+ * primary database. A read-only transaction stays on the primary when the current thread is pinned
+ * to it to read its own writes. The data source must be wrapped into a lazy connection proxy,
+ * because a transaction manager asks for a connection before the read-only flag of a transaction is
+ * exposed.
+ *
+ * @author Oleksandr Semenchenko
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+  private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+  private final List<String> replicaKeys;
+  private final AtomicInteger nextReplica = new AtomicInteger();
+
+  public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas) {
+    Map<Object, Object> targets = new HashMap<>(replicas);
+    targets.put(DataSourceTarget.PRIMARY.name(), primary);
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+    this.replicaKeys = List.copyOf(replicas.keySet());
+  }
+
+  /**
+   * Pins or unpins the current thread to the primary database.
+   *
+   * @param pinned - true to route read-only transactions of the thread to the primary database
+   */
+  public static void pinToPrimary(boolean pinned) {
+    if (pinned) {
+      PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    } else {
+      PINNED_TO_PRIMARY.remove();
+    }
+  }
+
+  /**
+   * Tells whether the current thread is pinned to the primary database.
+   *
+   * @return - true if read-only transactions of the thread are routed to the primary database
+   */
+  public static boolean isPinnedToPrimary() {
+    return Boolean.TRUE.equals(PINNED_TO_PRIMARY.get());
+  }
+
+  /**
+   * Returns the kind of database a connection requested by the current thread is routed to.
+   *
+   * @return - the replica target for a read-only transaction, otherwise the primary target
+   */
+  public DataSourceTarget currentTarget() {
+    return targetOf(TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+  }
+
+  /**
+   * Returns the kind of database a transaction started by the current thread is routed to.
+   *
+   * @param readOnly - true if the transaction is read-only
+   * @return - the replica target for a read-only transaction, otherwise the primary target
+   */
+  public DataSourceTarget targetOf(boolean readOnly) {
+    if (replicaKeys.isEmpty() || !readOnly || isPinnedToPrimary()) {
+      return DataSourceTarget.PRIMARY;
+    }
+    return DataSourceTarget.REPLICA;
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (currentTarget() == DataSourceTarget.PRIMARY) {
+      return DataSourceTarget.PRIMARY.name();
+    }
+    int replica = Math.floorMod(nextReplica.getAndIncrement(), replicaKeys.size());
+    return replicaKeys.get(replica);
+  }
+}
@@ -0,0 +1,51 @@
+package com.nerdysoft.library.datasource;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps rows read from replicas out of the second-level cache. A replica may lag behind the primary
+ * database, a row it returns after the cache was evicted by a write would be cached as the current
+ * state for the whole time to live of a region. Sessions of read-only transactions routed to
+ * replicas read the cache but never put into it.
+ *
+ * @author Oleksandr Semenchenko
+ */
+public class ReplicaRoutingTransactionManager extends JpaTransactionManager {
+
+  private final transient ReplicaRoutingDataSource routingDataSource;
+
+  public ReplicaRoutingTransactionManager(ReplicaRoutingDataSource routingDataSource) {
+    this.routingDataSource = routingDataSource;
+  }
+
+  @Override
+  protected void doBegin(Object transaction, TransactionDefinition definition) {
+    super.doBegin(transaction, definition);
+
+    if (routingDataSource.targetOf(definition.isReadOnly()) == DataSourceTarget.REPLICA) {
+      currentSession().setCacheMode(CacheMode.GET);
+    }
+  }
+
+  @Override
+  protected void doCleanupAfterCompletion(Object transaction) {
+    Session session = currentSession();
+
+    if (session.getCacheMode() == CacheMode.GET) {
+      session.setCacheMode(CacheMode.NORMAL);
+    }
+    super.doCleanupAfterCompletion(transaction);
+  }
+
+  private Session currentSession() {
+    EntityManagerHolder holder =
+        (EntityManagerHolder)
+            TransactionSynchronizationManager.getResource(obtainEntityManagerFactory());
+    return holder.getEntityManager().unwrap(Session.class);
+  }
+}
@@ -20,6 +20,18 @@ public class ExceptionMessages {
   public static final String ZERO_BOOKS_AMOUNT = "The books amount cannot be less than zero";
   public static final String USER_BORROWED_BOOKS =
       "The user with id=%s has %s borrowed books and cannot be deleted";
+  public static final String CONCURRENT_UPDATE =
+      "The resource was changed by a concurrent request, try again";
+  public static final String NOT_VALID_BOOK_TITLE =
+      "The book title should start with a capital letter and have 3 symbols minimum length";
+  public static final String NOT_VALID_AUTHOR_NAME =
+      "The name should contain two capital words with name and surname and space between them";
+  public static final String NOT_VALID_BOOK_AMOUNT = "The books amount should be greater than zero";
+  public static final String NOT_VALID_IMPORT_ROW = "The row cannot be parsed: %s";
+  public static final String IMPORT_CHUNK_NOT_WRITTEN =
+      "The rows of the lines are not written, import them again";
+  public static final String NOT_VALID_CURSOR =
+      "The cursor is not valid for the request, request the first page again";
   public static final String RESOURCE_NOT_FOUND = "Resource by the provided path not found";
 
   private ExceptionMessages() {}
@@ -1,5 +1,6 @@
 package com.nerdysoft.library.exceptionhandler;
 
+import com.nerdysoft.library.exceptionhandler.exceptions.BadRequestException;
 import com.nerdysoft.library.exceptionhandler.exceptions.ConflictException;
 import com.nerdysoft.library.exceptionhandler.exceptions.UnitNotFoundException;
 import java.time.LocalDateTime;
@@ -41,6 +42,12 @@ public class ServiceExceptionHandler {
     return ResponseEntity.status(HttpStatus.CONFLICT).body(responseBody);
   }
 
+  @ExceptionHandler(BadRequestException.class)
+  protected ResponseEntity<Object> handleBadRequestException(BadRequestException e) {
+    Map<String, Object> responseBody = buildResponseBody(HttpStatus.BAD_REQUEST, e.getMessage());
+    return ResponseEntity.badRequest().body(responseBody);
+  }
+
   @ExceptionHandler(MethodArgumentNotValidException.class)
   protected ResponseEntity<Object> handleMethodArgumentNotValidException(
       MethodArgumentNotValidException e) {
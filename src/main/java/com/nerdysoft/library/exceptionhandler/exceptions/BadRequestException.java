@@ -0,0 +1,8 @@
+package com.nerdysoft.library.exceptionhandler.exceptions;
+
+public class BadRequestException extends RuntimeException {
+
+  public BadRequestException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,8 @@
+package com.nerdysoft.library.exceptionhandler.exceptions;
+
+public class ConcurrentUpdateConflictException extends ConflictException {
+
+  public ConcurrentUpdateConflictException(String message) {
+    super(message);
+  }
+}
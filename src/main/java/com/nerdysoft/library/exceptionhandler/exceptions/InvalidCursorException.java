@@ -0,0 +1,10 @@
+package com.nerdysoft.library.exceptionhandler.exceptions;
+
+import com.nerdysoft.library.exceptionhandler.ExceptionMessages;
+
+public class InvalidCursorException extends BadRequestException {
+
+  public InvalidCursorException() {
+    super(ExceptionMessages.NOT_VALID_CURSOR);
+  }
+}
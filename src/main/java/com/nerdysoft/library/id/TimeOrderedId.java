@@ -0,0 +1,15 @@
+package com.nerdysoft.library.id;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+import org.hibernate.annotations.IdGeneratorType;
+
+/** Marks an entity ID which is generated by {@link TimeOrderedIdGenerator} on insert. */
+@IdGeneratorType(TimeOrderedIdentifierGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface TimeOrderedId {}
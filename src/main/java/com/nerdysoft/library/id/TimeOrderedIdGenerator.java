@@ -0,0 +1,69 @@
+package com.nerdysoft.library.id;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+import org.springframework.util.IdGenerator;
+
+/**
+ * Generates version 7 UUIDs of RFC 9562. An ID starts with a Unix timestamp in milliseconds, so IDs
+ * generated one after another are close in an index and new rows are appended to the right side of
+ * a B-tree instead of random pages. The 12 bits after the version are a counter that keeps IDs of a
+ * thread increasing within a millisecond. The counter starts from a random value in the lower half
+ * of its range, and when it overflows the timestamp is moved one millisecond forward. The remaining
+ * 62 bits are random.
+ *
+ * <p>The state is kept per thread and random bits are taken from {@link ThreadLocalRandom}, so
+ * threads don't contend with each other. The random bits are not cryptographically strong, an ID
+ * should not be used as a secret.
+ *
+ * @author Oleksandr Semenchenko
+ */
+public class TimeOrderedIdGenerator implements IdGenerator {
+
+  private static final int COUNTER_BITS = 12;
+  private static final int MAX_COUNTER = (1 << COUNTER_BITS) - 1;
+  private static final int COUNTER_SEED_BOUND = 1 << (COUNTER_BITS - 1);
+  private static final int TIMESTAMP_SHIFT = 16;
+  private static final long VERSION = 7L << COUNTER_BITS;
+  private static final long VARIANT = 0x8000000000000000L;
+  private static final long RANDOM_MASK = 0x3FFFFFFFFFFFFFFFL;
+
+  private final LongSupplier clock;
+  private final ThreadLocal<State> states = ThreadLocal.withInitial(State::new);
+
+  public TimeOrderedIdGenerator() {
+    this(System::currentTimeMillis);
+  }
+
+  TimeOrderedIdGenerator(LongSupplier clock) {
+    this.clock = clock;
+  }
+
+  @Override
+  public UUID generateId() {
+    State state = states.get();
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long timestamp = clock.getAsLong();
+
+    if (timestamp > state.timestamp) {
+      state.timestamp = timestamp;
+      state.counter = random.nextInt(COUNTER_SEED_BOUND);
+    } else if (state.counter < MAX_COUNTER) {
+      state.counter++;
+    } else {
+      state.timestamp++;
+      state.counter = random.nextInt(COUNTER_SEED_BOUND);
+    }
+    long mostSigBits = state.timestamp << TIMESTAMP_SHIFT | VERSION | state.counter;
+    long leastSigBits = VARIANT | random.nextLong() & RANDOM_MASK;
+    return new UUID(mostSigBits, leastSigBits);
+  }
+
+  /** The timestamp and the counter of the last ID generated by a thread. */
+  private static class State {
+
+    private long timestamp = Long.MIN_VALUE;
+    private int counter;
+  }
+}
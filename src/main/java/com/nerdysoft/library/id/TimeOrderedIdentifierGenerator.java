@@ -0,0 +1,30 @@
+package com.nerdysoft.library.id;
+
+import java.util.EnumSet;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+/**
+ * Hibernate generator of entity IDs. Hibernate creates a generator per entity, all of them share
+ * one ID generator, so IDs of a thread increase across entities.
+ */
+public class TimeOrderedIdentifierGenerator implements BeforeExecutionGenerator {
+
+  private static final TimeOrderedIdGenerator ID_GENERATOR = new TimeOrderedIdGenerator();
+
+  @Override
+  public Object generate(
+      SharedSessionContractImplementor session,
+      Object owner,
+      Object currentValue,
+      EventType eventType) {
+    return ID_GENERATOR.generateId();
+  }
+
+  @Override
+  public EnumSet<EventType> getEventTypes() {
+    return EventTypeSets.INSERT_ONLY;
+  }
+}
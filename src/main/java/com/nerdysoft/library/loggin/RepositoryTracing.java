@@ -0,0 +1,128 @@
+package com.nerdysoft.library.loggin;
+
+import com.nerdysoft.library.repository.RepositoryInterfaces;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+/**
+ * Advice for tracing repository methods. Tracing is active when the logger of this class is at the
+ * DEBUG level, the level can be changed at runtime through the actuator loggers endpoint. When the
+ * level is higher no arguments or results are formatted. Entities and collections are summarized to
+ * avoid loading lazy associations, other values are truncated. Calls are named by the repository
+ * interface of the target, so methods inherited from Spring Data interfaces are sampled by the
+ * rates of their repository.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@Aspect
+@Component
+@Slf4j
+@RequiredArgsConstructor
+@EnableConfigurationProperties(RepositoryTracingProperties.class)
+public class RepositoryTracing {
+
+  private static final String TRUNCATION_MARK = "...";
+
+  private final RepositoryTracingProperties properties;
+  private final EntityManagerFactory entityManagerFactory;
+
+  @Pointcut("execution(public * com.nerdysoft.library.repository.*Repository.*(..))")
+  void repositoryMethod() {}
+
+  @Around("repositoryMethod()")
+  public Object traceRepositoryMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+    if (!log.isDebugEnabled()) {
+      return joinPoint.proceed();
+    }
+
+    String repositoryName =
+        RepositoryInterfaces.resolveName(
+            joinPoint.getTarget(), joinPoint.getSignature().getDeclaringType());
+    String methodName = joinPoint.getSignature().getName();
+
+    if (!isSampled(properties.resolveSampleRate(repositoryName, methodName))) {
+      return joinPoint.proceed();
+    }
+
+    long start = System.nanoTime();
+
+    try {
+      Object result = joinPoint.proceed();
+      log.debug(
+          "{}.{}({}) returned {} in {} µs",
+          repositoryName,
+          methodName,
+          summarizeArguments(joinPoint.getArgs()),
+          summarize(result),
+          elapsedMicros(start));
+      return result;
+    } catch (Throwable e) {
+      log.debug(
+          "{}.{}({}) threw {} in {} µs",
+          repositoryName,
+          methodName,
+          summarizeArguments(joinPoint.getArgs()),
+          e.getClass().getSimpleName(),
+          elapsedMicros(start));
+      throw e;
+    }
+  }
+
+  private boolean isSampled(double sampleRate) {
+    return sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+  }
+
+  private long elapsedMicros(long start) {
+    return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+  }
+
+  private String summarizeArguments(Object[] arguments) {
+    return Arrays.stream(arguments).map(this::summarize).collect(Collectors.joining(", "));
+  }
+
+  String summarize(Object value) {
+    if (value == null) {
+      return "null";
+    } else if (value instanceof Collection<?> collection) {
+      return "%s[size=%d]".formatted(value.getClass().getSimpleName(), collection.size());
+    } else if (value instanceof Slice<?> slice) {
+      return "%s[number=%d, elements=%d]"
+          .formatted(
+              value.getClass().getSimpleName(), slice.getNumber(), slice.getNumberOfElements());
+    } else if (value instanceof Optional<?> optional) {
+      return optional.map(this::summarize).map("Optional[%s]"::formatted).orElse("Optional.empty");
+    } else if (value instanceof HibernateProxy proxy) {
+      LazyInitializer initializer = proxy.getHibernateLazyInitializer();
+      return "%s[id=%s]"
+          .formatted(initializer.getPersistentClass().getSimpleName(), initializer.getIdentifier());
+    } else if (value.getClass().isAnnotationPresent(Entity.class)) {
+      Object id = entityManagerFactory.getPersistenceUnitUtil().getIdentifier(value);
+      return "%s[id=%s]".formatted(value.getClass().getSimpleName(), id);
+    }
+    return truncate(String.valueOf(value));
+  }
+
+  private String truncate(String value) {
+    int maxValueLength = properties.getMaxValueLength();
+    return value.length() <= maxValueLength
+        ? value
+        : value.substring(0, maxValueLength) + TRUNCATION_MARK;
+  }
+}
@@ -0,0 +1,42 @@
+package com.nerdysoft.library.loggin;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Sampling settings of repository tracing. A sample rate is a share of calls from 0 to 1 that are
+ * traced. A rate is resolved by a "Repository.method" key, then by a "Repository" key, then the
+ * default rate is used. The settings can be changed at runtime through the actuator endpoint.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@Data
+@ConfigurationProperties("application.repository-tracing")
+public class RepositoryTracingProperties {
+
+  private volatile double defaultSampleRate = 1;
+  private volatile int maxValueLength = 200;
+  private Map<String, Double> sampleRates = new ConcurrentHashMap<>();
+
+  public void setSampleRates(Map<String, Double> sampleRates) {
+    this.sampleRates = new ConcurrentHashMap<>(sampleRates);
+  }
+
+  /**
+   * Resolves a sample rate of a repository method.
+   *
+   * @param repositoryName - a simple name of a repository interface, also for inherited methods
+   * @param methodName - a method name
+   * @return - a share of calls from 0 to 1 that are traced
+   */
+  public double resolveSampleRate(String repositoryName, String methodName) {
+    Double methodSampleRate = sampleRates.get(repositoryName + "." + methodName);
+
+    if (methodSampleRate != null) {
+      return methodSampleRate;
+    }
+    return sampleRates.getOrDefault(repositoryName, defaultSampleRate);
+  }
+}
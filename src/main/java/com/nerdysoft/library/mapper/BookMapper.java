@@ -1,9 +1,12 @@
 package com.nerdysoft.library.mapper;
 
 import com.nerdysoft.library.repository.entity.Book;
+import com.nerdysoft.library.repository.projection.BookIdentity;
+import com.nerdysoft.library.repository.projection.BookSummary;
 import com.nerdysoft.library.service.dto.BookDto;
 import java.util.List;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingConstants;
 import org.springframework.beans.BeanUtils;
 
@@ -17,14 +20,21 @@ import org.springframework.beans.BeanUtils;
 @Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
 public interface BookMapper {
 
-  List<BookDto> toDtoList(List<Book> books);
+  List<BookDto> toDtoList(List<BookSummary> books);
 
   Book toEntity(BookDto bookDto);
 
   BookDto toDto(Book book);
 
+  @Mapping(target = "version", ignore = true)
+  BookDto toDto(BookSummary book);
+
+  @Mapping(target = "amount", ignore = true)
+  @Mapping(target = "version", ignore = true)
+  BookDto toDto(BookIdentity book);
+
   default Book mergeWithDto(BookDto bookDto, Book book) {
-    BeanUtils.copyProperties(this.toEntity(bookDto), book);
+    BeanUtils.copyProperties(this.toEntity(bookDto), book, "users", "borrowedCopies", "version");
     return book;
   }
 }
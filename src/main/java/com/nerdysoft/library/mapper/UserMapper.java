@@ -21,7 +21,7 @@ public interface UserMapper {
   UserDto toDto(User user);
 
   default User mergeWithDto(UserDto userDto, User user) {
-    BeanUtils.copyProperties(this.toEntity(userDto), user);
+    BeanUtils.copyProperties(this.toEntity(userDto), user, "books", "borrowedCount", "version");
     return user;
   }
 }
@@ -0,0 +1,102 @@
+package com.nerdysoft.library.metrics;
+
+import com.nerdysoft.library.exceptionhandler.exceptions.BadRequestException;
+import com.nerdysoft.library.exceptionhandler.exceptions.ConflictException;
+import com.nerdysoft.library.exceptionhandler.exceptions.UnitNotFoundException;
+import com.nerdysoft.library.repository.RepositoryInterfaces;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Advice for timing service methods and repository queries. Service timers include transaction
+ * commits because the advice wraps the transaction interceptor. Business rule rejections thrown by
+ * services are counted by an exception type. Percentiles of the timers are configured with the
+ * management.metrics.distribution properties.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class LayerMetrics {
+
+  public static final String SERVICE_TIMER = "library.service";
+  public static final String REPOSITORY_TIMER = "library.repository";
+  public static final String REJECTION_COUNTER = "library.rejections";
+
+  private static final String CLASS_TAG = "class";
+  private static final String METHOD_TAG = "method";
+  private static final String EXCEPTION_TAG = "exception";
+  private static final String NO_EXCEPTION = "none";
+
+  private final MeterRegistry meterRegistry;
+
+  @Pointcut("execution(public * com.nerdysoft.library.service.*Service.*(..))")
+  void serviceMethod() {}
+
+  @Pointcut("execution(public * com.nerdysoft.library.repository.*Repository.*(..))")
+  void repositoryMethod() {}
+
+  @Around("serviceMethod()")
+  public Object timeServiceMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+    return time(
+        SERVICE_TIMER,
+        joinPoint,
+        joinPoint.getSignature().getDeclaringType().getSimpleName(),
+        true);
+  }
+
+  /**
+   * Times a repository method. Methods inherited from Spring Data interfaces are tagged by the
+   * repository interface of the target instead of the interface declaring them.
+   *
+   * @param joinPoint - a repository call
+   * @return - a result of the call
+   */
+  @Around("repositoryMethod()")
+  public Object timeRepositoryMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+    String repositoryName =
+        RepositoryInterfaces.resolveName(
+            joinPoint.getTarget(), joinPoint.getSignature().getDeclaringType());
+    return time(REPOSITORY_TIMER, joinPoint, repositoryName, false);
+  }
+
+  private Object time(
+      String timerName, ProceedingJoinPoint joinPoint, String className, boolean countsRejections)
+      throws Throwable {
+    Tags tags = Tags.of(CLASS_TAG, className, METHOD_TAG, joinPoint.getSignature().getName());
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String exceptionName = NO_EXCEPTION;
+
+    try {
+      return joinPoint.proceed();
+    } catch (Throwable e) {
+      exceptionName = e.getClass().getSimpleName();
+
+      if (countsRejections && isRejection(e)) {
+        meterRegistry
+            .counter(REJECTION_COUNTER, tags.and(EXCEPTION_TAG, exceptionName))
+            .increment();
+      }
+      throw e;
+    } finally {
+      sample.stop(meterRegistry.timer(timerName, tags.and(EXCEPTION_TAG, exceptionName)));
+    }
+  }
+
+  private boolean isRejection(Throwable e) {
+    return e instanceof ConflictException
+        || e instanceof UnitNotFoundException
+        || e instanceof BadRequestException;
+  }
+}
@@ -0,0 +1,11 @@
+package com.nerdysoft.library.repository;
+
+import com.nerdysoft.library.repository.entity.Book;
+import java.util.List;
+import java.util.UUID;
+
+public interface BookCatalogRepository {
+
+  List<Book> findBooks(
+      String author, Boolean available, String afterTitle, UUID afterId, int limit);
+}
@@ -0,0 +1,67 @@
+package com.nerdysoft.library.repository;
+
+import static java.util.Objects.nonNull;
+
+import com.nerdysoft.library.repository.entity.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+/**
+ * Repository fragment for the book catalog. Books are ordered by titles and IDs, a page after a
+ * book is found by a row value comparison with the title and the ID of this book, so reading a page
+ * takes the same time at any depth. PostgreSQL seeks to the row value in the title index or, when
+ * books are filtered by an author, in the author index. The availability filter is checked against
+ * the amount included into both indexes.
+ *
+ * @author Oleksandr Semenchenko
+ */
+public class BookCatalogRepositoryImpl implements BookCatalogRepository {
+
+  @PersistenceContext private EntityManager entityManager;
+
+  /**
+   * Returns books ordered by titles and IDs.
+   *
+   * @param author - an author of books, null for any author
+   * @param available - true for books with available copies, false for books without them, null for
+   *     all books
+   * @param afterTitle - a title of the last book of a previous page
+   * @param afterId - an ID of the last book of a previous page, null for the first page
+   * @param limit - the maximum quantity of books
+   * @return - found books
+   */
+  @Override
+  public List<Book> findBooks(
+      String author, Boolean available, String afterTitle, UUID afterId, int limit) {
+    StringJoiner conditions = new StringJoiner(" AND ", " WHERE ", "").setEmptyValue("");
+    Map<String, Object> parameters = new HashMap<>();
+
+    if (nonNull(author)) {
+      conditions.add("b.author = :author");
+      parameters.put("author", author);
+    }
+
+    if (nonNull(available)) {
+      conditions.add(available ? "b.amount > 0" : "b.amount = 0");
+    }
+
+    if (nonNull(afterId)) {
+      conditions.add("(b.title, b.id) > (:afterTitle, :afterId)");
+      parameters.put("afterTitle", afterTitle);
+      parameters.put("afterId", afterId);
+    }
+    TypedQuery<Book> query =
+        entityManager
+            .createQuery(
+                "SELECT b FROM Book b" + conditions + " ORDER BY b.title, b.id", Book.class)
+            .setMaxResults(limit);
+    parameters.forEach(query::setParameter);
+    return query.getResultList();
+  }
+}
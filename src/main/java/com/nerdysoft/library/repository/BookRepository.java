@@ -1,31 +1,114 @@
 package com.nerdysoft.library.repository;
 
 import com.nerdysoft.library.repository.entity.Book;
+import com.nerdysoft.library.repository.projection.BookIdentity;
+import com.nerdysoft.library.repository.projection.BookSummary;
+import com.nerdysoft.library.repository.projection.BorrowedBook;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
-public interface BookRepository extends JpaRepository<Book, UUID> {
+public interface BookRepository
+    extends JpaRepository<Book, UUID>,
+        BookRepositoryCustom,
+        BookSearchRepository,
+        BookCatalogRepository {
 
+  /**
+   * Returns a page of borrowed books ordered by a book ID, the amount of each book is the number of
+   * its borrowed copies.
+   */
   @Query(
       value =
           """
-      SELECT b.id, b.title, b.author,
-          (SELECT count(ub2.book_id) FROM users_books ub2 WHERE ub2.book_id = b.id) AS amount
-        FROM books b JOIN users_books ub ON b.id = ub.book_id
+      SELECT new com.nerdysoft.library.repository.projection.BookSummary(
+          b.id, b.title, b.author, b.borrowedCopies)
+        FROM Book b
+        WHERE b.borrowedCopies > 0
+        ORDER BY b.id
       """,
-      nativeQuery = true)
-  List<Book> findAllBooksRelatedToUsers();
+      countQuery = "SELECT COUNT(b) FROM Book b WHERE b.borrowedCopies > 0")
+  Page<BookSummary> findAllBooksRelatedToUsers(Pageable pageable);
 
-  List<Book> findByUsersName(String userName);
+  @Query(
+      """
+      SELECT new com.nerdysoft.library.repository.projection.BookSummary(
+          b.id, b.title, b.author, b.borrowedCopies)
+        FROM Book b
+        WHERE b.borrowedCopies > 0 AND b.id > :afterBookId
+        ORDER BY b.id
+        LIMIT :limit
+      """)
+  List<BookSummary> findBooksRelatedToUsersAfter(
+      @Param("afterBookId") UUID afterBookId, @Param("limit") int limit);
+
+  /**
+   * Returns a relation between a user and a book per row ordered by a user ID. Rows are fetched
+   * from a cursor by chunks of the fetch size, the stream should be consumed in a transaction and
+   * closed.
+   */
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+    @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query(
+      """
+      SELECT new com.nerdysoft.library.repository.projection.BorrowedBook(
+          u.id, u.name, b.id, b.title, b.author)
+        FROM User u JOIN u.books b
+        ORDER BY u.id, b.id
+      """)
+  Stream<BorrowedBook> streamBorrowedBooks();
 
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   @Query(
-      value = "SELECT EXISTS (SELECT ub.* FROM users_books ub WHERE ub.book_id = :bookId)",
-      nativeQuery = true)
-  boolean isBookRelatedToAnyUser(@Param("bookId") String bookId);
+      """
+      SELECT new com.nerdysoft.library.repository.projection.BookIdentity(b.id, b.author, b.title)
+        FROM User u JOIN u.books b
+        WHERE u.name = :userName
+      """)
+  List<BookIdentity> findIdentitiesByUsersName(@Param("userName") String userName);
 
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
   Optional<Book> findByAuthorAndTitle(String author, String title);
+
+  List<BookIdentity> findByAuthorInAndTitleIn(
+      Collection<String> authors, Collection<String> titles);
+
+  @Query(
+      """
+      SELECT new com.nerdysoft.library.repository.projection.BookIdentity(b.id, b.author, b.title)
+        FROM Book b
+        WHERE b.id BETWEEN :fromId AND :toId
+        ORDER BY b.id
+      """)
+  List<BookIdentity> findIdentitiesBetween(
+      @Param("fromId") UUID fromId, @Param("toId") UUID toId, Limit limit);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  List<Book> findByIdInOrderById(Collection<UUID> bookIds);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT b FROM Book b WHERE b.id = :bookId")
+  Optional<Book> findWithLockById(@Param("bookId") UUID bookId);
+
+  /** Returns IDs of books which borrowed copies differ from their relations. */
+  @Query("SELECT b.id FROM Book b WHERE b.borrowedCopies <> SIZE(b.users)")
+  List<UUID> findIdsWithBorrowedCopiesDrift();
+
+  @Query(value = "SELECT COUNT(id) FROM users_books WHERE book_id = :bookId", nativeQuery = true)
+  int countUserRelationsByBookId(@Param("bookId") UUID bookId);
 }
@@ -0,0 +1,30 @@
+package com.nerdysoft.library.repository;
+
+import com.nerdysoft.library.repository.entity.Book;
+import java.util.Collection;
+import java.util.UUID;
+
+public interface BookRepositoryCustom {
+
+  void createBooks(Collection<Book> books);
+
+  void increaseBookAmounts(Collection<Book> books);
+
+  /**
+   * Decreases the amount of a book by one and increases its borrowed copies by one if the amount is
+   * greater than zero.
+   *
+   * @return - 1 if the amount was decreased, 0 if no book or the amount is zero
+   */
+  int decreaseAmountByOneIfAvailable(UUID bookId);
+
+  /**
+   * Decreases the amount of each provided book by one and increases its borrowed copies by one if
+   * the amount is greater than zero.
+   *
+   * @return - a quantity of books which amount was decreased
+   */
+  int decreaseAmountsByOneIfAvailable(Collection<UUID> bookIds);
+
+  void updateBorrowedCopies(UUID bookId, int borrowedCopies);
+}
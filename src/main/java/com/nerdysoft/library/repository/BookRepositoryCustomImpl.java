@@ -0,0 +1,124 @@
+package com.nerdysoft.library.repository;
+
+import com.nerdysoft.library.repository.entity.Book;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.IdGenerator;
+
+/**
+ * Repository fragment for statements that are sent to a database as JDBC batches and for native
+ * statements. The JDBC template participates in a current JPA transaction. Statements bypass the
+ * second-level cache, so the entries of changed books are evicted by IDs. Inserted books invalidate
+ * cached query results of the books table, changed amounts and borrowed copies are not read by
+ * cached queries.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@RequiredArgsConstructor
+public class BookRepositoryCustomImpl implements BookRepositoryCustom {
+
+  private static final String INSERT_BOOK =
+      "INSERT INTO books (id, title, author, amount) VALUES (?, ?, ?, ?)";
+  private static final String INCREASE_BOOK_AMOUNT =
+      "UPDATE books SET amount = amount + ?, version = version + 1 WHERE id = ?";
+  private static final String DECREASE_AMOUNT_BY_ONE =
+      """
+      UPDATE books
+        SET amount = amount - 1, borrowed_copies = borrowed_copies + 1, version = version + 1
+        WHERE id = :bookId AND amount > 0
+      """;
+  private static final String DECREASE_AMOUNTS_BY_ONE =
+      """
+      UPDATE books
+        SET amount = amount - 1, borrowed_copies = borrowed_copies + 1, version = version + 1
+        WHERE id IN (:bookIds) AND amount > 0
+      """;
+  private static final String UPDATE_BORROWED_COPIES =
+      "UPDATE books SET borrowed_copies = :borrowedCopies, version = version + 1 WHERE id = :bookId";
+  private static final String BOOKS_TABLE = "books";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final IdGenerator idGenerator;
+
+  @PersistenceContext private EntityManager entityManager;
+
+  @Value("${application.jdbc.batch-size}")
+  private int batchSize;
+
+  /**
+   * Inserts books. A book without an ID gets a generated one.
+   *
+   * @param books - new books
+   */
+  @Override
+  public void createBooks(Collection<Book> books) {
+    books.stream()
+        .filter(book -> book.getId() == null)
+        .forEach(book -> book.setId(idGenerator.generateId()));
+    jdbcTemplate.batchUpdate(
+        INSERT_BOOK,
+        books,
+        batchSize,
+        (statement, book) -> {
+          statement.setObject(1, book.getId());
+          statement.setString(2, book.getTitle());
+          statement.setString(3, book.getAuthor());
+          statement.setInt(4, book.getAmount());
+        });
+    CacheInvalidation.invalidateQueries(entityManager, BOOKS_TABLE);
+  }
+
+  /**
+   * Increases amounts of existing books by the amount of each provided book.
+   *
+   * @param books - books with IDs and amounts to add
+   */
+  @Override
+  public void increaseBookAmounts(Collection<Book> books) {
+    jdbcTemplate.batchUpdate(
+        INCREASE_BOOK_AMOUNT,
+        books,
+        batchSize,
+        (statement, book) -> {
+          statement.setInt(1, book.getAmount());
+          statement.setObject(2, book.getId());
+        });
+    CacheInvalidation.evictEntities(
+        entityManager, Book.class, books.stream().map(Book::getId).toList());
+  }
+
+  @Override
+  public int decreaseAmountByOneIfAvailable(UUID bookId) {
+    int updatedRows =
+        CacheInvalidation.createStatement(entityManager, DECREASE_AMOUNT_BY_ONE)
+            .setParameter("bookId", bookId)
+            .executeUpdate();
+    CacheInvalidation.evictEntities(entityManager, Book.class, List.of(bookId));
+    return updatedRows;
+  }
+
+  @Override
+  public int decreaseAmountsByOneIfAvailable(Collection<UUID> bookIds) {
+    int updatedRows =
+        CacheInvalidation.createStatement(entityManager, DECREASE_AMOUNTS_BY_ONE)
+            .setParameterList("bookIds", bookIds)
+            .executeUpdate();
+    CacheInvalidation.evictEntities(entityManager, Book.class, bookIds);
+    return updatedRows;
+  }
+
+  @Override
+  public void updateBorrowedCopies(UUID bookId, int borrowedCopies) {
+    CacheInvalidation.createStatement(entityManager, UPDATE_BORROWED_COPIES)
+        .setParameter("borrowedCopies", borrowedCopies)
+        .setParameter("bookId", bookId)
+        .executeUpdate();
+    CacheInvalidation.evictEntities(entityManager, Book.class, List.of(bookId));
+  }
+}
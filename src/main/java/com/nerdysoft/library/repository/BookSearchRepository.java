@@ -0,0 +1,10 @@
+package com.nerdysoft.library.repository;
+
+import com.nerdysoft.library.repository.entity.Book;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface BookSearchRepository {
+
+  Page<Book> search(String query, Pageable pageable);
+}
@@ -0,0 +1,116 @@
+package com.nerdysoft.library.repository;
+
+import com.nerdysoft.library.repository.entity.Book;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+/**
+ * Repository fragment for the full-text search over titles and authors of books. Every database has
+ * its own text index, created by a migration of the vendor, so statements are chosen by the
+ * database product in the same way as Flyway chooses vendor migrations.
+ *
+ * <p>PostgreSQL matches a query in the web search syntax against a GIN indexed tsvector column and
+ * ranks books by ts_rank. H2 uses its native full-text index, which gives the same score to every
+ * match, so books found by H2 are ordered by ID only.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@RequiredArgsConstructor
+public class BookSearchRepositoryImpl implements BookSearchRepository {
+
+  private static final String POSTGRESQL_SEARCH =
+      """
+      SELECT b.id, b.title, b.author, b.amount, b.borrowed_copies, b.version
+        FROM books b, websearch_to_tsquery('simple', ?) query
+        WHERE b.search_vector @@ query
+        ORDER BY ts_rank(b.search_vector, query) DESC, b.id
+        LIMIT ? OFFSET ?
+      """;
+  private static final String POSTGRESQL_COUNT =
+      "SELECT COUNT(*) FROM books WHERE search_vector @@ websearch_to_tsquery('simple', ?)";
+  private static final String H2_SEARCH =
+      """
+      SELECT b.id, b.title, b.author, b.amount, b.borrowed_copies, b.version
+        FROM FT_SEARCH_DATA(?, 0, 0) ft
+        JOIN books b ON b.id = CAST(ft.KEYS[1] AS UUID)
+        ORDER BY ft.SCORE DESC, b.id
+        LIMIT ? OFFSET ?
+      """;
+  private static final String H2_COUNT = "SELECT COUNT(*) FROM FT_SEARCH_DATA(?, 0, 0)";
+  private static final Map<DatabaseDriver, SearchStatements> SEARCH_STATEMENTS =
+      Map.of(
+          DatabaseDriver.POSTGRESQL, new SearchStatements(POSTGRESQL_SEARCH, POSTGRESQL_COUNT),
+          DatabaseDriver.H2, new SearchStatements(H2_SEARCH, H2_COUNT));
+
+  private final JdbcTemplate jdbcTemplate;
+
+  private volatile SearchStatements searchStatements;
+
+  /**
+   * Returns books which titles or authors contain words of a query, the most relevant books go
+   * first.
+   *
+   * @param query - words to search for
+   * @param pageable - a page number and a page size, a sort is ignored
+   * @return - a page of found books
+   */
+  @Override
+  public Page<Book> search(String query, Pageable pageable) {
+    SearchStatements statements = resolveSearchStatements();
+    List<Book> books =
+        jdbcTemplate.query(
+            statements.search(),
+            this::mapBook,
+            query,
+            pageable.getPageSize(),
+            pageable.getOffset());
+    return PageableExecutionUtils.getPage(
+        books, pageable, () -> jdbcTemplate.queryForObject(statements.count(), Long.class, query));
+  }
+
+  private SearchStatements resolveSearchStatements() {
+    if (searchStatements == null) {
+      try {
+        String productName =
+            JdbcUtils.extractDatabaseMetaData(
+                jdbcTemplate.getDataSource(), DatabaseMetaData::getDatabaseProductName);
+        DatabaseDriver databaseDriver = DatabaseDriver.fromProductName(productName);
+        SearchStatements statements = SEARCH_STATEMENTS.get(databaseDriver);
+
+        if (statements == null) {
+          throw new IllegalStateException(
+              "Full-text search is not supported by %s".formatted(productName));
+        }
+        searchStatements = statements;
+      } catch (MetaDataAccessException e) {
+        throw new IllegalStateException("Database product cannot be resolved", e);
+      }
+    }
+    return searchStatements;
+  }
+
+  private Book mapBook(ResultSet resultSet, int rowNumber) throws SQLException {
+    return Book.builder()
+        .id(resultSet.getObject("id", UUID.class))
+        .title(resultSet.getString("title"))
+        .author(resultSet.getString("author"))
+        .amount(resultSet.getInt("amount"))
+        .borrowedCopies(resultSet.getInt("borrowed_copies"))
+        .version(resultSet.getLong("version"))
+        .build();
+  }
+
+  private record SearchStatements(String search, String count) {}
+}
@@ -0,0 +1,97 @@
+package com.nerdysoft.library.repository;
+
+import jakarta.persistence.EntityManager;
+import java.util.Collection;
+import java.util.function.Consumer;
+import org.hibernate.Cache;
+import org.hibernate.cache.spi.TimestampsCache;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.query.NativeQuery;
+
+/**
+ * Invalidates second-level cache entries of rows changed by statements which bypass Hibernate.
+ * Entities and collections are evicted by their IDs when a transaction completes, so a concurrent
+ * transaction can't put a row read before the commit back. Cached query results are invalidated
+ * through the update timestamps of the tables the queries read, without evicting whole entity and
+ * collection regions the way Hibernate does for bulk statements.
+ *
+ * @author Oleksandr Semenchenko
+ */
+final class CacheInvalidation {
+
+  /**
+   * A query space no cached entity, collection or query refers to. Hibernate clears the whole cache
+   * after a native statement without query spaces and the whole regions of declared tables.
+   */
+  private static final String UNCACHED_SPACE = "uncached";
+
+  private CacheInvalidation() {}
+
+  /**
+   * Creates a native statement after which Hibernate invalidates no cached data, a caller evicts
+   * the data the statement changes.
+   *
+   * @param entityManager - an entity manager of a current transaction
+   * @param sql - a statement
+   * @return - a native query
+   */
+  static NativeQuery<?> createStatement(EntityManager entityManager, String sql) {
+    NativeQuery<?> statement = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+    statement.addSynchronizedQuerySpace(UNCACHED_SPACE);
+    return statement;
+  }
+
+  /**
+   * Evicts entities on the completion of a current transaction.
+   *
+   * @param entityManager - an entity manager of a current transaction
+   * @param entityClass - an entity class
+   * @param ids - IDs of changed entities
+   */
+  static void evictEntities(EntityManager entityManager, Class<?> entityClass, Collection<?> ids) {
+    afterCompletion(
+        entityManager, cache -> ids.forEach(id -> cache.evictEntityData(entityClass, id)));
+  }
+
+  /**
+   * Evicts a collection on the completion of a current transaction.
+   *
+   * @param entityManager - an entity manager of a current transaction
+   * @param role - a role of a collection, the entity name and the property name
+   * @param ownerId - an ID of the entity which owns the collection
+   */
+  static void evictCollection(EntityManager entityManager, String role, Object ownerId) {
+    afterCompletion(entityManager, cache -> cache.evictCollectionData(role, ownerId));
+  }
+
+  /**
+   * Invalidates cached results of queries which read tables. The results are not cached from the
+   * change until the completion of a current transaction.
+   *
+   * @param entityManager - an entity manager of a current transaction
+   * @param tables - changed tables
+   */
+  static void invalidateQueries(EntityManager entityManager, String... tables) {
+    SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+
+    if (!session.getFactory().getSessionFactoryOptions().isQueryCacheEnabled()) {
+      return;
+    }
+    TimestampsCache timestampsCache = session.getFactory().getCache().getTimestampsCache();
+    timestampsCache.preInvalidate(tables, session);
+    session
+        .getActionQueue()
+        .registerProcess(
+            (success, completedSession) -> timestampsCache.invalidate(tables, completedSession));
+  }
+
+  private static void afterCompletion(EntityManager entityManager, Consumer<Cache> eviction) {
+    SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+
+    if (!session.getFactory().getSessionFactoryOptions().isSecondLevelCacheEnabled()) {
+      return;
+    }
+    Cache cache = session.getFactory().getCache();
+    session.getActionQueue().registerProcess((success, completedSession) -> eviction.accept(cache));
+  }
+}
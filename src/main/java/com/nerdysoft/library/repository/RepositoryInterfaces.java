@@ -0,0 +1,53 @@
+package com.nerdysoft.library.repository;
+
+import java.util.Optional;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Resolves the application repository interface implemented by a repository bean. A method
+ * inherited from a Spring Data interface, such as findById, is declared by CrudRepository, so the
+ * declaring type of an advised method doesn't tell which repository is called. The most specific
+ * interface of this package with the Repository suffix is resolved once for each class.
+ *
+ * @author Oleksandr Semenchenko
+ */
+public final class RepositoryInterfaces {
+
+  private static final String REPOSITORY_SUFFIX = "Repository";
+
+  private static final ClassValue<Optional<Class<?>>> REPOSITORY_INTERFACES =
+      new ClassValue<>() {
+
+        @Override
+        protected Optional<Class<?>> computeValue(Class<?> type) {
+          return ClassUtils.getAllInterfacesForClassAsSet(type).stream()
+              .filter(RepositoryInterfaces::isApplicationRepository)
+              .reduce(
+                  (repository, anotherRepository) ->
+                      repository.isAssignableFrom(anotherRepository)
+                          ? anotherRepository
+                          : repository);
+        }
+      };
+
+  private RepositoryInterfaces() {}
+
+  /**
+   * Resolves a simple name of a repository interface.
+   *
+   * @param repository - a target of an advised call
+   * @param declaringType - a type declaring the called method, used if no interface is resolved
+   * @return - a simple name of the repository interface
+   */
+  public static String resolveName(Object repository, Class<?> declaringType) {
+    if (repository == null) {
+      return declaringType.getSimpleName();
+    }
+    return REPOSITORY_INTERFACES.get(repository.getClass()).orElse(declaringType).getSimpleName();
+  }
+
+  private static boolean isApplicationRepository(Class<?> type) {
+    return type.getPackageName().equals(RepositoryInterfaces.class.getPackageName())
+        && type.getSimpleName().endsWith(REPOSITORY_SUFFIX);
+  }
+}
@@ -0,0 +1,14 @@
+package com.nerdysoft.library.repository;
+
+import com.nerdysoft.library.repository.entity.User;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface UserCatalogRepository {
+
+  List<User> findUsersByName(String afterName, UUID afterId, int limit);
+
+  List<User> findUsersByMembershipDate(
+      LocalDate from, LocalDate to, LocalDate afterDate, UUID afterId, int limit);
+}
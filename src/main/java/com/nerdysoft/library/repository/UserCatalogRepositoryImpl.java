@@ -0,0 +1,95 @@
+package com.nerdysoft.library.repository;
+
+import static java.util.Objects.nonNull;
+
+import com.nerdysoft.library.repository.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+/**
+ * Repository fragment for the user catalog. Users are ordered by names and IDs or, when they are
+ * filtered by a membership date range, by membership dates and IDs, so each order is served by its
+ * own index. A page after a user is found by a row value comparison with the sort key and the ID of
+ * this user, so reading a page takes the same time at any depth.
+ *
+ * @author Oleksandr Semenchenko
+ */
+public class UserCatalogRepositoryImpl implements UserCatalogRepository {
+
+  @PersistenceContext private EntityManager entityManager;
+
+  /**
+   * Returns users ordered by names and IDs.
+   *
+   * @param afterName - a name of the last user of a previous page
+   * @param afterId - an ID of the last user of a previous page, null for the first page
+   * @param limit - the maximum quantity of users
+   * @return - found users
+   */
+  @Override
+  public List<User> findUsersByName(String afterName, UUID afterId, int limit) {
+    StringJoiner conditions = new StringJoiner(" AND ", " WHERE ", "").setEmptyValue("");
+    Map<String, Object> parameters = new HashMap<>();
+
+    if (nonNull(afterId)) {
+      conditions.add("(u.name, u.id) > (:afterName, :afterId)");
+      parameters.put("afterName", afterName);
+      parameters.put("afterId", afterId);
+    }
+    return findUsers(conditions, parameters, "u.name", limit);
+  }
+
+  /**
+   * Returns users which membership dates are in a range ordered by membership dates and IDs. Users
+   * without a membership date are never returned.
+   *
+   * @param from - the first date of the range, null for a range without a beginning
+   * @param to - the last date of the range, null for a range without an end
+   * @param afterDate - a membership date of the last user of a previous page
+   * @param afterId - an ID of the last user of a previous page, null for the first page
+   * @param limit - the maximum quantity of users
+   * @return - found users
+   */
+  @Override
+  public List<User> findUsersByMembershipDate(
+      LocalDate from, LocalDate to, LocalDate afterDate, UUID afterId, int limit) {
+    StringJoiner conditions = new StringJoiner(" AND ", " WHERE ", "");
+    Map<String, Object> parameters = new HashMap<>();
+    conditions.add("u.membershipDate IS NOT NULL");
+
+    if (nonNull(from)) {
+      conditions.add("u.membershipDate >= :from");
+      parameters.put("from", from);
+    }
+
+    if (nonNull(to)) {
+      conditions.add("u.membershipDate <= :to");
+      parameters.put("to", to);
+    }
+
+    if (nonNull(afterId)) {
+      conditions.add("(u.membershipDate, u.id) > (:afterDate, :afterId)");
+      parameters.put("afterDate", afterDate);
+      parameters.put("afterId", afterId);
+    }
+    return findUsers(conditions, parameters, "u.membershipDate", limit);
+  }
+
+  private List<User> findUsers(
+      StringJoiner conditions, Map<String, Object> parameters, String sortKey, int limit) {
+    TypedQuery<User> query =
+        entityManager
+            .createQuery(
+                "SELECT u FROM User u" + conditions + " ORDER BY " + sortKey + ", u.id", User.class)
+            .setMaxResults(limit);
+    parameters.forEach(query::setParameter);
+    return query.getResultList();
+  }
+}
@@ -1,29 +1,36 @@
 package com.nerdysoft.library.repository;
 
 import com.nerdysoft.library.repository.entity.User;
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-public interface UserRepository extends JpaRepository<User, UUID> {
-
-  @Modifying
-  @Query(
-      value =
-          """
-      INSERT INTO users_books (id, user_id, book_id)
-        VALUES(:relationId, :userId, :bookId)
-      """,
-      nativeQuery = true)
-  void createUserBookRelation(
-      @Param("userId") String userId,
-      @Param("bookId") String bookId,
-      @Param("relationId") String relationId);
+public interface UserRepository
+    extends JpaRepository<User, UUID>, UserRepositoryCustom, UserCatalogRepository {
+
+  @Query("SELECT u.borrowedCount FROM User u WHERE u.id = :userId")
+  Optional<Integer> findBorrowedCountById(@Param("userId") UUID userId);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT u FROM User u WHERE u.id = :userId")
+  Optional<User> findWithLockById(@Param("userId") UUID userId);
+
+  /** Returns IDs of users which borrowed book quantity differs from their relations. */
+  @Query("SELECT u.id FROM User u WHERE u.borrowedCount <> SIZE(u.books)")
+  List<UUID> findIdsWithBorrowedCountDrift();
 
   @Query(value = "SELECT COUNT(id) FROM users_books ub WHERE user_id = :userId", nativeQuery = true)
-  int countBookRelationsByUserId(@Param("userId") String userId);
+  int countBookRelationsByUserId(@Param("userId") UUID userId);
 
   boolean existsByIdAndBooksId(UUID userId, UUID bookId);
+
+  @Query("SELECT b.id FROM User u JOIN u.books b WHERE u.id = :userId AND b.id IN :bookIds")
+  List<UUID> findRelatedBookIds(
+      @Param("userId") UUID userId, @Param("bookIds") Collection<UUID> bookIds);
 }
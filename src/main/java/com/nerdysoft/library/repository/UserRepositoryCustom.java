@@ -0,0 +1,23 @@
+package com.nerdysoft.library.repository;
+
+import java.util.Collection;
+import java.util.UUID;
+
+public interface UserRepositoryCustom {
+
+  void createUserBookRelation(UUID relationId, UUID userId, UUID bookId);
+
+  void createUserBookRelations(UUID userId, Collection<UUID> bookIds);
+
+  /**
+   * Increases the borrowed book quantity of a user by one if the user has fewer books than the
+   * provided maximum quantity.
+   *
+   * @return - 1 if the quantity was increased, 0 if no user or the user has the maximum quantity
+   */
+  int increaseBorrowedCountIfBelow(UUID userId, int maxBookQuantity);
+
+  void increaseBorrowedCount(UUID userId, int quantity);
+
+  void updateBorrowedCount(UUID userId, int borrowedCount);
+}
@@ -0,0 +1,102 @@
+package com.nerdysoft.library.repository;
+
+import com.nerdysoft.library.repository.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.IdGenerator;
+
+/**
+ * Repository fragment for statements that are sent to a database as a JDBC batch and for native
+ * statements. The JDBC template participates in a current JPA transaction. Statements bypass the
+ * second-level cache, so the entries of changed users and of the books of a user are evicted by
+ * user IDs. New relations invalidate cached query results of the relation table, changed borrowed
+ * book quantities are not read by cached queries.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+  private static final String INSERT_USER_BOOK_RELATION =
+      "INSERT INTO users_books (id, user_id, book_id) VALUES (?, ?, ?)";
+  private static final String INSERT_ONE_USER_BOOK_RELATION =
+      "INSERT INTO users_books (id, user_id, book_id) VALUES (:relationId, :userId, :bookId)";
+  private static final String INCREASE_BORROWED_COUNT_IF_BELOW =
+      """
+      UPDATE users SET borrowed_count = borrowed_count + 1, version = version + 1
+        WHERE id = :userId AND borrowed_count < :maxBookQuantity
+      """;
+  private static final String INCREASE_BORROWED_COUNT =
+      """
+      UPDATE users SET borrowed_count = borrowed_count + :quantity, version = version + 1
+        WHERE id = :userId
+      """;
+  private static final String UPDATE_BORROWED_COUNT =
+      "UPDATE users SET borrowed_count = :borrowedCount, version = version + 1 WHERE id = :userId";
+  private static final String USER_BOOKS_ROLE = User.class.getName() + ".books";
+  private static final String USER_BOOK_RELATION_TABLE = "users_books";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final IdGenerator idGenerator;
+
+  @PersistenceContext private EntityManager entityManager;
+
+  @Override
+  public void createUserBookRelation(UUID relationId, UUID userId, UUID bookId) {
+    CacheInvalidation.createStatement(entityManager, INSERT_ONE_USER_BOOK_RELATION)
+        .setParameter("relationId", relationId)
+        .setParameter("userId", userId)
+        .setParameter("bookId", bookId)
+        .executeUpdate();
+    invalidateUserBooks(userId);
+  }
+
+  @Override
+  public void createUserBookRelations(UUID userId, Collection<UUID> bookIds) {
+    List<Object[]> relations =
+        bookIds.stream()
+            .map(bookId -> new Object[] {idGenerator.generateId(), userId, bookId})
+            .toList();
+    jdbcTemplate.batchUpdate(INSERT_USER_BOOK_RELATION, relations);
+    invalidateUserBooks(userId);
+  }
+
+  @Override
+  public int increaseBorrowedCountIfBelow(UUID userId, int maxBookQuantity) {
+    int updatedRows =
+        CacheInvalidation.createStatement(entityManager, INCREASE_BORROWED_COUNT_IF_BELOW)
+            .setParameter("userId", userId)
+            .setParameter("maxBookQuantity", maxBookQuantity)
+            .executeUpdate();
+    CacheInvalidation.evictEntities(entityManager, User.class, List.of(userId));
+    return updatedRows;
+  }
+
+  @Override
+  public void increaseBorrowedCount(UUID userId, int quantity) {
+    CacheInvalidation.createStatement(entityManager, INCREASE_BORROWED_COUNT)
+        .setParameter("quantity", quantity)
+        .setParameter("userId", userId)
+        .executeUpdate();
+    CacheInvalidation.evictEntities(entityManager, User.class, List.of(userId));
+  }
+
+  @Override
+  public void updateBorrowedCount(UUID userId, int borrowedCount) {
+    CacheInvalidation.createStatement(entityManager, UPDATE_BORROWED_COUNT)
+        .setParameter("borrowedCount", borrowedCount)
+        .setParameter("userId", userId)
+        .executeUpdate();
+    CacheInvalidation.evictEntities(entityManager, User.class, List.of(userId));
+  }
+
+  private void invalidateUserBooks(UUID userId) {
+    CacheInvalidation.evictCollection(entityManager, USER_BOOKS_ROLE, userId);
+    CacheInvalidation.invalidateQueries(entityManager, USER_BOOK_RELATION_TABLE);
+  }
+}
@@ -1,11 +1,13 @@
 package com.nerdysoft.library.repository.entity;
 
+import com.nerdysoft.library.id.TimeOrderedId;
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.util.Set;
 import java.util.UUID;
 import lombok.AllArgsConstructor;
@@ -14,26 +16,32 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "books")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book")
 @Data
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
 public class Book {
 
-  @Id
-  @GeneratedValue(strategy = GenerationType.UUID)
-  @JdbcTypeCode(SqlTypes.VARCHAR)
-  private UUID id;
+  @Id @TimeOrderedId private UUID id;
 
   private String title;
   private String author;
   private Integer amount;
 
+  /** A quantity of borrowed copies maintained by BookRepository statements, a new book has none. */
+  @Column(name = "borrowed_copies", updatable = false)
+  @Builder.Default
+  private Integer borrowedCopies = 0;
+
+  @Version private Long version;
+
   @ManyToMany(mappedBy = "books")
   @ToString.Exclude
   @EqualsAndHashCode.Exclude
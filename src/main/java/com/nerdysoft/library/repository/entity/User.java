@@ -1,15 +1,16 @@
 package com.nerdysoft.library.repository.entity;
 
+import com.nerdysoft.library.id.TimeOrderedId;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import java.time.LocalDate;
 import java.util.Set;
 import java.util.UUID;
@@ -17,13 +18,15 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
 @Data
 @Builder
 @AllArgsConstructor
@@ -31,10 +34,7 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 @EntityListeners(AuditingEntityListener.class)
 public class User {
 
-  @Id
-  @GeneratedValue(strategy = GenerationType.UUID)
-  @JdbcTypeCode(SqlTypes.VARCHAR)
-  private UUID id;
+  @Id @TimeOrderedId private UUID id;
 
   private String name;
 
@@ -42,7 +42,15 @@ public class User {
   @CreatedDate
   private LocalDate membershipDate;
 
+  /** A quantity of borrowed books maintained by UserRepository statements, a new user has none. */
+  @Column(name = "borrowed_count", updatable = false)
+  @Builder.Default
+  private Integer borrowedCount = 0;
+
+  @Version private Long version;
+
   @ManyToMany
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user-books")
   @JoinTable(
       name = "users_books",
       joinColumns = @JoinColumn(name = "user_id", referencedColumnName = "id"),
@@ -0,0 +1,5 @@
+package com.nerdysoft.library.repository.projection;
+
+import java.util.UUID;
+
+public record BookIdentity(UUID id, String author, String title) {}
@@ -0,0 +1,5 @@
+package com.nerdysoft.library.repository.projection;
+
+import java.util.UUID;
+
+public record BookSummary(UUID id, String title, String author, Integer amount) {}
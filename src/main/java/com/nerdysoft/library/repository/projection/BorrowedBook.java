@@ -0,0 +1,6 @@
+package com.nerdysoft.library.repository.projection;
+
+import java.util.UUID;
+
+public record BorrowedBook(
+    UUID userId, String userName, UUID bookId, String title, String author) {}
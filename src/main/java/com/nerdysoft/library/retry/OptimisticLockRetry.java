@@ -0,0 +1,109 @@
+package com.nerdysoft.library.retry;
+
+import static com.nerdysoft.library.exceptionhandler.ExceptionMessages.CONCURRENT_UPDATE;
+
+import com.nerdysoft.library.exceptionhandler.exceptions.ConcurrentUpdateConflictException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Advice that repeats a method annotated with {@link RetryOnConflict} when its transaction fails an
+ * optimistic version check. The advice wraps the transaction interceptor, so every attempt runs in
+ * a new transaction and reads fresh entities. A method called within an existing transaction is not
+ * retried, because the transaction is already marked for rollback. Conflicts are counted by a
+ * method and an entity. The ID of a conflicting row is logged rather than tagged, a tag per row
+ * would register a meter per book or user.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@RequiredArgsConstructor
+@EnableConfigurationProperties(OptimisticLockRetryProperties.class)
+public class OptimisticLockRetry {
+
+  public static final String CONFLICT_COUNTER = "library.optimistic-lock.conflicts";
+  public static final String RETRY_COUNTER = "library.optimistic-lock.retries";
+
+  private static final String METHOD_TAG = "method";
+  private static final String ENTITY_TAG = "entity";
+  private static final String UNKNOWN = "unknown";
+
+  private final OptimisticLockRetryProperties properties;
+  private final MeterRegistry meterRegistry;
+
+  @Around("@annotation(com.nerdysoft.library.retry.RetryOnConflict)")
+  public Object retry(ProceedingJoinPoint joinPoint) throws Throwable {
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      return joinPoint.proceed();
+    }
+
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return joinPoint.proceed();
+      } catch (OptimisticLockingFailureException e) {
+        String method = joinPoint.getSignature().getName();
+        String entity = resolveEntity(e);
+        log.debug(
+            "Optimistic lock conflict on {} {} in {}, attempt {}",
+            entity,
+            resolveId(e),
+            method,
+            attempt);
+        Tags tags = Tags.of(METHOD_TAG, method, ENTITY_TAG, entity);
+        meterRegistry.counter(CONFLICT_COUNTER, tags).increment();
+
+        if (attempt >= properties.getMaxAttempts()) {
+          log.debug(CONCURRENT_UPDATE, e);
+          throw new ConcurrentUpdateConflictException(CONCURRENT_UPDATE);
+        }
+        meterRegistry.counter(RETRY_COUNTER, tags).increment();
+        backOff(attempt, e);
+      }
+    }
+  }
+
+  private void backOff(int attempt, OptimisticLockingFailureException conflict) {
+    long initialBackoff = properties.getInitialBackoff().toMillis();
+    long backoffLimit =
+        Math.min(properties.getMaxBackoff().toMillis(), initialBackoff << (attempt - 1));
+
+    try {
+      Thread.sleep(ThreadLocalRandom.current().nextLong(backoffLimit + 1));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw conflict;
+    }
+  }
+
+  private String resolveEntity(OptimisticLockingFailureException e) {
+    if (e instanceof ObjectOptimisticLockingFailureException objectFailure
+        && objectFailure.getPersistentClassName() != null) {
+      String className = objectFailure.getPersistentClassName();
+      return className.substring(className.lastIndexOf('.') + 1);
+    }
+    return UNKNOWN;
+  }
+
+  private Object resolveId(OptimisticLockingFailureException e) {
+    if (e instanceof ObjectOptimisticLockingFailureException objectFailure) {
+      return objectFailure.getIdentifier();
+    }
+    return UNKNOWN;
+  }
+}
@@ -0,0 +1,20 @@
+package com.nerdysoft.library.retry;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Retry policy for optimistic locking conflicts. A backoff before a retry is a random duration up
+ * to the initial backoff doubled for every previous retry and limited by the maximum backoff.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@Data
+@ConfigurationProperties("application.optimistic-lock-retry")
+public class OptimisticLockRetryProperties {
+
+  private int maxAttempts = 3;
+  private Duration initialBackoff = Duration.ofMillis(10);
+  private Duration maxBackoff = Duration.ofMillis(200);
+}
@@ -0,0 +1,16 @@
+package com.nerdysoft.library.retry;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a transactional service method that is retried when its transaction fails an optimistic
+ * version check.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {}
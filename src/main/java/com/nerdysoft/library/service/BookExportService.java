@@ -0,0 +1,9 @@
+package com.nerdysoft.library.service;
+
+import com.nerdysoft.library.service.dto.BookExportFormat;
+import java.io.OutputStream;
+
+public interface BookExportService {
+
+  long exportBorrowedBooks(OutputStream outputStream, BookExportFormat format);
+}
@@ -0,0 +1,12 @@
+package com.nerdysoft.library.service;
+
+import com.nerdysoft.library.service.dto.BookImportFormat;
+import com.nerdysoft.library.service.dto.BookImportReportDto;
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface BookImportService {
+
+  BookImportReportDto importBooks(InputStream inputStream, BookImportFormat format)
+      throws IOException;
+}
@@ -2,9 +2,11 @@ package com.nerdysoft.library.service;
 
 import com.nerdysoft.library.service.dto.BookDto;
 import com.nerdysoft.library.service.dto.BookWrapper;
+import com.nerdysoft.library.service.dto.CursorPageDto;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 public interface BookService {
 
@@ -12,6 +14,12 @@ public interface BookService {
 
   Page<BookDto> getAllBorrowedBooks(Pageable pageable);
 
+  Slice<BookDto> getBorrowedBooksAfter(UUID afterBookId, int size);
+
+  Page<BookDto> searchBooks(String query, Pageable pageable);
+
+  CursorPageDto<BookDto> getBooks(String author, Boolean available, String cursor, int size);
+
   BookWrapper getBooksBorrowedByUser(String userName);
 
   BookDto decreaseBookAmountByOne(UUID bookId);
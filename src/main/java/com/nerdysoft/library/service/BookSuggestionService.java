@@ -0,0 +1,10 @@
+package com.nerdysoft.library.service;
+
+import com.nerdysoft.library.service.dto.BookSuggestionsDto;
+
+public interface BookSuggestionService {
+
+  BookSuggestionsDto suggest(String prefix, Integer limit);
+
+  void loadSuggestions();
+}
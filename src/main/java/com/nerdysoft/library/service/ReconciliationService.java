@@ -0,0 +1,8 @@
+package com.nerdysoft.library.service;
+
+public interface ReconciliationService {
+
+  int reconcileBorrowedCounts();
+
+  int reconcileBorrowedCopies();
+}
@@ -1,6 +1,10 @@
 package com.nerdysoft.library.service;
 
+import com.nerdysoft.library.service.dto.BookBorrowingDto;
+import com.nerdysoft.library.service.dto.CursorPageDto;
 import com.nerdysoft.library.service.dto.UserDto;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 public interface UserService {
@@ -13,5 +17,10 @@ public interface UserService {
 
   void borrowBookByUser(UUID userId, UUID bookId);
 
+  List<BookBorrowingDto> borrowBooksByUser(UUID userId, List<UUID> bookIds);
+
   UserDto getUserById(UUID userId);
+
+  CursorPageDto<UserDto> getUsers(
+      LocalDate membershipFrom, LocalDate membershipTo, String cursor, int size);
 }
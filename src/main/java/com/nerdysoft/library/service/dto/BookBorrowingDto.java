@@ -0,0 +1,20 @@
+package com.nerdysoft.library.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookBorrowingDto {
+
+  private UUID bookId;
+  private BorrowingStatus status;
+  private String details;
+}
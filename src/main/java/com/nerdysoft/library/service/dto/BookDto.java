@@ -1,5 +1,6 @@
 package com.nerdysoft.library.service.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.nerdysoft.library.validation.AuthorName;
 import com.nerdysoft.library.validation.BookTitle;
@@ -24,4 +25,7 @@ public class BookDto {
   @AuthorName private String author;
 
   @Positive private Integer amount;
+
+  /** A version of the entity, it is sent in the ETag header instead of a body. */
+  @JsonIgnore private Long version;
 }
@@ -0,0 +1,6 @@
+package com.nerdysoft.library.service.dto;
+
+public enum BookExportFormat {
+  CSV,
+  NDJSON
+}
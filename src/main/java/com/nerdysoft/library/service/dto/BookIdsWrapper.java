@@ -0,0 +1,18 @@
+package com.nerdysoft.library.service.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookIdsWrapper {
+
+  @NotEmpty private List<UUID> bookIds;
+}
@@ -0,0 +1,19 @@
+package com.nerdysoft.library.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookImportErrorDto {
+
+  private long line;
+  private Long lastLine;
+  private String details;
+}
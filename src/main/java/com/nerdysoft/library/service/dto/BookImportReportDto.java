@@ -0,0 +1,24 @@
+package com.nerdysoft.library.service.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookImportReportDto {
+
+  private long rowsRead;
+  private long rowsRejected;
+  private long booksCreated;
+  private long booksUpdated;
+  private long chunks;
+  private long chunksFailed;
+  private long rowsFailed;
+  @Builder.Default private List<BookImportErrorDto> errors = new ArrayList<>();
+}
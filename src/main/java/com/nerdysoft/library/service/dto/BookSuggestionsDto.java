@@ -0,0 +1,17 @@
+package com.nerdysoft.library.service.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookSuggestionsDto {
+
+  private List<String> authors;
+  private List<String> titles;
+}
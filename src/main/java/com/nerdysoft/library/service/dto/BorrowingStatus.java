@@ -0,0 +1,9 @@
+package com.nerdysoft.library.service.dto;
+
+public enum BorrowingStatus {
+  BORROWED,
+  ALREADY_BORROWED,
+  NOT_AVAILABLE,
+  NOT_FOUND,
+  LIMIT_EXCEEDED
+}
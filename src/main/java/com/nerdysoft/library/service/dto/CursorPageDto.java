@@ -0,0 +1,19 @@
+package com.nerdysoft.library.service.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPageDto<T> {
+
+  private List<T> content;
+
+  /** An opaque token of the next page, null for the last page. */
+  private String nextCursor;
+}
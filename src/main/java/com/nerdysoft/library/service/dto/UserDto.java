@@ -1,5 +1,6 @@
 package com.nerdysoft.library.service.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.NotBlank;
 import java.time.LocalDate;
 import java.util.UUID;
@@ -18,4 +19,7 @@ public class UserDto {
 
   @NotBlank private String name;
   private LocalDate membershipDate;
+
+  /** A version of the entity, it is sent in the ETag header instead of a body. */
+  @JsonIgnore private Long version;
 }
@@ -0,0 +1,30 @@
+package com.nerdysoft.library.service.event;
+
+import com.nerdysoft.library.repository.projection.BookIdentity;
+import java.util.UUID;
+
+/**
+ * Published when a book is created, its title or author is changed or it is deleted. A created book
+ * has no previous state and a deleted book has no current state.
+ *
+ * @param previous - a book before the change
+ * @param current - a book after the change
+ */
+public record BookChangedEvent(BookIdentity previous, BookIdentity current) {
+
+  public static BookChangedEvent created(BookIdentity book) {
+    return new BookChangedEvent(null, book);
+  }
+
+  public static BookChangedEvent updated(BookIdentity previous, BookIdentity current) {
+    return new BookChangedEvent(previous, current);
+  }
+
+  public static BookChangedEvent deleted(BookIdentity book) {
+    return new BookChangedEvent(book, null);
+  }
+
+  public UUID bookId() {
+    return previous == null ? current.id() : previous.id();
+  }
+}
@@ -0,0 +1,31 @@
+package com.nerdysoft.library.service.event;
+
+import java.util.UUID;
+
+/**
+ * Published when a book is borrowed or its amount is changed. A delta is the change of the amount
+ * of available copies, a user is provided only for a borrowed book.
+ *
+ * @param userId - a user ID
+ * @param bookId - a book ID
+ * @param operation - an operation
+ * @param delta - a change of the amount
+ */
+public record StockChangedEvent(UUID userId, UUID bookId, StockOperation operation, int delta) {
+
+  public static StockChangedEvent borrowed(UUID userId, UUID bookId) {
+    return new StockChangedEvent(userId, bookId, StockOperation.BORROW, -1);
+  }
+
+  public static StockChangedEvent added(UUID bookId, int amount) {
+    return new StockChangedEvent(null, bookId, StockOperation.ADD, amount);
+  }
+
+  public static StockChangedEvent removed(UUID bookId, int amount) {
+    return new StockChangedEvent(null, bookId, StockOperation.REMOVE, -amount);
+  }
+
+  public static StockChangedEvent deleted(UUID bookId, int amount) {
+    return new StockChangedEvent(null, bookId, StockOperation.DELETE, -amount);
+  }
+}
@@ -0,0 +1,31 @@
+package com.nerdysoft.library.service.event;
+
+import java.util.Arrays;
+
+/**
+ * An operation which changes the stock of a book. Codes are stored in the audit journal, so a code
+ * of an operation must not be changed.
+ */
+public enum StockOperation {
+  BORROW((byte) 1),
+  ADD((byte) 2),
+  REMOVE((byte) 3),
+  DELETE((byte) 4);
+
+  private final byte code;
+
+  StockOperation(byte code) {
+    this.code = code;
+  }
+
+  public byte getCode() {
+    return code;
+  }
+
+  public static StockOperation ofCode(byte code) {
+    return Arrays.stream(values())
+        .filter(operation -> operation.code == code)
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("Unknown stock operation " + code));
+  }
+}
@@ -0,0 +1,116 @@
+package com.nerdysoft.library.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.nerdysoft.library.repository.BookRepository;
+import com.nerdysoft.library.repository.projection.BorrowedBook;
+import com.nerdysoft.library.service.BookExportService;
+import com.nerdysoft.library.service.dto.BookExportFormat;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Exports borrowed books row by row while they are read from a database cursor, so the heap use
+ * doesn't depend on the quantity of rows. Rows are projections, which are not kept by a persistence
+ * context, and are written to a buffered writer that is flushed to a client when the buffer is
+ * full.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookExportServiceImpl implements BookExportService {
+
+  private static final String CSV_HEADER = "userId,userName,bookId,title,author";
+  private static final char CSV_DELIMITER = ',';
+  private static final char CSV_QUOTE = '"';
+  private static final char LINE_SEPARATOR = '\n';
+
+  private final BookRepository bookRepository;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Writes a row for each relation between a user and a book. If a client closes the connection,
+   * the export stops and the cursor is closed.
+   *
+   * @param outputStream - a response body
+   * @param format - a format of rows
+   * @return - a quantity of written rows
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public long exportBorrowedBooks(OutputStream outputStream, BookExportFormat format) {
+    ObjectWriter jsonWriter =
+        objectMapper
+            .writer()
+            .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .without(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+    long writtenRows = 0;
+
+    try (Stream<BorrowedBook> borrowedBooks = bookRepository.streamBorrowedBooks();
+        Writer writer =
+            new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8))) {
+      if (format == BookExportFormat.CSV) {
+        writer.write(CSV_HEADER);
+        writer.write(LINE_SEPARATOR);
+      }
+      Iterator<BorrowedBook> iterator = borrowedBooks.iterator();
+
+      while (iterator.hasNext()) {
+        BorrowedBook borrowedBook = iterator.next();
+
+        if (format == BookExportFormat.CSV) {
+          writeCsvRow(writer, borrowedBook);
+        } else {
+          jsonWriter.writeValue(writer, borrowedBook);
+        }
+        writer.write(LINE_SEPARATOR);
+        writtenRows++;
+      }
+    } catch (IOException e) {
+      log.debug("Export of borrowed books is interrupted after {} rows", writtenRows, e);
+    }
+    return writtenRows;
+  }
+
+  private void writeCsvRow(Writer writer, BorrowedBook borrowedBook) throws IOException {
+    writer.write(borrowedBook.userId().toString());
+    writer.write(CSV_DELIMITER);
+    writeCsvColumn(writer, borrowedBook.userName());
+    writer.write(CSV_DELIMITER);
+    writer.write(borrowedBook.bookId().toString());
+    writer.write(CSV_DELIMITER);
+    writeCsvColumn(writer, borrowedBook.title());
+    writer.write(CSV_DELIMITER);
+    writeCsvColumn(writer, borrowedBook.author());
+  }
+
+  private void writeCsvColumn(Writer writer, String column) throws IOException {
+    if (column == null) {
+      return;
+    }
+
+    if (column.indexOf(CSV_DELIMITER) < 0
+        && column.indexOf(CSV_QUOTE) < 0
+        && column.indexOf(LINE_SEPARATOR) < 0
+        && column.indexOf('\r') < 0) {
+      writer.write(column);
+    } else {
+      writer.write(CSV_QUOTE);
+      writer.write(column.replace("\"", "\"\""));
+      writer.write(CSV_QUOTE);
+    }
+  }
+}
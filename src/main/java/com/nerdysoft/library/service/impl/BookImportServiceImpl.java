@@ -0,0 +1,325 @@
+package com.nerdysoft.library.service.impl;
+
+import static com.nerdysoft.library.exceptionhandler.ExceptionMessages.IMPORT_CHUNK_NOT_WRITTEN;
+import static com.nerdysoft.library.exceptionhandler.ExceptionMessages.NOT_VALID_AUTHOR_NAME;
+import static com.nerdysoft.library.exceptionhandler.ExceptionMessages.NOT_VALID_BOOK_AMOUNT;
+import static com.nerdysoft.library.exceptionhandler.ExceptionMessages.NOT_VALID_BOOK_TITLE;
+import static com.nerdysoft.library.exceptionhandler.ExceptionMessages.NOT_VALID_IMPORT_ROW;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nerdysoft.library.repository.BookRepository;
+import com.nerdysoft.library.repository.entity.Book;
+import com.nerdysoft.library.repository.projection.BookIdentity;
+import com.nerdysoft.library.service.BookImportService;
+import com.nerdysoft.library.service.dto.BookDto;
+import com.nerdysoft.library.service.dto.BookImportErrorDto;
+import com.nerdysoft.library.service.dto.BookImportFormat;
+import com.nerdysoft.library.service.dto.BookImportReportDto;
+import com.nerdysoft.library.service.event.BookChangedEvent;
+import com.nerdysoft.library.service.event.StockChangedEvent;
+import com.nerdysoft.library.validation.validators.BookTitleValidator;
+import com.nerdysoft.library.validation.validators.NameValidator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Imports books from a request body line by line. Rows are validated by the same rules as a book in
+ * a request body and gathered into chunks. Each chunk is written in its own transaction by JDBC
+ * batches, so only one chunk is kept in memory regardless of the request body size. A chunk which
+ * fails to be written is rolled back and reported with the range of its lines, and the import goes
+ * on with the next chunk, so a client knows which rows to import again.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookImportServiceImpl implements BookImportService {
+
+  private static final String GET_BOOK_BY_ID_CACHE = "getBookByIdCache";
+  private static final String CSV_HEADER = "title,author,amount";
+  private static final char CSV_DELIMITER = ',';
+  private static final char CSV_QUOTE = '"';
+  private static final int CSV_COLUMNS = 3;
+
+  private final BookRepository bookRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final CacheManager cacheManager;
+  private final ObjectMapper objectMapper;
+  private final ApplicationEventPublisher eventPublisher;
+  private final BookTitleValidator bookTitleValidator = new BookTitleValidator();
+  private final NameValidator nameValidator = new NameValidator();
+
+  @Value("${application.book-import.chunk-size}")
+  private int chunkSize;
+
+  @Value("${application.book-import.max-reported-errors}")
+  private int maxReportedErrors;
+
+  /**
+   * Rows with the same title and author are merged the same way as a book is added by a single
+   * request. If such a book already exists in the database, its amount is increased by the amount
+   * in a row, otherwise a new book is created. Not valid rows are skipped and reported. A chunk
+   * which is not written is reported with its first and last lines regardless of the limit of
+   * reported errors.
+   *
+   * @param inputStream - rows of books
+   * @param format - a format of rows
+   * @return - a summary of the import
+   */
+  @Override
+  public BookImportReportDto importBooks(InputStream inputStream, BookImportFormat format)
+      throws IOException {
+    BookImportReportDto report = BookImportReportDto.builder().build();
+    Map<BookKey, Book> chunk = new LinkedHashMap<>();
+    int chunkRows = 0;
+    long chunkFirstLine = 0;
+    long lineNumber = 0;
+    BufferedReader reader =
+        new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    String line;
+
+    while (nonNull(line = reader.readLine())) {
+      lineNumber++;
+
+      if (line.isBlank() || isCsvHeader(line, format, lineNumber)) {
+        continue;
+      }
+      report.setRowsRead(report.getRowsRead() + 1);
+
+      if (addRowToChunk(chunk, line, format, lineNumber, report)) {
+        chunkFirstLine = chunkRows == 0 ? lineNumber : chunkFirstLine;
+        chunkRows++;
+      }
+
+      if (chunkRows == chunkSize) {
+        writeChunk(chunk, report, chunkRows, chunkFirstLine, lineNumber);
+        chunk.clear();
+        chunkRows = 0;
+      }
+    }
+
+    if (!chunk.isEmpty()) {
+      writeChunk(chunk, report, chunkRows, chunkFirstLine, lineNumber);
+    }
+    return report;
+  }
+
+  private boolean isCsvHeader(String line, BookImportFormat format, long lineNumber) {
+    return format == BookImportFormat.CSV
+        && lineNumber == 1
+        && CSV_HEADER.equalsIgnoreCase(line.replace(" ", ""));
+  }
+
+  private boolean addRowToChunk(
+      Map<BookKey, Book> chunk,
+      String line,
+      BookImportFormat format,
+      long lineNumber,
+      BookImportReportDto report) {
+    BookDto bookDto;
+
+    try {
+      bookDto = parseRow(line, format);
+    } catch (IllegalArgumentException | JsonProcessingException e) {
+      rejectRow(report, lineNumber, NOT_VALID_IMPORT_ROW.formatted(e.getMessage()));
+      return false;
+    }
+    String validationError = validate(bookDto);
+
+    if (nonNull(validationError)) {
+      rejectRow(report, lineNumber, validationError);
+      return false;
+    }
+    Book book =
+        Book.builder()
+            .title(bookDto.getTitle())
+            .author(bookDto.getAuthor())
+            .amount(bookDto.getAmount())
+            .build();
+    chunk.merge(
+        new BookKey(book.getAuthor(), book.getTitle()),
+        book,
+        (chunkBook, rowBook) -> {
+          chunkBook.setAmount(chunkBook.getAmount() + rowBook.getAmount());
+          return chunkBook;
+        });
+    return true;
+  }
+
+  private BookDto parseRow(String line, BookImportFormat format) throws JsonProcessingException {
+    if (format == BookImportFormat.NDJSON) {
+      return objectMapper.readValue(line, BookDto.class);
+    }
+    List<String> columns = parseCsvRow(line);
+
+    if (columns.size() != CSV_COLUMNS) {
+      throw new IllegalArgumentException(
+          "expected %s columns but found %s".formatted(CSV_COLUMNS, columns.size()));
+    }
+    return BookDto.builder()
+        .title(columns.get(0))
+        .author(columns.get(1))
+        .amount(Integer.parseInt(columns.get(2).trim()))
+        .build();
+  }
+
+  private List<String> parseCsvRow(String line) {
+    List<String> columns = new ArrayList<>(CSV_COLUMNS);
+    StringBuilder column = new StringBuilder();
+    boolean isQuoted = false;
+
+    for (int i = 0; i < line.length(); i++) {
+      char literal = line.charAt(i);
+
+      if (isQuoted
+          && literal == CSV_QUOTE
+          && i + 1 < line.length()
+          && line.charAt(i + 1) == CSV_QUOTE) {
+        column.append(CSV_QUOTE);
+        i++;
+      } else if (literal == CSV_QUOTE) {
+        isQuoted = !isQuoted;
+      } else if (literal == CSV_DELIMITER && !isQuoted) {
+        columns.add(column.toString());
+        column.setLength(0);
+      } else {
+        column.append(literal);
+      }
+    }
+    columns.add(column.toString());
+    return columns;
+  }
+
+  private String validate(BookDto bookDto) {
+    if (!bookTitleValidator.isValid(bookDto.getTitle(), null)) {
+      return NOT_VALID_BOOK_TITLE;
+    } else if (isNull(bookDto.getAuthor()) || !nameValidator.isValid(bookDto.getAuthor(), null)) {
+      return NOT_VALID_AUTHOR_NAME;
+    } else if (isNull(bookDto.getAmount()) || bookDto.getAmount() <= 0) {
+      return NOT_VALID_BOOK_AMOUNT;
+    }
+    return null;
+  }
+
+  private void rejectRow(BookImportReportDto report, long lineNumber, String details) {
+    report.setRowsRejected(report.getRowsRejected() + 1);
+
+    if (report.getErrors().size() < maxReportedErrors) {
+      report
+          .getErrors()
+          .add(BookImportErrorDto.builder().line(lineNumber).details(details).build());
+    }
+  }
+
+  private void writeChunk(
+      Map<BookKey, Book> chunk,
+      BookImportReportDto report,
+      int chunkRows,
+      long firstLine,
+      long lastLine) {
+    List<Book> increasedBooks;
+
+    try {
+      increasedBooks = transactionTemplate.execute(status -> saveChunk(chunk));
+    } catch (DataAccessException | TransactionException e) {
+      log.warn("Book import chunk of lines {}-{} is not written", firstLine, lastLine, e);
+      report.setChunksFailed(report.getChunksFailed() + 1);
+      report.setRowsFailed(report.getRowsFailed() + chunkRows);
+      report
+          .getErrors()
+          .add(
+              BookImportErrorDto.builder()
+                  .line(firstLine)
+                  .lastLine(lastLine)
+                  .details(IMPORT_CHUNK_NOT_WRITTEN)
+                  .build());
+      return;
+    }
+    int createdBooks = chunk.size() - increasedBooks.size();
+    evictBooksFromCache(increasedBooks);
+
+    report.setChunks(report.getChunks() + 1);
+    report.setBooksCreated(report.getBooksCreated() + createdBooks);
+    report.setBooksUpdated(report.getBooksUpdated() + increasedBooks.size());
+    log.info(
+        "Book import chunk {} is written: {} books created, {} books updated, {} rows read",
+        report.getChunks(),
+        createdBooks,
+        increasedBooks.size(),
+        report.getRowsRead());
+  }
+
+  private List<Book> saveChunk(Map<BookKey, Book> chunk) {
+    Set<String> authors = chunk.keySet().stream().map(BookKey::author).collect(Collectors.toSet());
+    Set<String> titles = chunk.keySet().stream().map(BookKey::title).collect(Collectors.toSet());
+    Map<BookKey, BookIdentity> existingBooks =
+        bookRepository.findByAuthorInAndTitleIn(authors, titles).stream()
+            .collect(
+                Collectors.toMap(
+                    book -> new BookKey(book.author(), book.title()),
+                    Function.identity(),
+                    (book, duplicate) -> book));
+    List<Book> newBooks = new ArrayList<>();
+    List<Book> increasedBooks = new ArrayList<>();
+
+    chunk.forEach(
+        (key, book) -> {
+          BookIdentity existingBook = existingBooks.get(key);
+
+          if (isNull(existingBook)) {
+            newBooks.add(book);
+          } else {
+            book.setId(existingBook.id());
+            increasedBooks.add(book);
+          }
+        });
+    bookRepository.createBooks(newBooks);
+    bookRepository.increaseBookAmounts(increasedBooks);
+    newBooks.forEach(
+        book ->
+            eventPublisher.publishEvent(
+                BookChangedEvent.created(
+                    new BookIdentity(book.getId(), book.getAuthor(), book.getTitle()))));
+    chunk
+        .values()
+        .forEach(
+            book ->
+                eventPublisher.publishEvent(
+                    StockChangedEvent.added(book.getId(), book.getAmount())));
+    return increasedBooks;
+  }
+
+  private void evictBooksFromCache(List<Book> books) {
+    Cache cache = cacheManager.getCache(GET_BOOK_BY_ID_CACHE);
+
+    if (nonNull(cache)) {
+      books.forEach(book -> cache.evict(book.getId()));
+    }
+  }
+
+  private record BookKey(String author, String title) {}
+}
@@ -2,6 +2,7 @@ package com.nerdysoft.library.service.impl;
 
 import static com.nerdysoft.library.exceptionhandler.ExceptionMessages.BOOK_IS_BORROWED;
 import static com.nerdysoft.library.exceptionhandler.ExceptionMessages.BOOK_NOT_FOUND;
+import static java.util.Objects.isNull;
 
 import com.nerdysoft.library.exceptionhandler.ExceptionMessages;
 import com.nerdysoft.library.exceptionhandler.exceptions.BookAmountConflictException;
@@ -10,10 +11,16 @@ import com.nerdysoft.library.exceptionhandler.exceptions.DeleteBookConflictExcep
 import com.nerdysoft.library.mapper.BookMapper;
 import com.nerdysoft.library.repository.BookRepository;
 import com.nerdysoft.library.repository.entity.Book;
+import com.nerdysoft.library.repository.projection.BookIdentity;
+import com.nerdysoft.library.repository.projection.BookSummary;
+import com.nerdysoft.library.retry.RetryOnConflict;
 import com.nerdysoft.library.service.BookService;
 import com.nerdysoft.library.service.dto.BookDto;
 import com.nerdysoft.library.service.dto.BookWrapper;
-import jakarta.transaction.Transactional;
+import com.nerdysoft.library.service.dto.CursorPageDto;
+import com.nerdysoft.library.service.event.BookChangedEvent;
+import com.nerdysoft.library.service.event.StockChangedEvent;
+import com.nerdysoft.library.service.impl.KeysetPages.Cursor;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -22,10 +29,14 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
@@ -33,50 +44,128 @@ import org.springframework.stereotype.Service;
 public class BookServiceImpl implements BookService {
 
   private static final String GET_BOOK_BY_ID_CACHE = "getBookByIdCache";
+  private static final String TITLE_SORT_KEY = "title";
 
   private final BookRepository bookRepository;
   private final BookMapper bookMapper;
+  private final ApplicationEventPublisher eventPublisher;
 
+  /**
+   * Updates a book. The book is flushed before mapping, so the cached book carries the increased
+   * version.
+   *
+   * @param bookDto - a book
+   * @return - an updated book
+   */
   @Override
+  @RetryOnConflict
   @Transactional
   @CachePut(value = GET_BOOK_BY_ID_CACHE, key = "#bookDto.id")
   public BookDto updateBook(BookDto bookDto) {
     Book book = findBookById(bookDto.getId());
+    BookIdentity previousBook = toIdentity(book);
+    int previousAmount = book.getAmount();
     Book updatedBook = bookMapper.mergeWithDto(bookDto, book);
-    Book savedBook = bookRepository.save(updatedBook);
+    Book savedBook = bookRepository.saveAndFlush(updatedBook);
+    eventPublisher.publishEvent(BookChangedEvent.updated(previousBook, toIdentity(savedBook)));
+    publishAmountChange(savedBook.getId(), savedBook.getAmount() - previousAmount);
     return bookMapper.toDto(savedBook);
   }
 
+  /**
+   * Returns a page of borrowed books ordered by a book ID. The amount of each book is the number of
+   * its borrowed copies. A sort requested by a client is ignored to keep the order stable.
+   *
+   * @param pageable - a page number and a page size
+   * @return - a page of borrowed books
+   */
   @Override
+  @Transactional(readOnly = true)
   public Page<BookDto> getAllBorrowedBooks(Pageable pageable) {
-    List<Book> books = bookRepository.findAllBooksRelatedToUsers();
-    List<BookDto> bookDtos = bookMapper.toDtoList(books);
-    return new PageImpl<>(bookDtos, pageable, bookDtos.size());
+    Pageable unsortedPageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+    return bookRepository.findAllBooksRelatedToUsers(unsortedPageable).map(bookMapper::toDto);
+  }
+
+  /**
+   * Returns borrowed books which IDs follow the provided book ID. The method serves keyset
+   * pagination, a client passes the ID of the last book of a previous slice to get the next one.
+   *
+   * @param afterBookId - an ID of the last book of a previous slice
+   * @param size - a slice size
+   * @return - a slice of borrowed books ordered by a book ID
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public Slice<BookDto> getBorrowedBooksAfter(UUID afterBookId, int size) {
+    List<BookSummary> books = bookRepository.findBooksRelatedToUsersAfter(afterBookId, size + 1);
+    boolean hasNext = books.size() > size;
+    List<BookDto> bookDtos = bookMapper.toDtoList(hasNext ? books.subList(0, size) : books);
+    return new SliceImpl<>(bookDtos, PageRequest.ofSize(size), hasNext);
+  }
+
+  /**
+   * Returns books which titles or authors contain words of a query ordered by relevance. A blank
+   * query gives an empty page without querying a database.
+   *
+   * @param query - words to search for
+   * @param pageable - a page number and a page size
+   * @return - a page of found books
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public Page<BookDto> searchBooks(String query, Pageable pageable) {
+    if (query.isBlank()) {
+      return Page.empty(pageable);
+    }
+    return bookRepository.search(query.strip(), pageable).map(bookMapper::toDto);
+  }
+
+  /**
+   * Returns a page of books ordered by titles. The next page is requested by the cursor of the
+   * previous one, so pages don't shift when books are added or deleted between requests.
+   *
+   * @param author - an author of books, null for any author
+   * @param available - true for books with available copies, false for books without them, null for
+   *     all books
+   * @param cursor - a cursor of a previous page, null for the first page
+   * @param size - a page size, limited by 1 and 100
+   * @return - a page of books and a cursor of the next page
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public CursorPageDto<BookDto> getBooks(
+      String author, Boolean available, String cursor, int size) {
+    int pageSize = KeysetPages.limitPageSize(size);
+    Cursor<String> after =
+        isNull(cursor)
+            ? new Cursor<>(TITLE_SORT_KEY, null, null)
+            : KeysetPages.decode(cursor, TITLE_SORT_KEY, String::valueOf);
+    List<Book> books =
+        bookRepository.findBooks(author, available, after.key(), after.id(), pageSize + 1);
+    return KeysetPages.toPage(
+        books,
+        pageSize,
+        bookMapper::toDto,
+        book -> new Cursor<>(TITLE_SORT_KEY, book.getTitle(), book.getId()));
   }
 
   @Override
+  @Transactional(readOnly = true)
   public BookWrapper getBooksBorrowedByUser(String userName) {
-    List<Book> borrowedBooks = bookRepository.findByUsersName(userName);
+    List<BookIdentity> borrowedBooks = bookRepository.findIdentitiesByUsersName(userName);
 
     if (borrowedBooks.isEmpty()) {
       log.debug(ExceptionMessages.BOOK_NOT_FOUND_BY_USER_NAME.formatted(userName));
       throw new BookNotFoundException(
           ExceptionMessages.BOOK_NOT_FOUND_BY_USER_NAME.formatted(userName));
     }
-    List<BookDto> borrowedBookDtos =
-        borrowedBooks.stream()
-            .map(
-                book -> {
-                  book.setAmount(null);
-                  return book;
-                })
-            .map(bookMapper::toDto)
-            .toList();
+    List<BookDto> borrowedBookDtos = borrowedBooks.stream().map(bookMapper::toDto).toList();
 
     return BookWrapper.builder().userName(userName).books(borrowedBookDtos).build();
   }
 
   @Override
+  @RetryOnConflict
   @Transactional
   @CacheEvict(value = GET_BOOK_BY_ID_CACHE, key = "#bookId")
   public BookDto decreaseBookAmountByOne(UUID bookId) {
@@ -90,10 +179,12 @@ public class BookServiceImpl implements BookService {
     booksAmount--;
     book.setAmount(booksAmount);
     Book savedBook = bookRepository.save(book);
+    eventPublisher.publishEvent(StockChangedEvent.removed(bookId, 1));
     return bookMapper.toDto(savedBook);
   }
 
   @Override
+  @Transactional(readOnly = true)
   @Cacheable(value = GET_BOOK_BY_ID_CACHE, key = "#bookId")
   public BookDto getBookById(UUID bookId) {
     Book book = findBookById(bookId);
@@ -110,15 +201,15 @@ public class BookServiceImpl implements BookService {
   @Transactional
   @CacheEvict(value = GET_BOOK_BY_ID_CACHE, key = "#bookId")
   public void deleteBookById(UUID bookId) {
-    if (bookRepository.isBookRelatedToAnyUser(bookId.toString())) {
+    Book book = findBookById(bookId);
+
+    if (book.getBorrowedCopies() != 0) {
       log.debug(BOOK_IS_BORROWED.formatted(bookId));
       throw new DeleteBookConflictException(BOOK_IS_BORROWED.formatted(bookId));
     }
-    Book book =
-        bookRepository
-            .findById(bookId)
-            .orElseThrow(() -> new BookNotFoundException(BOOK_NOT_FOUND.formatted(bookId)));
     bookRepository.delete(book);
+    eventPublisher.publishEvent(BookChangedEvent.deleted(toIdentity(book)));
+    eventPublisher.publishEvent(StockChangedEvent.deleted(bookId, book.getAmount()));
   }
 
   /**
@@ -130,7 +221,9 @@ public class BookServiceImpl implements BookService {
    * @return - a created or updated book
    */
   @Override
+  @RetryOnConflict
   @Transactional
+  @CacheEvict(value = GET_BOOK_BY_ID_CACHE, key = "#result.id")
   public BookDto addBook(BookDto bookDto) {
     Optional<Book> databaseBookOptional =
         bookRepository.findByAuthorAndTitle(bookDto.getAuthor(), bookDto.getTitle());
@@ -145,13 +238,27 @@ public class BookServiceImpl implements BookService {
   private BookDto createBook(BookDto bookDto) {
     Book newBook = bookMapper.toEntity(bookDto);
     Book savedBook = bookRepository.save(newBook);
+    eventPublisher.publishEvent(BookChangedEvent.created(toIdentity(savedBook)));
+    eventPublisher.publishEvent(StockChangedEvent.added(savedBook.getId(), savedBook.getAmount()));
     return bookMapper.toDto(savedBook);
   }
 
-  private BookDto increaseBookAmount(Book book, int booksAmount) {
-    booksAmount += book.getAmount();
-    book.setAmount(booksAmount);
+  private BookDto increaseBookAmount(Book book, int addedAmount) {
+    book.setAmount(book.getAmount() + addedAmount);
     Book updatedBook = bookRepository.save(book);
+    eventPublisher.publishEvent(StockChangedEvent.added(updatedBook.getId(), addedAmount));
     return bookMapper.toDto(updatedBook);
   }
+
+  private void publishAmountChange(UUID bookId, int amountDelta) {
+    if (amountDelta > 0) {
+      eventPublisher.publishEvent(StockChangedEvent.added(bookId, amountDelta));
+    } else if (amountDelta < 0) {
+      eventPublisher.publishEvent(StockChangedEvent.removed(bookId, -amountDelta));
+    }
+  }
+
+  private BookIdentity toIdentity(Book book) {
+    return new BookIdentity(book.getId(), book.getAuthor(), book.getTitle());
+  }
 }
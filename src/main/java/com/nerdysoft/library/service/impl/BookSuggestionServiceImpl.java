@@ -0,0 +1,283 @@
+package com.nerdysoft.library.service.impl;
+
+import com.nerdysoft.library.config.BookSuggestionProperties;
+import com.nerdysoft.library.repository.BookRepository;
+import com.nerdysoft.library.repository.projection.BookIdentity;
+import com.nerdysoft.library.service.BookSuggestionService;
+import com.nerdysoft.library.service.dto.BookSuggestionsDto;
+import com.nerdysoft.library.service.event.BookChangedEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Suggests authors and titles of books by a prefix from in-memory indexes, so a suggestion doesn't
+ * query a database. The indexes are loaded by a listener of the application started event, so the
+ * readiness state changes to accepting traffic when they are loaded. The web server accepts
+ * requests earlier, suggestions are incomplete until then. The indexes are changed by events of
+ * committed book changes. A load builds new indexes and replaces the current ones when all books
+ * are read.
+ *
+ * <p>Changes committed while a load runs are applied to the current indexes and replayed onto the
+ * new ones before they replace the current ones. A chunk read after a change was committed already
+ * contains the change, so a change replaces the state the load has read rather than its previous
+ * state. The state of a book is kept for this when its change is going to be committed, before a
+ * chunk can see it.
+ *
+ * <p>Books are read by chunks ordered by an ID, and chunks are added to the indexes by several
+ * threads while the next chunk is read. Time-ordered IDs of new books share leading digits, so
+ * ranges of IDs can't be split in advance into parts of similar sizes. The quantity of read chunks
+ * waiting for a thread is bounded, so a load keeps a few chunks in memory at most.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@EnableConfigurationProperties(BookSuggestionProperties.class)
+public class BookSuggestionServiceImpl implements BookSuggestionService {
+
+  private static final UUID LOWEST_ID = new UUID(0, 0);
+  private static final UUID HIGHEST_ID = new UUID(-1L, -1L);
+
+  private final BookRepository bookRepository;
+  private final BookSuggestionProperties properties;
+
+  private final Object indexLock = new Object();
+
+  private volatile Indexes indexes = new Indexes(new PrefixIndex(), new PrefixIndex());
+
+  /** A load in progress, guarded by the index lock. */
+  private Load load;
+
+  /** States of books read by the last load whose changes have not been committed yet. */
+  private Map<UUID, Optional<BookIdentity>> loadedStates = new HashMap<>();
+
+  /**
+   * Returns authors and titles which start with a prefix in the alphabetical order. A letter case,
+   * diacritics and repeated spaces are ignored.
+   *
+   * @param prefix - a prefix
+   * @param limit - the maximum quantity of authors and of titles, not greater than the configured
+   *     maximum
+   * @return - suggested authors and titles
+   */
+  @Override
+  public BookSuggestionsDto suggest(String prefix, Integer limit) {
+    int maxResults =
+        limit == null
+            ? properties.getMaxResults()
+            : Math.max(0, Math.min(limit, properties.getMaxResults()));
+    Indexes currentIndexes = indexes;
+    return BookSuggestionsDto.builder()
+        .authors(currentIndexes.authors().find(prefix, maxResults))
+        .titles(currentIndexes.titles().find(prefix, maxResults))
+        .build();
+  }
+
+  @Override
+  @EventListener(ApplicationStartedEvent.class)
+  public void loadSuggestions() {
+    long startTime = System.currentTimeMillis();
+    Load currentLoad = new Load();
+    Indexes loadedIndexes = new Indexes(new PrefixIndex(), new PrefixIndex());
+    int loadThreads = properties.getLoadThreads();
+    ExecutorService executor = Executors.newFixedThreadPool(loadThreads);
+    Semaphore waitingChunks = new Semaphore(loadThreads * 2);
+    List<CompletableFuture<?>> loadings = new ArrayList<>();
+
+    synchronized (indexLock) {
+      load = currentLoad;
+    }
+
+    try {
+      Limit chunkSize = Limit.of(properties.getLoadChunkSize());
+      UUID fromId = LOWEST_ID;
+      List<BookIdentity> books;
+
+      do {
+        books = bookRepository.findIdentitiesBetween(fromId, HIGHEST_ID, chunkSize);
+        currentLoad.scannedTo =
+            books.size() == properties.getLoadChunkSize()
+                ? books.get(books.size() - 1).id()
+                : HIGHEST_ID;
+        List<BookIdentity> chunk = books;
+        waitingChunks.acquireUninterruptibly();
+        loadings.add(
+            CompletableFuture.runAsync(
+                () -> {
+                  try {
+                    chunk.forEach(
+                        book -> {
+                          loadedIndexes.add(book);
+                          currentLoad.read(book);
+                        });
+                  } finally {
+                    waitingChunks.release();
+                  }
+                },
+                executor));
+
+        if (!books.isEmpty()) {
+          fromId = next(books.get(books.size() - 1).id());
+        }
+      } while (books.size() == properties.getLoadChunkSize() && fromId != null);
+      CompletableFuture.allOf(loadings.toArray(CompletableFuture[]::new)).join();
+
+      synchronized (indexLock) {
+        loadedStates = currentLoad.replay(loadedIndexes);
+        indexes = loadedIndexes;
+      }
+    } finally {
+      executor.shutdown();
+
+      synchronized (indexLock) {
+        load = null;
+      }
+    }
+    log.info(
+        "Book suggestions are loaded in {} ms: {} authors, {} titles",
+        System.currentTimeMillis() - startTime,
+        loadedIndexes.authors().size(),
+        loadedIndexes.titles().size());
+  }
+
+  /**
+   * Keeps the state of a book a running load reads, since the load may read the book after its
+   * change is committed.
+   *
+   * @param event - a book change which is going to be committed
+   */
+  @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+  public void onBookChanging(BookChangedEvent event) {
+    synchronized (indexLock) {
+      if (load != null) {
+        load.changing(event.bookId());
+      }
+    }
+  }
+
+  /**
+   * Applies a committed book change to the indexes. The change is also replayed onto the indexes a
+   * running load builds.
+   *
+   * @param event - a book change
+   */
+  @TransactionalEventListener
+  public void onBookChanged(BookChangedEvent event) {
+    synchronized (indexLock) {
+      Optional<BookIdentity> loadedState = loadedStates.remove(event.bookId());
+      indexes.replace(
+          loadedState == null ? event.previous() : loadedState.orElse(null), event.current());
+
+      if (load != null) {
+        load.changes.add(event);
+      }
+    }
+  }
+
+  private UUID next(UUID id) {
+    if (id.getLeastSignificantBits() != -1L) {
+      return new UUID(id.getMostSignificantBits(), id.getLeastSignificantBits() + 1);
+    }
+    return id.getMostSignificantBits() == -1L ? null : new UUID(id.getMostSignificantBits() + 1, 0);
+  }
+
+  /** Compares IDs as a database does, by unsigned bytes. */
+  private static int compare(UUID id, UUID otherId) {
+    int result =
+        Long.compareUnsigned(id.getMostSignificantBits(), otherId.getMostSignificantBits());
+    return result != 0
+        ? result
+        : Long.compareUnsigned(id.getLeastSignificantBits(), otherId.getLeastSignificantBits());
+  }
+
+  private record Indexes(PrefixIndex authors, PrefixIndex titles) {
+
+    void add(BookIdentity book) {
+      authors.add(book.author());
+      titles.add(book.title());
+    }
+
+    void remove(BookIdentity book) {
+      authors.remove(book.author());
+      titles.remove(book.title());
+    }
+
+    void replace(BookIdentity previous, BookIdentity current) {
+      if (previous != null) {
+        remove(previous);
+      }
+
+      if (current != null) {
+        add(current);
+      }
+    }
+  }
+
+  /**
+   * Changes of books committed while a load runs. A book which is changing when it is already read
+   * has its previous state in new indexes. Otherwise a chunk with the book is read later, and new
+   * indexes have the state the chunk contains, or none if the book is not there.
+   */
+  private static final class Load {
+
+    private final Map<UUID, Boolean> readBeforeChange = new ConcurrentHashMap<>();
+    private final Map<UUID, BookIdentity> readStates = new ConcurrentHashMap<>();
+    private final List<BookChangedEvent> changes = new ArrayList<>();
+
+    /** The highest ID of the read books, null before the first chunk. */
+    private volatile UUID scannedTo;
+
+    void changing(UUID bookId) {
+      UUID lastReadId = scannedTo;
+      readBeforeChange.putIfAbsent(bookId, lastReadId != null && compare(bookId, lastReadId) <= 0);
+    }
+
+    void read(BookIdentity book) {
+      if (readBeforeChange.containsKey(book.id())) {
+        readStates.put(book.id(), book);
+      }
+    }
+
+    /**
+     * Replays changes onto new indexes.
+     *
+     * @param loadedIndexes - new indexes
+     * @return - states of books read later than their changes began which are not committed yet
+     */
+    Map<UUID, Optional<BookIdentity>> replay(Indexes loadedIndexes) {
+      Map<UUID, Optional<BookIdentity>> states = new HashMap<>();
+      readBeforeChange.forEach(
+          (bookId, readBefore) -> {
+            if (!readBefore) {
+              states.put(bookId, Optional.ofNullable(readStates.get(bookId)));
+            }
+          });
+
+      for (BookChangedEvent change : changes) {
+        Optional<BookIdentity> state = states.remove(change.bookId());
+        loadedIndexes.replace(
+            state == null ? change.previous() : state.orElse(null), change.current());
+      }
+      return states;
+    }
+  }
+}
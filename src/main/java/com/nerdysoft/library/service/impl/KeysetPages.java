@@ -0,0 +1,87 @@
+package com.nerdysoft.library.service.impl;
+
+import com.nerdysoft.library.exceptionhandler.exceptions.InvalidCursorException;
+import com.nerdysoft.library.service.dto.CursorPageDto;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Builds pages of keyset pagination. A cursor keeps the name of a sort key, the sort key value and
+ * the ID of the last element of a page, encoded by URL safe Base64, so clients pass it back without
+ * looking inside. A cursor of another sort key is rejected, which lets the order of a listing be
+ * changed without returning wrong elements for cursors issued before the change.
+ *
+ * @author Oleksandr Semenchenko
+ */
+final class KeysetPages {
+
+  static final int MAX_PAGE_SIZE = 100;
+
+  private static final String SEPARATOR = "\n";
+  private static final int CURSOR_PARTS = 3;
+
+  private KeysetPages() {}
+
+  static int limitPageSize(int size) {
+    return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+  }
+
+  static <K> String encode(Cursor<K> cursor) {
+    String value = cursor.sortKey() + SEPARATOR + cursor.id() + SEPARATOR + cursor.key();
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodes a cursor of a sort key.
+   *
+   * @param token - an encoded cursor
+   * @param sortKey - the sort key of a listing
+   * @param keyParser - parses the sort key value
+   * @return - a cursor
+   * @throws InvalidCursorException - if the token is damaged or belongs to another sort key
+   */
+  static <K> Cursor<K> decode(String token, String sortKey, Function<String, K> keyParser) {
+    try {
+      String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      String[] parts = value.split(SEPARATOR, CURSOR_PARTS);
+
+      if (parts.length != CURSOR_PARTS || !parts[0].equals(sortKey)) {
+        throw new InvalidCursorException();
+      }
+      return new Cursor<>(sortKey, keyParser.apply(parts[2]), UUID.fromString(parts[1]));
+    } catch (IllegalArgumentException | DateTimeException e) {
+      throw new InvalidCursorException();
+    }
+  }
+
+  /**
+   * Builds a page from elements read with a limit one greater than the page size, the extra element
+   * only tells that the next page exists.
+   *
+   * @param entities - read elements
+   * @param pageSize - a page size
+   * @param mapper - maps an element to a DTO
+   * @param cursorMapper - makes a cursor pointing to an element
+   * @return - a page
+   */
+  static <E, D, K> CursorPageDto<D> toPage(
+      List<E> entities, int pageSize, Function<E, D> mapper, Function<E, Cursor<K>> cursorMapper) {
+    List<E> pageEntities = entities.subList(0, Math.min(entities.size(), pageSize));
+    String nextCursor =
+        entities.size() > pageSize
+            ? encode(cursorMapper.apply(pageEntities.get(pageSize - 1)))
+            : null;
+    return CursorPageDto.<D>builder()
+        .content(pageEntities.stream().map(mapper).toList())
+        .nextCursor(nextCursor)
+        .build();
+  }
+
+  record Cursor<K>(String sortKey, K key, UUID id) {}
+}
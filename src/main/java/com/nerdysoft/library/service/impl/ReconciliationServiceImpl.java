@@ -0,0 +1,126 @@
+package com.nerdysoft.library.service.impl;
+
+import com.nerdysoft.library.repository.BookRepository;
+import com.nerdysoft.library.repository.UserRepository;
+import com.nerdysoft.library.service.ReconciliationService;
+import java.util.List;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Detects and repairs drift of the maintained borrowed book quantities of users and borrowed copies
+ * of books. Each drifted row is repaired in a separate transaction. The row is locked before the
+ * relations are counted, so a concurrent borrowing either commits before the count or waits for the
+ * repair.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReconciliationServiceImpl implements ReconciliationService {
+
+  private final UserRepository userRepository;
+  private final BookRepository bookRepository;
+  private final TransactionTemplate transactionTemplate;
+
+  /**
+   * Repairs borrowed book quantities that differ from the user-book relations.
+   *
+   * @return - a quantity of repaired users
+   */
+  @Override
+  @Scheduled(
+      initialDelayString = "${application.borrowed-count-reconciliation.initial-delay}",
+      fixedDelayString = "${application.borrowed-count-reconciliation.fixed-delay}")
+  public int reconcileBorrowedCounts() {
+    List<UUID> userIds = userRepository.findIdsWithBorrowedCountDrift();
+    int repairedUsers = 0;
+
+    for (UUID userId : userIds) {
+      Boolean isRepaired = transactionTemplate.execute(status -> repairBorrowedCount(userId));
+
+      if (Boolean.TRUE.equals(isRepaired)) {
+        repairedUsers++;
+      }
+    }
+
+    if (repairedUsers > 0) {
+      log.warn("Repaired borrowed book quantities of {} users", repairedUsers);
+    }
+    return repairedUsers;
+  }
+
+  /**
+   * Repairs borrowed copies of books that differ from the user-book relations.
+   *
+   * @return - a quantity of repaired books
+   */
+  @Override
+  @Scheduled(
+      initialDelayString = "${application.borrowed-count-reconciliation.initial-delay}",
+      fixedDelayString = "${application.borrowed-count-reconciliation.fixed-delay}")
+  public int reconcileBorrowedCopies() {
+    List<UUID> bookIds = bookRepository.findIdsWithBorrowedCopiesDrift();
+    int repairedBooks = 0;
+
+    for (UUID bookId : bookIds) {
+      Boolean isRepaired = transactionTemplate.execute(status -> repairBorrowedCopies(bookId));
+
+      if (Boolean.TRUE.equals(isRepaired)) {
+        repairedBooks++;
+      }
+    }
+
+    if (repairedBooks > 0) {
+      log.warn("Repaired borrowed copies of {} books", repairedBooks);
+    }
+    return repairedBooks;
+  }
+
+  private boolean repairBorrowedCopies(UUID bookId) {
+    return bookRepository
+        .findWithLockById(bookId)
+        .map(
+            book -> {
+              int relationQuantity = bookRepository.countUserRelationsByBookId(bookId);
+
+              if (book.getBorrowedCopies() == relationQuantity) {
+                return false;
+              }
+              log.warn(
+                  "Book with id={} had borrowed copies {} instead of {}",
+                  bookId,
+                  book.getBorrowedCopies(),
+                  relationQuantity);
+              bookRepository.updateBorrowedCopies(bookId, relationQuantity);
+              return true;
+            })
+        .orElse(false);
+  }
+
+  private boolean repairBorrowedCount(UUID userId) {
+    return userRepository
+        .findWithLockById(userId)
+        .map(
+            user -> {
+              int relationQuantity = userRepository.countBookRelationsByUserId(userId);
+
+              if (user.getBorrowedCount() == relationQuantity) {
+                return false;
+              }
+              log.warn(
+                  "User with id={} had borrowed book quantity {} instead of {}",
+                  userId,
+                  user.getBorrowedCount(),
+                  relationQuantity);
+              userRepository.updateBorrowedCount(userId, relationQuantity);
+              return true;
+            })
+        .orElse(false);
+  }
+}
@@ -1,29 +1,57 @@
 package com.nerdysoft.library.service.impl;
 
+import static com.nerdysoft.library.exceptionhandler.ExceptionMessages.BOOK_NOT_FOUND;
+import static com.nerdysoft.library.exceptionhandler.ExceptionMessages.CONCURRENT_UPDATE;
 import static com.nerdysoft.library.exceptionhandler.ExceptionMessages.MAX_USER_BOOKS_QUANTITY;
+import static com.nerdysoft.library.exceptionhandler.ExceptionMessages.NO_BOOKS;
 import static com.nerdysoft.library.exceptionhandler.ExceptionMessages.USER_BOOK_RELATION_ALREADY_EXISTS;
 import static com.nerdysoft.library.exceptionhandler.ExceptionMessages.USER_BORROWED_BOOKS;
+import static com.nerdysoft.library.exceptionhandler.ExceptionMessages.USER_NOT_FOUND_BY_ID;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
-import com.nerdysoft.library.exceptionhandler.ExceptionMessages;
 import com.nerdysoft.library.exceptionhandler.exceptions.BookAmountConflictException;
+import com.nerdysoft.library.exceptionhandler.exceptions.BookNotFoundException;
+import com.nerdysoft.library.exceptionhandler.exceptions.ConcurrentUpdateConflictException;
 import com.nerdysoft.library.exceptionhandler.exceptions.UserBookRelationConflictException;
 import com.nerdysoft.library.exceptionhandler.exceptions.UserNotFoundException;
 import com.nerdysoft.library.mapper.UserMapper;
+import com.nerdysoft.library.repository.BookRepository;
 import com.nerdysoft.library.repository.UserRepository;
+import com.nerdysoft.library.repository.entity.Book;
 import com.nerdysoft.library.repository.entity.User;
-import com.nerdysoft.library.service.BookService;
+import com.nerdysoft.library.retry.RetryOnConflict;
 import com.nerdysoft.library.service.UserService;
-import com.nerdysoft.library.service.dto.BookDto;
+import com.nerdysoft.library.service.dto.BookBorrowingDto;
+import com.nerdysoft.library.service.dto.BorrowingStatus;
+import com.nerdysoft.library.service.dto.CursorPageDto;
 import com.nerdysoft.library.service.dto.UserDto;
-import jakarta.transaction.Transactional;
+import com.nerdysoft.library.service.event.StockChangedEvent;
+import com.nerdysoft.library.service.impl.KeysetPages.Cursor;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.IdGenerator;
 
 @Service
 @RequiredArgsConstructor
@@ -31,21 +59,35 @@ import org.springframework.stereotype.Service;
 public class UserServiceImpl implements UserService {
 
   private static final String GET_USER_BY_ID_CACHE = "getUserByIdCache";
+  private static final String GET_BOOK_BY_ID_CACHE = "getBookByIdCache";
+  private static final String NAME_SORT_KEY = "name";
+  private static final String MEMBERSHIP_DATE_SORT_KEY = "membershipDate";
 
   private final UserRepository userRepository;
+  private final BookRepository bookRepository;
   private final UserMapper userMapper;
-  private final BookService bookService;
+  private final CacheManager cacheManager;
+  private final IdGenerator idGenerator;
+  private final ApplicationEventPublisher eventPublisher;
 
   @Value("${application.max-book-quantity-for-user}")
   private int maxBookQuantityForUser;
 
+  /**
+   * Updates a user. The user is flushed before mapping, so the cached user carries the increased
+   * version.
+   *
+   * @param userDto - a user
+   * @return - an updated user
+   */
   @Override
+  @RetryOnConflict
   @Transactional
   @CachePut(value = GET_USER_BY_ID_CACHE, key = "#userDto.id")
   public UserDto updateUser(UserDto userDto) {
     User user = findUserById(userDto.getId());
     User updatedUser = userMapper.mergeWithDto(userDto, user);
-    User savedUser = userRepository.save(updatedUser);
+    User savedUser = userRepository.saveAndFlush(updatedUser);
     return userMapper.toDto(savedUser);
   }
 
@@ -70,7 +112,7 @@ public class UserServiceImpl implements UserService {
   @CacheEvict(value = GET_USER_BY_ID_CACHE, key = "#userId")
   public void deleteUser(UUID userId) {
     User user = findUserById(userId);
-    int userBookQuantity = userRepository.countBookRelationsByUserId(userId.toString());
+    int userBookQuantity = user.getBorrowedCount();
 
     if (userBookQuantity != 0) {
       log.debug(USER_BORROWED_BOOKS.formatted(userId, userBookQuantity));
@@ -85,60 +127,206 @@ public class UserServiceImpl implements UserService {
    * user has fewer books than the maximum allowed book quantity. When the relation is created the
    * book amount decreases by one.
    *
+   * <p>The book amount and the borrowed book quantity of the user are changed by two conditional
+   * statements, so there is no window between checking the business rules and applying them. A
+   * duplicate relation is rejected by the unique constraint. The broken rule is resolved by the
+   * statement which has changed nothing, the book statement runs first and its change is not
+   * mistaken for a lack of copies.
+   *
    * @param userId - a user ID
    * @param bookId - a book ID
    */
   @Override
   @Transactional
-  @CacheEvict(value = GET_USER_BY_ID_CACHE, key = "#userId")
+  @Caching(
+      evict = {
+        @CacheEvict(value = GET_USER_BY_ID_CACHE, key = "#userId"),
+        @CacheEvict(value = GET_BOOK_BY_ID_CACHE, key = "#bookId")
+      })
   public void borrowBookByUser(UUID userId, UUID bookId) {
-    verifyIfUserBookRelationAlreadyExists(userId, bookId);
-    verifyIfUserExists(userId);
-    BookDto bookDto = bookService.getBookById(bookId);
-    int userBookQuantity = userRepository.countBookRelationsByUserId(userId.toString());
-
-    if (bookDto.getAmount() == 0) {
-      log.debug(ExceptionMessages.NO_BOOKS);
-      throw new BookAmountConflictException(ExceptionMessages.NO_BOOKS);
+    boolean isBookAvailable = bookRepository.decreaseAmountByOneIfAvailable(bookId) != 0;
+
+    if (!isBookAvailable
+        || userRepository.increaseBorrowedCountIfBelow(userId, maxBookQuantityForUser) == 0) {
+      throw resolveBorrowConflict(userId, bookId, isBookAvailable);
+    }
+    createUserBookRelation(userId, bookId);
+    eventPublisher.publishEvent(StockChangedEvent.borrowed(userId, bookId));
+  }
+
+  /**
+   * Borrows several books by a user in one transaction. The requested books and then the user are
+   * locked, and the business rules are checked for each book in the request order. Relations for
+   * books that pass the rules are created by one batch and the amounts of these books are decreased
+   * by one statement. A book that breaks a rule doesn't fail the whole request.
+   *
+   * @param userId - a user ID
+   * @param bookIds - book IDs
+   * @return - an outcome for each distinct book ID
+   */
+  @Override
+  @Transactional
+  @CacheEvict(value = GET_USER_BY_ID_CACHE, key = "#userId")
+  public List<BookBorrowingDto> borrowBooksByUser(UUID userId, List<UUID> bookIds) {
+    Set<UUID> distinctBookIds = new LinkedHashSet<>(bookIds);
+    Map<UUID, Book> books =
+        bookRepository.findByIdInOrderById(distinctBookIds).stream()
+            .collect(Collectors.toMap(Book::getId, Function.identity()));
+    User user =
+        userRepository
+            .findWithLockById(userId)
+            .orElseThrow(() -> new UserNotFoundException(USER_NOT_FOUND_BY_ID.formatted(userId)));
+    Set<UUID> relatedBookIds =
+        new HashSet<>(userRepository.findRelatedBookIds(userId, distinctBookIds));
+    int userBookQuantity = user.getBorrowedCount();
+
+    List<BookBorrowingDto> borrowings = new ArrayList<>();
+    List<UUID> borrowedBookIds = new ArrayList<>();
+
+    for (UUID bookId : distinctBookIds) {
+      BookBorrowingDto borrowing =
+          checkBorrowing(
+              userId, bookId, books.get(bookId), relatedBookIds.contains(bookId), userBookQuantity);
+
+      if (borrowing.getStatus() == BorrowingStatus.BORROWED) {
+        borrowedBookIds.add(bookId);
+        userBookQuantity++;
+      }
+      borrowings.add(borrowing);
+    }
+
+    if (!borrowedBookIds.isEmpty()) {
+      userRepository.createUserBookRelations(userId, borrowedBookIds);
+      userRepository.increaseBorrowedCount(userId, borrowedBookIds.size());
+      int borrowedCopies = bookRepository.decreaseAmountsByOneIfAvailable(borrowedBookIds);
+
+      if (borrowedCopies != borrowedBookIds.size()) {
+        log.debug(CONCURRENT_UPDATE);
+        throw new ConcurrentUpdateConflictException(CONCURRENT_UPDATE);
+      }
+      evictBooksFromCache(borrowedBookIds);
+      borrowedBookIds.forEach(
+          bookId -> eventPublisher.publishEvent(StockChangedEvent.borrowed(userId, bookId)));
+    }
+    return borrowings;
+  }
+
+  private BookBorrowingDto checkBorrowing(
+      UUID userId, UUID bookId, Book book, boolean isBookRelatedToUser, int userBookQuantity) {
+    BookBorrowingDto borrowing =
+        BookBorrowingDto.builder().bookId(bookId).status(BorrowingStatus.BORROWED).build();
+
+    if (isNull(book)) {
+      borrowing.setStatus(BorrowingStatus.NOT_FOUND);
+      borrowing.setDetails(BOOK_NOT_FOUND.formatted(bookId));
+    } else if (isBookRelatedToUser) {
+      borrowing.setStatus(BorrowingStatus.ALREADY_BORROWED);
+      borrowing.setDetails(USER_BOOK_RELATION_ALREADY_EXISTS.formatted(userId, bookId));
+    } else if (book.getAmount() == 0) {
+      borrowing.setStatus(BorrowingStatus.NOT_AVAILABLE);
+      borrowing.setDetails(NO_BOOKS);
     } else if (userBookQuantity >= maxBookQuantityForUser) {
-      log.debug(MAX_USER_BOOKS_QUANTITY.formatted(maxBookQuantityForUser));
-      throw new UserBookRelationConflictException(
-          MAX_USER_BOOKS_QUANTITY.formatted(maxBookQuantityForUser));
-    } else {
-      createUserBookRelation(userId, bookId);
-      bookService.decreaseBookAmountByOne(bookId);
+      borrowing.setStatus(BorrowingStatus.LIMIT_EXCEEDED);
+      borrowing.setDetails(MAX_USER_BOOKS_QUANTITY.formatted(maxBookQuantityForUser));
     }
+    return borrowing;
   }
 
-  private void verifyIfUserBookRelationAlreadyExists(UUID userId, UUID bookId) {
-    if (userRepository.existsByIdAndBooksId(userId, bookId)) {
+  private void evictBooksFromCache(List<UUID> bookIds) {
+    Cache cache = cacheManager.getCache(GET_BOOK_BY_ID_CACHE);
+
+    if (nonNull(cache)) {
+      bookIds.forEach(cache::evict);
+    }
+  }
+
+  private void createUserBookRelation(UUID userId, UUID bookId) {
+    try {
+      userRepository.createUserBookRelation(idGenerator.generateId(), userId, bookId);
+    } catch (DataIntegrityViolationException e) {
+      log.debug(USER_BOOK_RELATION_ALREADY_EXISTS.formatted(userId, bookId));
       throw new UserBookRelationConflictException(
           USER_BOOK_RELATION_ALREADY_EXISTS.formatted(userId, bookId));
     }
   }
 
-  private void verifyIfUserExists(UUID userId) {
-    findUserById(userId);
-  }
+  private RuntimeException resolveBorrowConflict(
+      UUID userId, UUID bookId, boolean isBookAvailable) {
+    if (userRepository.existsByIdAndBooksId(userId, bookId)) {
+      log.debug(USER_BOOK_RELATION_ALREADY_EXISTS.formatted(userId, bookId));
+      return new UserBookRelationConflictException(
+          USER_BOOK_RELATION_ALREADY_EXISTS.formatted(userId, bookId));
+    }
 
-  private void createUserBookRelation(UUID userId, UUID bookId) {
-    String relationId = UUID.randomUUID().toString();
-    userRepository.createUserBookRelation(userId.toString(), bookId.toString(), relationId);
+    if (userRepository.findBorrowedCountById(userId).isEmpty()) {
+      log.debug(USER_NOT_FOUND_BY_ID.formatted(userId));
+      return new UserNotFoundException(USER_NOT_FOUND_BY_ID.formatted(userId));
+    } else if (isBookAvailable) {
+      log.debug(MAX_USER_BOOKS_QUANTITY.formatted(maxBookQuantityForUser));
+      return new UserBookRelationConflictException(
+          MAX_USER_BOOKS_QUANTITY.formatted(maxBookQuantityForUser));
+    } else if (!bookRepository.existsById(bookId)) {
+      log.debug(BOOK_NOT_FOUND.formatted(bookId));
+      return new BookNotFoundException(BOOK_NOT_FOUND.formatted(bookId));
+    }
+    log.debug(NO_BOOKS);
+    return new BookAmountConflictException(NO_BOOKS);
   }
 
   @Override
+  @Transactional(readOnly = true)
   @Cacheable(value = GET_USER_BY_ID_CACHE, key = "#userId")
   public UserDto getUserById(UUID userId) {
     User user = findUserById(userId);
     return userMapper.toDto(user);
   }
 
+  /**
+   * Returns a page of users ordered by names or, if a membership date range is provided, ordered by
+   * membership dates. Each order has its own cursors, a cursor of one order is not valid for
+   * another.
+   *
+   * @param membershipFrom - the first membership date of the range, null for no beginning
+   * @param membershipTo - the last membership date of the range, null for no end
+   * @param cursor - a cursor of a previous page, null for the first page
+   * @param size - a page size, limited by 1 and 100
+   * @return - a page of users and a cursor of the next page
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public CursorPageDto<UserDto> getUsers(
+      LocalDate membershipFrom, LocalDate membershipTo, String cursor, int size) {
+    int pageSize = KeysetPages.limitPageSize(size);
+
+    if (isNull(membershipFrom) && isNull(membershipTo)) {
+      Cursor<String> after =
+          isNull(cursor)
+              ? new Cursor<>(NAME_SORT_KEY, null, null)
+              : KeysetPages.decode(cursor, NAME_SORT_KEY, String::valueOf);
+      List<User> users = userRepository.findUsersByName(after.key(), after.id(), pageSize + 1);
+      return KeysetPages.toPage(
+          users,
+          pageSize,
+          userMapper::toDto,
+          user -> new Cursor<>(NAME_SORT_KEY, user.getName(), user.getId()));
+    }
+    Cursor<LocalDate> after =
+        isNull(cursor)
+            ? new Cursor<>(MEMBERSHIP_DATE_SORT_KEY, null, null)
+            : KeysetPages.decode(cursor, MEMBERSHIP_DATE_SORT_KEY, LocalDate::parse);
+    List<User> users =
+        userRepository.findUsersByMembershipDate(
+            membershipFrom, membershipTo, after.key(), after.id(), pageSize + 1);
+    return KeysetPages.toPage(
+        users,
+        pageSize,
+        userMapper::toDto,
+        user -> new Cursor<>(MEMBERSHIP_DATE_SORT_KEY, user.getMembershipDate(), user.getId()));
+  }
+
   private User findUserById(UUID userId) {
     return userRepository
         .findById(userId)
-        .orElseThrow(
-            () ->
-                new UserNotFoundException(
-                    ExceptionMessages.USER_NOT_FOUND_BY_ID.formatted(userId)));
+        .orElseThrow(() -> new UserNotFoundException(USER_NOT_FOUND_BY_ID.formatted(userId)));
   }
 }
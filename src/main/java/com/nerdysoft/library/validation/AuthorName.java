@@ -1,5 +1,6 @@
 package com.nerdysoft.library.validation;
 
+import com.nerdysoft.library.exceptionhandler.ExceptionMessages;
 import com.nerdysoft.library.validation.validators.NameValidator;
 import jakarta.validation.Constraint;
 import jakarta.validation.Payload;
@@ -13,8 +14,7 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 public @interface AuthorName {
 
-  String message() default
-      "The name should contain two capital words with name and surname and space between them";
+  String message() default ExceptionMessages.NOT_VALID_AUTHOR_NAME;
 
   Class<?>[] groups() default {};
 
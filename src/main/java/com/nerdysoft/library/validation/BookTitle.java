@@ -1,5 +1,6 @@
 package com.nerdysoft.library.validation;
 
+import com.nerdysoft.library.exceptionhandler.ExceptionMessages;
 import com.nerdysoft.library.validation.validators.BookTitleValidator;
 import jakarta.validation.Constraint;
 import jakarta.validation.Payload;
@@ -13,8 +14,7 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 public @interface BookTitle {
 
-  String message() default
-      "The book title should start with a capital letter and have 3 symbols minimum length";
+  String message() default ExceptionMessages.NOT_VALID_BOOK_TITLE;
 
   Class<?>[] groups() default {};
 
@@ -0,0 +1,3 @@
+ALTER TABLE users ADD COLUMN borrowed_count INTEGER DEFAULT 0 NOT NULL;
+
+UPDATE users u SET borrowed_count = (SELECT COUNT(ub.id) FROM users_books ub WHERE ub.user_id = u.id);
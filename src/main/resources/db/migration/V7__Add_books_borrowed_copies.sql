@@ -0,0 +1,3 @@
+ALTER TABLE books ADD COLUMN borrowed_copies INTEGER DEFAULT 0 NOT NULL;
+
+UPDATE books b SET borrowed_copies = (SELECT COUNT(ub.id) FROM users_books ub WHERE ub.book_id = b.id);
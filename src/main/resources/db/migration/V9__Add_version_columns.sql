@@ -0,0 +1,3 @@
+ALTER TABLE users ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+
+ALTER TABLE books ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
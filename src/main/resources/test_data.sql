@@ -2,15 +2,15 @@ DELETE FROM users_books;
 DELETE FROM books;
 DELETE FROM users;
 
-INSERT INTO books(id, title, author, amount)
+INSERT INTO books(id, title, author, amount, borrowed_copies)
 	VALUES
- 		('42d3f123-dd2f-4a10-a182-6506edd9d355', 'Clean Code', 'Robert Martin', 1),
-    ('2decc0bd-9730-4145-b18e-94029dfb961f', 'Effective Java', 'Bloch Joshua', 2);
+ 		('42d3f123-dd2f-4a10-a182-6506edd9d355', 'Clean Code', 'Robert Martin', 1, 0),
+    ('2decc0bd-9730-4145-b18e-94029dfb961f', 'Effective Java', 'Bloch Joshua', 2, 1);
 
-INSERT INTO users(id, name, membership_date)
+INSERT INTO users(id, name, membership_date, borrowed_count)
 	VALUES
-	  ('f0d9bdfc-38e7-4a34-b07f-8216574efbb5', 'John Doe', '2024-08-13'),
-	  ('ccc5848f-b32f-44b5-86f1-b51aac112be0', 'John Smith', '2024-08-13');
+	  ('f0d9bdfc-38e7-4a34-b07f-8216574efbb5', 'John Doe', '2024-08-13', 1),
+	  ('ccc5848f-b32f-44b5-86f1-b51aac112be0', 'John Smith', '2024-08-13', 0);
 
 INSERT INTO users_books(id, user_id, book_id)
 	VALUES
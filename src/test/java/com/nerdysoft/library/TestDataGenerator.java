@@ -17,18 +17,54 @@ public class TestDataGenerator {
   private static final String BOOK_TITLE = "Clean Code";
 
   public static Book generateBook() {
-    return Book.builder().id(BOOK_ID).title(BOOK_TITLE).author(AUTHOR_NAME).amount(1).build();
+    return Book.builder()
+        .id(BOOK_ID)
+        .title(BOOK_TITLE)
+        .author(AUTHOR_NAME)
+        .amount(1)
+        .borrowedCopies(0)
+        .version(0L)
+        .build();
   }
 
   public static BookDto generateBookDto() {
-    return BookDto.builder().id(BOOK_ID).title(BOOK_TITLE).author(AUTHOR_NAME).amount(1).build();
+    return BookDto.builder()
+        .id(BOOK_ID)
+        .title(BOOK_TITLE)
+        .author(AUTHOR_NAME)
+        .amount(1)
+        .version(0L)
+        .build();
   }
 
   public static UserDto generateUserDto() {
-    return UserDto.builder().id(USER_ID).name(USER_NAME).membershipDate(MEMBERSHIP_DATE).build();
+    return UserDto.builder()
+        .id(USER_ID)
+        .name(USER_NAME)
+        .membershipDate(MEMBERSHIP_DATE)
+        .version(0L)
+        .build();
   }
 
   public static User generateUser() {
-    return User.builder().id(USER_ID).name(USER_NAME).membershipDate(MEMBERSHIP_DATE).build();
+    return User.builder()
+        .id(USER_ID)
+        .name(USER_NAME)
+        .membershipDate(MEMBERSHIP_DATE)
+        .borrowedCount(0)
+        .version(0L)
+        .build();
+  }
+
+  public static UserDto generateUserDto(int number) {
+    return UserDto.builder().name("Reader Number" + number).build();
+  }
+
+  public static BookDto generateBookDto(int number, int amount) {
+    return BookDto.builder()
+        .title("Book Title " + number)
+        .author("Author Number" + number)
+        .amount(amount)
+        .build();
   }
 }
@@ -0,0 +1,102 @@
+package com.nerdysoft.library.actuator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.nerdysoft.library.actuator.CacheEntriesEndpoint.CacheDescriptor;
+import com.nerdysoft.library.config.CacheConfig;
+import com.nerdysoft.library.config.CacheProperties;
+import com.nerdysoft.library.config.CacheProperties.CacheSpec;
+import com.nerdysoft.library.datasource.ReplicaLagEviction;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+class CacheEntriesEndpointTest {
+
+  private static final String CACHE_NAME = "getBookByIdCache";
+  private static final int MAXIMUM_SIZE = 2;
+  private static final long LOAD_NANOS = 1_000_000;
+
+  CacheManager cacheManager;
+  CacheEntriesEndpoint cacheEntriesEndpoint;
+
+  @BeforeEach
+  void setUp() {
+    CacheSpec cacheSpec = new CacheSpec();
+    cacheSpec.setMaximumSize(MAXIMUM_SIZE);
+    cacheSpec.setTimeToLive(Duration.ofMinutes(1));
+    CacheProperties cacheProperties = new CacheProperties();
+    cacheProperties.getSpecs().put(CACHE_NAME, cacheSpec);
+    cacheManager =
+        new CacheConfig()
+            .cacheManager(
+                cacheProperties,
+                new DefaultListableBeanFactory().getBeanProvider(ReplicaLagEviction.class));
+    cacheEntriesEndpoint = new CacheEntriesEndpoint(cacheManager);
+  }
+
+  @Test
+  void getCache_ShouldReturnNull_WhenCacheIsNotConfigured() {
+    assertThat(cacheManager.getCache("unknownCache")).isNull();
+  }
+
+  @Test
+  void cache_ShouldReturnStatsAndKeys_WhenCacheIsUsed() {
+    UUID bookId = UUID.randomUUID();
+    Cache cache = cacheManager.getCache(CACHE_NAME);
+    cache.get(bookId, () -> "book");
+    cache.get(bookId, () -> "book");
+
+    CacheDescriptor cacheDescriptor = cacheEntriesEndpoint.cache(CACHE_NAME, null);
+
+    assertThat(cacheDescriptor.estimatedSize()).isEqualTo(1);
+    assertThat(cacheDescriptor.hitCount()).isEqualTo(1);
+    assertThat(cacheDescriptor.missCount()).isEqualTo(1);
+    assertThat(cacheDescriptor.averageLoadPenaltyNanos()).isPositive();
+    assertThat(cacheDescriptor.keys()).containsExactly(bookId.toString());
+  }
+
+  @Test
+  void cache_ShouldReturnLoadPenalty_WhenValueIsPutAfterMiss() {
+    UUID bookId = UUID.randomUUID();
+    Cache cache = cacheManager.getCache(CACHE_NAME);
+
+    assertThat(cache.get(bookId)).isNull();
+    LockSupport.parkNanos(LOAD_NANOS);
+    cache.put(bookId, "book");
+
+    CacheDescriptor cacheDescriptor = cacheEntriesEndpoint.cache(CACHE_NAME, null);
+
+    assertThat(cacheDescriptor.missCount()).isEqualTo(1);
+    assertThat(cacheDescriptor.averageLoadPenaltyNanos()).isGreaterThanOrEqualTo(LOAD_NANOS);
+  }
+
+  @Test
+  void evict_ShouldRemoveEntry_WhenKeyIsProvided() {
+    UUID bookId = UUID.randomUUID();
+    UUID anotherBookId = UUID.randomUUID();
+    Cache cache = cacheManager.getCache(CACHE_NAME);
+    cache.put(bookId, "book");
+    cache.put(anotherBookId, "another book");
+
+    cacheEntriesEndpoint.evict(CACHE_NAME, bookId.toString());
+
+    assertThat(cache.get(bookId)).isNull();
+    assertThat(cache.get(anotherBookId)).isNotNull();
+  }
+
+  @Test
+  void evict_ShouldClearCache_WhenKeyIsNotProvided() {
+    Cache cache = cacheManager.getCache(CACHE_NAME);
+    cache.put(UUID.randomUUID(), "book");
+
+    cacheEntriesEndpoint.evict(CACHE_NAME, null);
+
+    assertThat(cacheEntriesEndpoint.caches().get(CACHE_NAME).estimatedSize()).isZero();
+  }
+}
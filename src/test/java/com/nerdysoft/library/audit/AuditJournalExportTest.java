@@ -0,0 +1,68 @@
+package com.nerdysoft.library.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AuditJournalExportTest {
+
+  @TempDir private Path directory;
+
+  private List<AuditRecord> records;
+
+  @BeforeEach
+  void setUp() {
+    AuditJournalProperties properties = new AuditJournalProperties();
+    properties.setDirectory(directory);
+    records = AuditJournalTest.generateRecords(2);
+    AuditJournal journal = new AuditJournal(properties, new SimpleMeterRegistry());
+    journal.start();
+    records.forEach(journal::append);
+    journal.stop();
+  }
+
+  @Test
+  void export_shouldWriteCsv_whenCsvFormatIsRequested() throws IOException {
+    StringWriter writer = new StringWriter();
+
+    long exportedRecords =
+        AuditJournalExport.export(directory, AuditJournalExport.Format.CSV, writer);
+
+    AuditRecord borrowing = records.get(0);
+    AuditRecord addition = records.get(1);
+    String expectedCsv =
+        """
+        timestamp,operation,user_id,book_id,delta
+        %s,BORROW,%s,%s,-1
+        %s,ADD,,%s,1
+        """
+            .formatted(
+                borrowing.timestamp(),
+                borrowing.userId(),
+                borrowing.bookId(),
+                addition.timestamp(),
+                addition.bookId());
+    assertEquals(2, exportedRecords);
+    assertEquals(expectedCsv, writer.toString());
+  }
+
+  @Test
+  void export_shouldWriteJsonLines_whenNdjsonFormatIsRequested() throws IOException {
+    StringWriter writer = new StringWriter();
+
+    AuditJournalExport.export(directory, AuditJournalExport.Format.NDJSON, writer);
+
+    AuditRecord addition = records.get(1);
+    String expectedLine =
+        "{\"timestamp\":\"%s\",\"operation\":\"ADD\",\"userId\":null,\"bookId\":\"%s\",\"delta\":1}"
+            .formatted(addition.timestamp(), addition.bookId());
+    assertEquals(expectedLine, writer.toString().lines().toList().get(1));
+  }
+}
@@ -0,0 +1,67 @@
+package com.nerdysoft.library.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.nerdysoft.library.exceptionhandler.exceptions.BookAmountConflictException;
+import com.nerdysoft.library.service.UserService;
+import com.nerdysoft.library.service.event.StockOperation;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+@SpringBootTest(properties = "application.audit-journal.enabled=true")
+@Sql(scripts = "/db/test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class AuditJournalIntegrationTest {
+
+  private static final UUID BOOK_ID = UUID.fromString("42d3f123-dd2f-4a10-a182-6506edd9d355");
+  private static final UUID USER_ID = UUID.fromString("ccc5848f-b32f-44b5-86f1-b51aac112be0");
+  private static final UUID OTHER_USER_ID = UUID.fromString("f0d9bdfc-38e7-4a34-b07f-8216574efbb5");
+
+  @TempDir private static Path directory;
+
+  @Autowired private UserService userService;
+  @Autowired private AuditJournal auditJournal;
+
+  @DynamicPropertySource
+  static void journalProperties(DynamicPropertyRegistry registry) {
+    registry.add("application.audit-journal.directory", () -> directory.toString());
+  }
+
+  @Test
+  void borrowBookByUser_shouldAppendOnlyCommittedBorrowing_whenSecondBorrowingFails()
+      throws IOException {
+    userService.borrowBookByUser(USER_ID, BOOK_ID);
+    assertThrows(
+        BookAmountConflictException.class,
+        () -> userService.borrowBookByUser(OTHER_USER_ID, BOOK_ID));
+
+    List<AuditRecord> records = readJournal();
+
+    assertEquals(1, records.size());
+    AuditRecord borrowing = records.get(0);
+    assertEquals(USER_ID, borrowing.userId());
+    assertEquals(BOOK_ID, borrowing.bookId());
+    assertEquals(StockOperation.BORROW, borrowing.operation());
+    assertEquals(-1, borrowing.delta());
+  }
+
+  private List<AuditRecord> readJournal() throws IOException {
+    auditJournal.stop();
+
+    try (Stream<AuditRecord> records = AuditJournalReader.read(directory)) {
+      return records.toList();
+    } finally {
+      auditJournal.start();
+    }
+  }
+}
@@ -0,0 +1,152 @@
+package com.nerdysoft.library.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.nerdysoft.library.service.event.StockOperation;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+class AuditJournalTest {
+
+  private static final int RECORDS_PER_SEGMENT = 4;
+  private static final int RECORD_QUANTITY = 10;
+
+  @TempDir private Path directory;
+
+  private AuditJournalProperties properties;
+  private MeterRegistry meterRegistry;
+
+  @BeforeEach
+  void setUp() {
+    properties = new AuditJournalProperties();
+    properties.setDirectory(directory);
+    properties.setSegmentSize(
+        DataSize.ofBytes((long) RECORDS_PER_SEGMENT * AuditRecordLayout.RECORD_SIZE));
+    meterRegistry = new SimpleMeterRegistry();
+  }
+
+  @Test
+  void append_shouldWriteRecordsToSegments_whenJournalIsStopped() throws IOException {
+    List<AuditRecord> records = generateRecords(RECORD_QUANTITY);
+    AuditJournal journal = new AuditJournal(properties, meterRegistry);
+
+    journal.start();
+    records.forEach(journal::append);
+    journal.stop();
+
+    assertEquals(records, readJournal());
+    assertEquals(3, AuditJournalSegment.list(directory).size());
+    assertEquals(RECORD_QUANTITY, countRecords("written"));
+  }
+
+  @Test
+  void append_shouldContinueLastSegment_whenJournalIsRestarted() throws IOException {
+    List<AuditRecord> records = generateRecords(RECORD_QUANTITY);
+
+    AuditJournal journal = new AuditJournal(properties, meterRegistry);
+    journal.start();
+    records.subList(0, 3).forEach(journal::append);
+    journal.stop();
+    AuditJournal restartedJournal = new AuditJournal(properties, new SimpleMeterRegistry());
+    restartedJournal.start();
+    records.subList(3, RECORD_QUANTITY).forEach(restartedJournal::append);
+    restartedJournal.stop();
+
+    assertEquals(records, readJournal());
+    assertEquals(3, AuditJournalSegment.list(directory).size());
+  }
+
+  @Test
+  void append_shouldDropRecord_whenQueueIsFull() {
+    properties.setQueueCapacity(1);
+    AuditJournal journal = new AuditJournal(properties, meterRegistry);
+    List<AuditRecord> records = generateRecords(2);
+
+    assertTrue(journal.append(records.get(0)));
+    assertFalse(journal.append(records.get(1)));
+    assertEquals(1, countRecords("dropped"));
+  }
+
+  @Test
+  void read_shouldStopAtTornRecord_whenRecordIsWrittenPartly() throws IOException {
+    List<AuditRecord> records = generateRecords(3);
+    AuditJournal journal = new AuditJournal(properties, meterRegistry);
+    journal.start();
+    records.forEach(journal::append);
+    journal.stop();
+
+    try (RandomAccessFile segment =
+        new RandomAccessFile(AuditJournalSegment.list(directory).get(0).toFile(), "rw")) {
+      segment.seek(AuditRecordLayout.RECORD_SIZE + 1);
+      segment.write(0xFF);
+    }
+
+    assertEquals(records.subList(0, 1), readJournal());
+  }
+
+  @Test
+  void close_shouldUnmapSegment_whenSegmentIsClosed() throws IOException {
+    Path maps = Path.of("/proc/self/maps");
+    assumeTrue(Files.isReadable(maps));
+    AuditJournalSegment segment =
+        AuditJournalSegment.openLast(directory, AuditRecordLayout.RECORD_SIZE);
+    String segmentFile = AuditJournalSegment.list(directory).get(0).toString();
+    assertTrue(Files.readString(maps).contains(segmentFile));
+
+    segment.close();
+    segment.close();
+
+    assertFalse(Files.readString(maps).contains(segmentFile));
+  }
+
+  @Test
+  void read_shouldReturnNoRecords_whenDirectoryDoesNotExist() throws IOException {
+    try (Stream<AuditRecord> records = AuditJournalReader.read(directory.resolve("absent"))) {
+      assertEquals(0, records.count());
+    }
+  }
+
+  static List<AuditRecord> generateRecords(int quantity) {
+    Instant timestamp = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    return IntStream.range(0, quantity)
+        .mapToObj(
+            i ->
+                i % 2 == 0
+                    ? new AuditRecord(
+                        timestamp.plusMillis(i),
+                        UUID.randomUUID(),
+                        UUID.randomUUID(),
+                        StockOperation.BORROW,
+                        -1)
+                    : new AuditRecord(
+                        timestamp.plusMillis(i), null, UUID.randomUUID(), StockOperation.ADD, i))
+        .toList();
+  }
+
+  private List<AuditRecord> readJournal() throws IOException {
+    try (Stream<AuditRecord> records = AuditJournalReader.read(directory)) {
+      return records.toList();
+    }
+  }
+
+  private double countRecords(String result) {
+    return meterRegistry.get(AuditJournal.RECORD_COUNTER).tag("result", result).counter().count();
+  }
+}
@@ -0,0 +1,45 @@
+package com.nerdysoft.library.audit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class DroppedRecordLogTest {
+
+  private static final int LIMIT = 2;
+  private static final Duration INTERVAL = Duration.ofMinutes(1);
+  private static final String REASON = "test";
+
+  private AtomicLong clock;
+  private DroppedRecordLog droppedRecordLog;
+
+  @BeforeEach
+  void setUp() {
+    clock = new AtomicLong();
+    droppedRecordLog = new DroppedRecordLog(LIMIT, INTERVAL, clock::get);
+  }
+
+  @Test
+  void log_shouldSkipRecord_whenLimitOfIntervalIsReached() {
+    AuditRecord auditRecord = AuditJournalTest.generateRecords(1).get(0);
+
+    assertTrue(droppedRecordLog.log(auditRecord, REASON));
+    assertTrue(droppedRecordLog.log(auditRecord, REASON));
+    assertFalse(droppedRecordLog.log(auditRecord, REASON));
+  }
+
+  @Test
+  void log_shouldLogRecord_whenNextIntervalStarts() {
+    AuditRecord auditRecord = AuditJournalTest.generateRecords(1).get(0);
+    droppedRecordLog.log(auditRecord, REASON);
+    droppedRecordLog.log(auditRecord, REASON);
+
+    clock.addAndGet(INTERVAL.toMillis());
+
+    assertTrue(droppedRecordLog.log(auditRecord, REASON));
+  }
+}
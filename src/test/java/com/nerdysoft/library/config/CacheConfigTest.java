@@ -0,0 +1,34 @@
+package com.nerdysoft.library.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import com.nerdysoft.library.datasource.ReplicaLagEviction;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+class CacheConfigTest {
+
+  private static final String CACHE_NAME = "getBookByIdCache";
+
+  @Test
+  void cacheManager_shouldCreateCache_whenTimeToLiveIsNotSet() {
+    CacheProperties.CacheSpec cacheSpec = new CacheProperties.CacheSpec();
+    cacheSpec.setMaximumSize(10);
+    CacheProperties cacheProperties = new CacheProperties();
+    cacheProperties.getSpecs().put(CACHE_NAME, cacheSpec);
+
+    CacheManager cacheManager =
+        new CacheConfig()
+            .cacheManager(
+                cacheProperties,
+                new DefaultListableBeanFactory().getBeanProvider(ReplicaLagEviction.class));
+    Cache cache = cacheManager.getCache(CACHE_NAME);
+    cache.put("key", "value");
+
+    assertNotNull(cache);
+    assertEquals("value", cache.get("key").get());
+  }
+}
@@ -0,0 +1,89 @@
+package com.nerdysoft.library.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.nerdysoft.library.datasource.ReplicaLagEviction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+@SpringJUnitConfig
+class LoadTimingCaffeineCacheTest {
+
+  private static final String CACHE_NAME = "cache";
+  private static final String KEY = "key";
+  private static final String VALUE = "value";
+
+  @Autowired private Loader loader;
+  @Autowired private CacheManager cacheManager;
+
+  private CaffeineCache cache;
+
+  @BeforeEach
+  void setUp() {
+    cache = (CaffeineCache) cacheManager.getCache(CACHE_NAME);
+    cache.clear();
+  }
+
+  @Test
+  void put_shouldRecordLoad_whenValueIsLoadedAfterMiss() {
+    long loadCount = cache.getNativeCache().stats().loadSuccessCount();
+
+    loader.load(KEY, false);
+
+    assertEquals(loadCount + 1, cache.getNativeCache().stats().loadSuccessCount());
+  }
+
+  @Test
+  void put_shouldNotRecordLoad_whenLoaderHasThrown() {
+    long loadCount = cache.getNativeCache().stats().loadSuccessCount();
+
+    assertThrows(IllegalStateException.class, () -> loader.load(KEY, true));
+    cache.put(KEY, VALUE);
+
+    assertEquals(loadCount, cache.getNativeCache().stats().loadSuccessCount());
+  }
+
+  static class Loader {
+
+    @Cacheable(value = CACHE_NAME, key = "#key")
+    public String load(String key, boolean fails) {
+      if (fails) {
+        throw new IllegalStateException();
+      }
+      return VALUE;
+    }
+  }
+
+  @Configuration
+  @EnableCaching
+  @EnableAspectJAutoProxy
+  @Import(CacheLoadCompletion.class)
+  static class LoaderConfig {
+
+    @Bean
+    CacheManager cacheManager(ObjectProvider<ReplicaLagEviction> replicaLagEviction) {
+      CacheProperties.CacheSpec cacheSpec = new CacheProperties.CacheSpec();
+      cacheSpec.setMaximumSize(10);
+      CacheProperties cacheProperties = new CacheProperties();
+      cacheProperties.getSpecs().put(CACHE_NAME, cacheSpec);
+      return new CacheConfig().cacheManager(cacheProperties, replicaLagEviction);
+    }
+
+    @Bean
+    Loader loader() {
+      return new Loader();
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package com.nerdysoft.library.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+import com.nerdysoft.library.datasource.ReplicaLagEviction;
+import com.nerdysoft.library.datasource.ReplicaRoutingDataSource;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.scheduling.TaskScheduler;
+
+class ReplicaLagCaffeineCacheTest {
+
+  private static final String KEY = "key";
+  private static final String VALUE = "value";
+
+  private TaskScheduler taskScheduler;
+  private ReplicaLagCaffeineCache cache;
+
+  @BeforeEach
+  void setUp() {
+    taskScheduler = mock(TaskScheduler.class);
+    cache =
+        new ReplicaLagCaffeineCache(
+            "cache",
+            Caffeine.newBuilder().build(),
+            new ConcurrentStatsCounter(),
+            false,
+            new ReplicaLagEviction(taskScheduler, Duration.ofSeconds(5)));
+  }
+
+  @AfterEach
+  void unpin() {
+    ReplicaRoutingDataSource.pinToPrimary(false);
+  }
+
+  @Test
+  void evict_shouldEvictAgainAfterWindow_whenStaleValueIsPutAfterEviction() {
+    ArgumentCaptor<Runnable> eviction = ArgumentCaptor.forClass(Runnable.class);
+
+    cache.evict(KEY);
+    cache.put(KEY, VALUE);
+    verify(taskScheduler).schedule(eviction.capture(), any(Instant.class));
+    eviction.getValue().run();
+
+    assertNull(cache.get(KEY));
+  }
+
+  @Test
+  void clear_shouldScheduleRepeatedEviction_whenCacheIsCleared() {
+    cache.clear();
+
+    verify(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+  }
+
+  @Test
+  void get_shouldMissCachedValue_whenThreadIsPinnedToPrimary() {
+    cache.put(KEY, VALUE);
+
+    ReplicaRoutingDataSource.pinToPrimary(true);
+
+    assertNull(cache.get(KEY));
+    ReplicaRoutingDataSource.pinToPrimary(false);
+    assertEquals(VALUE, cache.get(KEY).get());
+  }
+}
@@ -1,8 +1,10 @@
 package com.nerdysoft.library.controller;
 
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -33,6 +35,9 @@ class BookControllerIntegrationTest {
   private static final String BOOK_ID_PATH = "/books/{bookId}";
   private static final String USER_NAME_PATH = "/users/{userName}";
   private static final String BOOKS_BORROWED_PATH = "/books/borrowed";
+  private static final String BOOKS_SEARCH_PATH = "/books/search";
+  private static final String BOOKS_SUGGEST_PATH = "/books/suggest";
+  private static final String BOOKS_IMPORT_PATH = "/books/import";
   private static final UUID BOOK_ID = UUID.fromString("42d3f123-dd2f-4a10-a182-6506edd9d355");
   private static final String BOOK_ID_BORROWED = "2decc0bd-9730-4145-b18e-94029dfb961f";
   private static final String BOOK_TITLE_BORROWED = "Effective Java";
@@ -63,6 +68,7 @@ class BookControllerIntegrationTest {
     Book updatedBook = bookRepository.findById(bookDto.getId()).get();
     Book expectedBook = TestDataGenerator.generateBook();
     expectedBook.setAuthor(newAuthorName);
+    expectedBook.setVersion(1L);
 
     Assertions.assertEquals(expectedBook, updatedBook);
   }
@@ -79,6 +85,38 @@ class BookControllerIntegrationTest {
         .andExpect(jsonPath("$.content[0].amount").exists());
   }
 
+  @Test
+  void searchBooks_shouldReturnStatus200AndFoundBooks_whenQueryMatchesTitle() throws Exception {
+    mockMvc
+        .perform(get(V1 + BOOKS_SEARCH_PATH).param("q", "effective"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.totalElements", is(1)))
+        .andExpect(jsonPath("$.content[0].id", is(BOOK_ID_BORROWED)))
+        .andExpect(jsonPath("$.content[0].title", is(BOOK_TITLE_BORROWED)));
+  }
+
+  @Test
+  void getAllBorrowedBooks_shouldReturnStatus200AndSlice_whenAfterParameterIsProvided()
+      throws Exception {
+    mockMvc
+        .perform(
+            get(V1 + BOOKS_BORROWED_PATH).param("after", BOOK_ID.toString()).param("size", "5"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content").isEmpty())
+        .andExpect(jsonPath("$.last", is(true)));
+  }
+
+  @Test
+  void getBooks_shouldReturnStatus200AndBooksOfAuthor_whenAuthorIsProvided() throws Exception {
+    mockMvc
+        .perform(
+            get(V1 + BOOKS_PATH).param("author", BOOK_AUTHOR_BORROWED).param("available", "true"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content.length()", is(1)))
+        .andExpect(jsonPath("$.content[0].id", is(BOOK_ID_BORROWED)))
+        .andExpect(jsonPath("$.nextCursor").doesNotExist());
+  }
+
   @Test
   void getBooksBorrowedByUser_shouldReturnStatus200AndBody_whenBooksAreInDb() throws Exception {
     mockMvc
@@ -113,4 +151,69 @@ class BookControllerIntegrationTest {
         .andExpect(jsonPath("$.author", is(bookDto.getAuthor())))
         .andExpect(jsonPath("$.amount", is(2)));
   }
+
+  @Test
+  void exportBorrowedBooksToCsv_shouldReturnStatus200AndCsvRows_whenBooksAreBorrowed()
+      throws Exception {
+    String expectedCsv =
+        """
+        userId,userName,bookId,title,author
+        f0d9bdfc-38e7-4a34-b07f-8216574efbb5,John Doe,%s,%s,%s
+        """
+            .formatted(BOOK_ID_BORROWED, BOOK_TITLE_BORROWED, BOOK_AUTHOR_BORROWED);
+
+    mockMvc
+        .perform(get(V1 + BOOKS_BORROWED_PATH + "/export").accept("text/csv"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType("text/csv;charset=UTF-8"))
+        .andExpect(content().string(expectedCsv));
+  }
+
+  @Test
+  void suggestBooks_shouldReturnStatus200AndAddedBook_whenBookIsAdded() throws Exception {
+    BookDto bookDto =
+        BookDto.builder().title("Domain-Driven Design").author("Eric Evans").amount(1).build();
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.post(V1 + BOOKS_PATH)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(bookDto)))
+        .andExpect(status().isOk());
+
+    mockMvc
+        .perform(get(V1 + BOOKS_SUGGEST_PATH).param("prefix", "domain-d"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.titles", hasItem("Domain-Driven Design")))
+        .andExpect(jsonPath("$.authors").isEmpty());
+  }
+
+  @Test
+  void importBooksFromCsv_shouldReturnStatus200AndReport_whenRowsAreImported() throws Exception {
+    String csv =
+        """
+        title,author,amount
+        Clean Code,Robert Martin,2
+        Refactoring,Martin Fowler,3
+        Refactoring,Martin Fowler,1
+        bad row
+        """;
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.post(V1 + BOOKS_IMPORT_PATH)
+                .contentType("text/csv")
+                .content(csv))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.rowsRead", is(4)))
+        .andExpect(jsonPath("$.rowsRejected", is(1)))
+        .andExpect(jsonPath("$.booksCreated", is(1)))
+        .andExpect(jsonPath("$.booksUpdated", is(2)))
+        .andExpect(jsonPath("$.chunks", is(2)))
+        .andExpect(jsonPath("$.errors[0].line", is(5)));
+
+    Assertions.assertEquals(3, bookRepository.findById(BOOK_ID).get().getAmount());
+    Assertions.assertEquals(
+        4, bookRepository.findByAuthorAndTitle("Martin Fowler", "Refactoring").get().getAmount());
+  }
 }
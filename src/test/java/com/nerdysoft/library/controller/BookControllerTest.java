@@ -2,11 +2,16 @@ package com.nerdysoft.library.controller;
 
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -14,14 +19,21 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nerdysoft.library.TestDataGenerator;
 import com.nerdysoft.library.exceptionhandler.exceptions.BookNotFoundException;
 import com.nerdysoft.library.exceptionhandler.exceptions.DeleteBookConflictException;
+import com.nerdysoft.library.service.BookExportService;
+import com.nerdysoft.library.service.BookImportService;
 import com.nerdysoft.library.service.BookService;
+import com.nerdysoft.library.service.BookSuggestionService;
 import com.nerdysoft.library.service.dto.BookDto;
+import com.nerdysoft.library.service.dto.BookExportFormat;
+import com.nerdysoft.library.service.dto.BookSuggestionsDto;
+import java.util.List;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
@@ -41,8 +53,86 @@ class BookControllerTest {
 
   @MockBean private BookService bookService;
 
+  @MockBean private BookImportService bookImportService;
+
+  @MockBean private BookSuggestionService bookSuggestionService;
+
+  @MockBean private BookExportService bookExportService;
+
   @Autowired private ObjectMapper objectMapper;
 
+  @Test
+  void getBookById_shouldReturnStatus200AndBook_whenBookIsInDb() throws Exception {
+    BookDto bookDto = TestDataGenerator.generateBookDto();
+    when(bookService.getBookById(bookDto.getId())).thenReturn(bookDto);
+
+    mockMvc
+        .perform(get(V1 + BOOK_ID_PATH, bookDto.getId()))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.id", is(bookDto.getId().toString())))
+        .andExpect(jsonPath("$.title", is(bookDto.getTitle())));
+  }
+
+  @Test
+  void getBookById_shouldReturnETag_whenBookIsInDb() throws Exception {
+    BookDto bookDto = TestDataGenerator.generateBookDto();
+    when(bookService.getBookById(bookDto.getId())).thenReturn(bookDto);
+
+    mockMvc
+        .perform(get(V1 + BOOK_ID_PATH, bookDto.getId()))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+        .andExpect(jsonPath("$.version").doesNotExist());
+  }
+
+  @Test
+  void getBookById_shouldReturnStatus304_whenETagMatchesVersion() throws Exception {
+    BookDto bookDto = TestDataGenerator.generateBookDto();
+    when(bookService.getBookById(bookDto.getId())).thenReturn(bookDto);
+
+    mockMvc
+        .perform(get(V1 + BOOK_ID_PATH, bookDto.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+  }
+
+  @Test
+  void suggestBooks_shouldReturnStatus200AndSuggestions_whenPrefixIsProvided() throws Exception {
+    BookSuggestionsDto suggestions =
+        BookSuggestionsDto.builder()
+            .authors(List.of())
+            .titles(List.of("Clean Architecture", "Clean Code"))
+            .build();
+    when(bookSuggestionService.suggest("clean", 2)).thenReturn(suggestions);
+
+    mockMvc
+        .perform(get(V1 + BOOKS_PATH + "/suggest").param("prefix", "clean").param("limit", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.titles[1]", is("Clean Code")))
+        .andExpect(jsonPath("$.authors").isEmpty());
+  }
+
+  @Test
+  void exportBorrowedBooksToNdjson_shouldReturnStatus200AndExportNdjson_whenNdjsonIsAccepted()
+      throws Exception {
+    mockMvc
+        .perform(get(V1 + BOOKS_PATH + "/borrowed/export").accept(MediaType.APPLICATION_NDJSON))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_NDJSON));
+
+    verify(bookExportService).exportBorrowedBooks(any(), eq(BookExportFormat.NDJSON));
+  }
+
+  @Test
+  void getBookById_shouldReturnStatus404_whenNoBookInDb() throws Exception {
+    when(bookService.getBookById(BOOK_ID)).thenThrow(BookNotFoundException.class);
+
+    mockMvc
+        .perform(get(V1 + BOOK_ID_PATH, BOOK_ID))
+        .andExpect(status().isNotFound())
+        .andExpect(jsonPath("$.errorCode", is(404)));
+  }
+
   @Test
   void updateBook_shouldReturnStatus404_whenNoBookInDb() throws Exception {
     BookDto bookDto = TestDataGenerator.generateBookDto();
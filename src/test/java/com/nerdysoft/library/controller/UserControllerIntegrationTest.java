@@ -9,11 +9,14 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.JsonPath;
 import com.nerdysoft.library.TestDataGenerator;
 import com.nerdysoft.library.repository.UserRepository;
 import com.nerdysoft.library.repository.entity.User;
+import com.nerdysoft.library.service.dto.BookIdsWrapper;
 import com.nerdysoft.library.service.dto.UserDto;
 import jakarta.transaction.Transactional;
+import java.util.List;
 import java.util.UUID;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Assertions;
@@ -34,8 +37,11 @@ class UserControllerIntegrationTest {
   private static final String USER_ID_PATH = "/users/{userId}";
   private static final String USERS_PATH = "/users";
   private static final String BOOK_PATH = "/books/{bookId}";
+  private static final String BOOKS_PATH = "/books";
   private static final UUID USER_ID = UUID.fromString("f0d9bdfc-38e7-4a34-b07f-8216574efbb5");
   private static final UUID BOOK_ID = UUID.fromString("42d3f123-dd2f-4a10-a182-6506edd9d355");
+  private static final UUID BOOK_ID_BORROWED =
+      UUID.fromString("2decc0bd-9730-4145-b18e-94029dfb961f");
   private static final UUID USER_ID_WITHOUT_BOOKS =
       UUID.fromString("ccc5848f-b32f-44b5-86f1-b51aac112be0");
 
@@ -60,8 +66,12 @@ class UserControllerIntegrationTest {
     User updatedUser = userRepository.findById(USER_ID).get();
     User expectedUser = TestDataGenerator.generateUser();
     expectedUser.setName(newName);
+    expectedUser.setBorrowedCount(1);
+    expectedUser.setVersion(1L);
+    expectedUser.setBooks(updatedUser.getBooks());
 
     Assertions.assertEquals(expectedUser, updatedUser);
+    Assertions.assertEquals(1, updatedUser.getBooks().size());
   }
 
   @Test
@@ -89,6 +99,45 @@ class UserControllerIntegrationTest {
         .andExpect(status().isOk());
   }
 
+  @Test
+  void borrowBookByUser_shouldReturnStatus409_whenNoAvailableBooks() throws Exception {
+    mockMvc
+        .perform(put(V1 + USER_ID_PATH + BOOK_PATH, USER_ID_WITHOUT_BOOKS, BOOK_ID))
+        .andExpect(status().isOk());
+
+    mockMvc
+        .perform(put(V1 + USER_ID_PATH + BOOK_PATH, USER_ID, BOOK_ID))
+        .andExpect(status().isConflict())
+        .andExpect(jsonPath("$.errorCode", Matchers.is(409)));
+  }
+
+  @Test
+  void borrowBookByUser_shouldReturnStatus409_whenUserAlreadyBorrowedBook() throws Exception {
+    mockMvc
+        .perform(put(V1 + USER_ID_PATH + BOOK_PATH, USER_ID, BOOK_ID_BORROWED))
+        .andExpect(status().isConflict())
+        .andExpect(jsonPath("$.errorCode", Matchers.is(409)));
+  }
+
+  @Test
+  void borrowBooksByUser_shouldReturnStatus200AndOutcomes_whenUserBorrowsBooks() throws Exception {
+    String requestBody =
+        objectMapper.writeValueAsString(new BookIdsWrapper(List.of(BOOK_ID, BOOK_ID_BORROWED)));
+
+    mockMvc
+        .perform(
+            put(V1 + USER_ID_PATH + BOOKS_PATH, USER_ID)
+                .contentType(APPLICATION_JSON)
+                .content(requestBody))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].bookId", Matchers.is(BOOK_ID.toString())))
+        .andExpect(jsonPath("$[0].status", Matchers.is("BORROWED")))
+        .andExpect(jsonPath("$[1].bookId", Matchers.is(BOOK_ID_BORROWED.toString())))
+        .andExpect(jsonPath("$[1].status", Matchers.is("ALREADY_BORROWED")));
+
+    Assertions.assertTrue(userRepository.existsByIdAndBooksId(USER_ID, BOOK_ID));
+  }
+
   @Test
   void getUser_shouldReturnStatus200AndBody_whenUserIsInDb() throws Exception {
     UserDto expectedUserDto = TestDataGenerator.generateUserDto();
@@ -103,4 +152,26 @@ class UserControllerIntegrationTest {
             jsonPath(
                 "$.membershipDate", Matchers.is(expectedUserDto.getMembershipDate().toString())));
   }
+
+  @Test
+  void getUsers_shouldReturnUsersPageByPage_whenNextCursorIsFollowed() throws Exception {
+    String firstPage =
+        mockMvc
+            .perform(MockMvcRequestBuilders.get(V1 + USERS_PATH).param("size", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].name", Matchers.is("John Doe")))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    String nextCursor = JsonPath.read(firstPage, "$.nextCursor");
+
+    mockMvc
+        .perform(
+            MockMvcRequestBuilders.get(V1 + USERS_PATH)
+                .param("size", "1")
+                .param("cursor", nextCursor))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content[0].name", Matchers.is("John Smith")))
+        .andExpect(jsonPath("$.nextCursor").doesNotExist());
+  }
 }
@@ -1,12 +1,16 @@
 package com.nerdysoft.library.controller;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -14,10 +18,14 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nerdysoft.library.TestDataGenerator;
 import com.nerdysoft.library.exceptionhandler.exceptions.BookAmountConflictException;
 import com.nerdysoft.library.exceptionhandler.exceptions.BookNotFoundException;
+import com.nerdysoft.library.exceptionhandler.exceptions.InvalidCursorException;
 import com.nerdysoft.library.exceptionhandler.exceptions.UserBookRelationConflictException;
 import com.nerdysoft.library.exceptionhandler.exceptions.UserNotFoundException;
 import com.nerdysoft.library.service.UserService;
+import com.nerdysoft.library.service.dto.BookIdsWrapper;
 import com.nerdysoft.library.service.dto.UserDto;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
@@ -25,6 +33,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
@@ -36,6 +45,7 @@ class UserControllerTest {
   private static final String USER_ID_PATH = "/users/{userId}";
   private static final String USERS_PATH = "/users";
   private static final String BOOK_PATH = "/books/{bookId}";
+  private static final String BOOKS_PATH = "/books";
   private static final UUID NOT_EXISTING_USER_ID = UUID.randomUUID();
   private static final UUID USER_ID = UUID.randomUUID();
   private static final UUID BOOK_ID = UUID.randomUUID();
@@ -163,6 +173,44 @@ class UserControllerTest {
         .andExpect(jsonPath("$.timestamp").exists());
   }
 
+  @Test
+  void borrowBooksByUser_shouldReturnStatus400AndErrorBody_whenNoBookIds() throws Exception {
+    String requestBody = objectMapper.writeValueAsString(new BookIdsWrapper(List.of()));
+
+    mockMvc
+        .perform(
+            put(V1 + USER_ID_PATH + BOOKS_PATH, USER_ID)
+                .contentType(APPLICATION_JSON)
+                .content(requestBody))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.details.bookIds").exists())
+        .andExpect(jsonPath("$.errorCode", Matchers.is(400)))
+        .andExpect(jsonPath("$.timestamp").exists());
+  }
+
+  @Test
+  void getUser_shouldReturnETag_whenUserIsInDb() throws Exception {
+    UserDto userDto = TestDataGenerator.generateUserDto();
+    when(userService.getUserById(userDto.getId())).thenReturn(userDto);
+
+    mockMvc
+        .perform(get(V1 + USER_ID_PATH, userDto.getId()))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+        .andExpect(jsonPath("$.name", Matchers.is(userDto.getName())));
+  }
+
+  @Test
+  void getUser_shouldReturnStatus304_whenETagMatchesVersion() throws Exception {
+    UserDto userDto = TestDataGenerator.generateUserDto();
+    when(userService.getUserById(userDto.getId())).thenReturn(userDto);
+
+    mockMvc
+        .perform(get(V1 + USER_ID_PATH, userDto.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+  }
+
   @Test
   void getUser_shouldReturnStatus404_whenNoUserInDb() throws Exception {
     when(userService.getUserById(NOT_EXISTING_USER_ID)).thenThrow(UserNotFoundException.class);
@@ -176,4 +224,21 @@ class UserControllerTest {
         .andExpect(jsonPath("$.errorCode", Matchers.is(404)))
         .andExpect(jsonPath("$.timestamp").exists());
   }
+
+  @Test
+  void getUsers_shouldReturnStatus400AndErrorBody_whenCursorIsNotValid() throws Exception {
+    LocalDate membershipFrom = LocalDate.of(2024, 8, 1);
+
+    when(userService.getUsers(eq(membershipFrom), any(), eq("bad"), eq(20)))
+        .thenThrow(new InvalidCursorException());
+
+    mockMvc
+        .perform(
+            get(V1 + USERS_PATH)
+                .param("membershipFrom", membershipFrom.toString())
+                .param("cursor", "bad"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.errorCode", Matchers.is(400)))
+        .andExpect(jsonPath("$.details").isString());
+  }
 }
@@ -0,0 +1,151 @@
+package com.nerdysoft.library.datasource;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nerdysoft.library.TestDataGenerator;
+import com.nerdysoft.library.repository.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.http.Cookie;
+import java.util.UUID;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Two in-memory H2 databases stand in for a primary and a replica. Nothing is replicated between
+ * them, so a row is visible only in the database a request was routed to.
+ */
+@SpringBootTest(
+    properties = {
+      "spring.datasource.url=" + ReplicaRoutingIntegrationTest.PRIMARY_URL,
+      "application.datasource-routing.enabled=true",
+      "application.datasource-routing.replicas[0].url=" + ReplicaRoutingIntegrationTest.REPLICA_URL,
+      "application.datasource-routing.replicas[0].username=sa",
+      "application.datasource-routing.read-your-writes.enabled=true",
+      "application.cache.second-level.enabled=true"
+    })
+@AutoConfigureMockMvc
+class ReplicaRoutingIntegrationTest {
+
+  static final String PRIMARY_URL = "jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1";
+  static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+  private static final String USER_ID_PATH = "/v1/users/{userId}";
+  private static final String USERS_PATH = "/v1/users";
+  private static final String USER_IDS = "$.content[*].id";
+  private static final UUID REPLICA_USER_ID =
+      UUID.fromString("5b0a8f31-2d3c-4a5e-9f61-7c8d9e0a1b2c");
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Autowired private MeterRegistry meterRegistry;
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+
+  @BeforeAll
+  static void setUpReplica() {
+    DriverManagerDataSource replica = new DriverManagerDataSource(REPLICA_URL, "sa", "");
+    Flyway.configure()
+        .dataSource(replica)
+        .locations("classpath:db/migration", "classpath:db/vendor/h2")
+        .load()
+        .migrate();
+    new JdbcTemplate(replica)
+        .update(
+            "MERGE INTO users(id, name, membership_date) VALUES (?, 'Jane Roe', '2024-08-13')",
+            REPLICA_USER_ID);
+  }
+
+  @Test
+  void getUsers_shouldReadReplica_whenRequestHasNoCookie() throws Exception {
+    mockMvc
+        .perform(get(USERS_PATH))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath(USER_IDS, hasItem(REPLICA_USER_ID.toString())));
+  }
+
+  @Test
+  void getUsers_shouldReadPrimary_whenClientHasWrittenRecently() throws Exception {
+    MockHttpServletResponse response = createUser();
+    Cookie readPrimaryCookie = response.getCookie(ReadYourWritesFilter.COOKIE_NAME);
+    String createdUserId = extractUserId(response).toString();
+
+    mockMvc
+        .perform(get(USERS_PATH))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath(USER_IDS, not(hasItem(createdUserId))));
+    mockMvc
+        .perform(get(USERS_PATH).cookie(readPrimaryCookie))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath(USER_IDS, hasItem(createdUserId)));
+  }
+
+  @Test
+  void getUser_shouldReadReplica_whenRequestHasNoCookie() throws Exception {
+    mockMvc.perform(get(USER_ID_PATH, REPLICA_USER_ID)).andExpect(status().isOk());
+  }
+
+  @Test
+  void getUser_shouldReadPrimary_whenClientHasWrittenRecently() throws Exception {
+    MockHttpServletResponse response = createUser();
+    Cookie readPrimaryCookie = response.getCookie(ReadYourWritesFilter.COOKIE_NAME);
+    UUID createdUserId = extractUserId(response);
+    entityManagerFactory.getCache().evictAll();
+
+    mockMvc.perform(get(USER_ID_PATH, createdUserId)).andExpect(status().isNotFound());
+    mockMvc
+        .perform(get(USER_ID_PATH, createdUserId).cookie(readPrimaryCookie))
+        .andExpect(status().isOk());
+  }
+
+  @Test
+  void getUsers_shouldNotPutReplicaRowsIntoSecondLevelCache() throws Exception {
+    mockMvc.perform(get(USERS_PATH)).andExpect(status().isOk());
+
+    assertFalse(entityManagerFactory.getCache().contains(User.class, REPLICA_USER_ID));
+  }
+
+  @Test
+  void dataSource_shouldExposePoolMetrics_whenTargetsAreUsed() throws Exception {
+    mockMvc.perform(get(USERS_PATH)).andExpect(status().isOk());
+
+    assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "primary").gauge());
+    assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", "replica-1").gauge());
+  }
+
+  private MockHttpServletResponse createUser() throws Exception {
+    String requestBody = objectMapper.writeValueAsString(TestDataGenerator.generateUserDto());
+    return mockMvc
+        .perform(post(USERS_PATH).contentType(APPLICATION_JSON).content(requestBody))
+        .andExpect(status().isCreated())
+        .andExpect(cookie().exists(ReadYourWritesFilter.COOKIE_NAME))
+        .andReturn()
+        .getResponse();
+  }
+
+  private UUID extractUserId(MockHttpServletResponse response) {
+    String location = response.getHeader(HttpHeaders.LOCATION);
+    return UUID.fromString(location.substring(location.lastIndexOf('/') + 1));
+  }
+}
@@ -0,0 +1,75 @@
+package com.nerdysoft.library.id;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class TimeOrderedIdGeneratorTest {
+
+  private static final long TIMESTAMP = 1_723_507_200_000L;
+  private static final int COUNTER_RANGE = 4096;
+
+  private final AtomicLong clock = new AtomicLong(TIMESTAMP);
+  private final TimeOrderedIdGenerator idGenerator = new TimeOrderedIdGenerator(clock::get);
+
+  @Test
+  void generateId_shouldReturnVersionSevenId_whenIdIsGenerated() {
+    UUID id = idGenerator.generateId();
+
+    assertEquals(7, id.version());
+    assertEquals(2, id.variant());
+    assertEquals(TIMESTAMP, timestampOf(id));
+  }
+
+  @Test
+  void generateId_shouldReturnIncreasingIds_whenIdsAreGeneratedWithinMillisecond() {
+    UUID previousId = idGenerator.generateId();
+
+    for (int i = 0; i < COUNTER_RANGE; i++) {
+      UUID id = idGenerator.generateId();
+
+      assertTrue(id.compareTo(previousId) > 0);
+      previousId = id;
+    }
+  }
+
+  @Test
+  void generateId_shouldMoveTimestampForward_whenCounterOverflows() {
+    UUID id = null;
+
+    for (int i = 0; i <= COUNTER_RANGE; i++) {
+      id = idGenerator.generateId();
+    }
+
+    assertEquals(TIMESTAMP + 1, timestampOf(id));
+  }
+
+  @Test
+  void generateId_shouldReturnIncreasingIds_whenClockGoesBackward() {
+    UUID previousId = idGenerator.generateId();
+    clock.set(TIMESTAMP - 1);
+
+    UUID id = idGenerator.generateId();
+
+    assertTrue(id.compareTo(previousId) > 0);
+    assertEquals(TIMESTAMP, timestampOf(id));
+  }
+
+  @Test
+  void generateId_shouldReturnIdsOrderedByTime_whenClockMovesForward() {
+    UUID previousId = idGenerator.generateId();
+    clock.incrementAndGet();
+
+    UUID id = idGenerator.generateId();
+
+    assertTrue(id.compareTo(previousId) > 0);
+    assertEquals(TIMESTAMP + 1, timestampOf(id));
+  }
+
+  private long timestampOf(UUID id) {
+    return id.getMostSignificantBits() >>> 16;
+  }
+}
@@ -0,0 +1,104 @@
+package com.nerdysoft.library.loggin;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.nerdysoft.library.repository.BookRepository;
+import com.nerdysoft.library.repository.entity.Book;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnitUtil;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.repository.CrudRepository;
+
+@ExtendWith(MockitoExtension.class)
+class RepositoryTracingTest {
+
+  private static final UUID BOOK_ID = UUID.fromString("42d3f123-dd2f-4a10-a182-6506edd9d355");
+
+  @Mock EntityManagerFactory entityManagerFactory;
+  @Mock PersistenceUnitUtil persistenceUnitUtil;
+  @Mock ProceedingJoinPoint joinPoint;
+  @Mock Signature signature;
+
+  RepositoryTracingProperties properties;
+  RepositoryTracing repositoryTracing;
+
+  @BeforeEach
+  void setUp() {
+    properties = new RepositoryTracingProperties();
+    properties.setMaxValueLength(5);
+    repositoryTracing = new RepositoryTracing(properties, entityManagerFactory);
+  }
+
+  @Test
+  void summarize_shouldReturnEntityNameAndId_whenValueIsEntity() {
+    Book book = Book.builder().id(BOOK_ID).title("Clean Code").build();
+    when(entityManagerFactory.getPersistenceUnitUtil()).thenReturn(persistenceUnitUtil);
+    when(persistenceUnitUtil.getIdentifier(book)).thenReturn(BOOK_ID);
+
+    assertEquals(
+        "Optional[Book[id=%s]]".formatted(BOOK_ID), repositoryTracing.summarize(Optional.of(book)));
+  }
+
+  @Test
+  void summarize_shouldReturnSize_whenValueIsCollectionOrPage() {
+    assertEquals("ArrayList[size=2]", repositoryTracing.summarize(new ArrayList<>(List.of(1, 2))));
+    assertEquals(
+        "PageImpl[number=0, elements=1]", repositoryTracing.summarize(new PageImpl<>(List.of(1))));
+  }
+
+  @Test
+  void summarize_shouldTruncateValue_whenValueIsLongerThanMaxLength() {
+    assertEquals("Clean...", repositoryTracing.summarize("Clean Code"));
+  }
+
+  @Test
+  void traceRepositoryMethod_shouldUseRepositoryRate_whenMethodIsInherited() throws Throwable {
+    properties.setSampleRates(Map.of("BookRepository.findById", 0.0));
+    when(joinPoint.getTarget()).thenReturn(mock(BookRepository.class));
+    when(joinPoint.getSignature()).thenReturn(signature);
+    when(signature.getDeclaringType()).thenReturn(CrudRepository.class);
+    when(signature.getName()).thenReturn("findById");
+    when(joinPoint.proceed()).thenReturn(Optional.empty());
+    Logger logger = (Logger) LoggerFactory.getLogger(RepositoryTracing.class);
+    Level level = logger.getLevel();
+    logger.setLevel(Level.DEBUG);
+
+    try {
+      repositoryTracing.traceRepositoryMethod(joinPoint);
+    } finally {
+      logger.setLevel(level);
+    }
+
+    verify(joinPoint).proceed();
+    verify(joinPoint, never()).getArgs();
+  }
+
+  @Test
+  void resolveSampleRate_shouldPreferMethodRate_whenMethodAndRepositoryRatesAreSet() {
+    properties.setDefaultSampleRate(0.1);
+    properties.setSampleRates(Map.of("BookRepository", 0.5, "BookRepository.findById", 1.0));
+
+    assertEquals(1.0, properties.resolveSampleRate("BookRepository", "findById"));
+    assertEquals(0.5, properties.resolveSampleRate("BookRepository", "findAll"));
+    assertEquals(0.1, properties.resolveSampleRate("UserRepository", "findAll"));
+  }
+}
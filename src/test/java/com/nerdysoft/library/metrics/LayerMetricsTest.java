@@ -0,0 +1,95 @@
+package com.nerdysoft.library.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.nerdysoft.library.exceptionhandler.exceptions.BookNotFoundException;
+import com.nerdysoft.library.repository.BookRepository;
+import com.nerdysoft.library.service.BookService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.repository.CrudRepository;
+
+@ExtendWith(MockitoExtension.class)
+class LayerMetricsTest {
+
+  @Mock ProceedingJoinPoint joinPoint;
+  @Mock Signature signature;
+
+  MeterRegistry meterRegistry;
+  LayerMetrics layerMetrics;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    layerMetrics = new LayerMetrics(meterRegistry);
+    when(joinPoint.getSignature()).thenReturn(signature);
+  }
+
+  @Test
+  void timeServiceMethod_shouldRecordTimer_whenMethodReturns() throws Throwable {
+    mockServiceMethod();
+    when(joinPoint.proceed()).thenReturn("book");
+
+    layerMetrics.timeServiceMethod(joinPoint);
+
+    long count =
+        meterRegistry
+            .get(LayerMetrics.SERVICE_TIMER)
+            .tags("class", "BookService", "method", "getBookById", "exception", "none")
+            .timer()
+            .count();
+    assertEquals(1, count);
+    assertNull(meterRegistry.find(LayerMetrics.REJECTION_COUNTER).counter());
+  }
+
+  @Test
+  void timeServiceMethod_shouldCountRejection_whenBusinessExceptionIsThrown() throws Throwable {
+    mockServiceMethod();
+    when(joinPoint.proceed()).thenThrow(new BookNotFoundException("Book not found"));
+
+    assertThrows(BookNotFoundException.class, () -> layerMetrics.timeServiceMethod(joinPoint));
+
+    double rejections =
+        meterRegistry
+            .get(LayerMetrics.REJECTION_COUNTER)
+            .tag("exception", "BookNotFoundException")
+            .counter()
+            .count();
+    assertEquals(1, rejections);
+  }
+
+  @Test
+  void timeRepositoryMethod_shouldTagRepository_whenMethodIsInherited() throws Throwable {
+    when(joinPoint.getTarget()).thenReturn(mock(BookRepository.class));
+    when(signature.getDeclaringType()).thenReturn(CrudRepository.class);
+    when(signature.getName()).thenReturn("findById");
+    when(joinPoint.proceed()).thenReturn(Optional.empty());
+
+    layerMetrics.timeRepositoryMethod(joinPoint);
+
+    long count =
+        meterRegistry
+            .get(LayerMetrics.REPOSITORY_TIMER)
+            .tags("class", "BookRepository", "method", "findById")
+            .timer()
+            .count();
+    assertEquals(1, count);
+  }
+
+  private void mockServiceMethod() {
+    when(signature.getDeclaringType()).thenReturn(BookService.class);
+    when(signature.getName()).thenReturn("getBookById");
+  }
+}
@@ -1,18 +1,27 @@
 package com.nerdysoft.library.repository;
 
-import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.nerdysoft.library.config.JpaConfig;
 import com.nerdysoft.library.repository.entity.Book;
+import com.nerdysoft.library.repository.projection.BookIdentity;
+import com.nerdysoft.library.repository.projection.BookSummary;
+import com.nerdysoft.library.repository.projection.BorrowedBook;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.jdbc.Sql;
 
 @DataJpaTest
+@Import(JpaConfig.class)
 @Sql(scripts = "/db/test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
 class BookRepositoryTest {
 
@@ -29,37 +38,79 @@ class BookRepositoryTest {
 
   @Test
   void findAllBooksRelatedToUsers_shouldReturnBooksPage_whenUserBookRelationsExist() {
-    List<Book> books = bookRepository.findAllBooksRelatedToUsers();
+    Page<BookSummary> books = bookRepository.findAllBooksRelatedToUsers(PageRequest.of(0, 5));
 
-    assertFalse(books.isEmpty());
+    assertEquals(1, books.getTotalElements());
+    assertEquals(BOOK_ID_OF_USER, books.getContent().get(0).id());
+    assertEquals(1, books.getContent().get(0).amount());
   }
 
   @Test
-  void findByUsersName_shouldReturnEmptyList_whenNoRelation() {
-    List<Book> books = bookRepository.findByUsersName(NOT_EXISTING_USER_NAME);
+  void findBooksRelatedToUsersAfter_shouldReturnBooks_whenBorrowedBooksFollowProvidedId() {
+    UUID lowestId = new UUID(0, 0);
+
+    List<BookSummary> books = bookRepository.findBooksRelatedToUsersAfter(lowestId, 5);
+
+    assertEquals(1, books.size());
+    assertEquals(BOOK_ID_OF_USER, books.get(0).id());
+  }
+
+  @Test
+  void findBooksRelatedToUsersAfter_shouldReturnEmptyList_whenNoBorrowedBooksFollowProvidedId() {
+    List<BookSummary> books = bookRepository.findBooksRelatedToUsersAfter(BOOK_ID_OF_USER, 5);
+
+    assertTrue(books.isEmpty());
+  }
+
+  @Test
+  void streamBorrowedBooks_shouldReturnRowPerUserBookRelation_whenRelationsExist() {
+    try (Stream<BorrowedBook> borrowedBooks = bookRepository.streamBorrowedBooks()) {
+      List<BorrowedBook> borrowedBookList = borrowedBooks.toList();
+
+      assertEquals(1, borrowedBookList.size());
+      assertEquals(BOOK_ID_OF_USER, borrowedBookList.get(0).bookId());
+      assertEquals(USER_NAME, borrowedBookList.get(0).userName());
+    }
+  }
+
+  @Test
+  void search_shouldReturnBooks_whenTitleOrAuthorContainsQueryWords() {
+    Page<Book> books = bookRepository.search("clean martin", PageRequest.of(0, 5));
+
+    assertEquals(1, books.getTotalElements());
+    assertEquals(BOOK_ID, books.getContent().get(0).getId());
+  }
+
+  @Test
+  void search_shouldReturnEmptyPage_whenNoBookContainsQueryWords() {
+    Page<Book> books = bookRepository.search("kotlin", PageRequest.of(0, 5));
 
     assertTrue(books.isEmpty());
   }
 
   @Test
-  void findByUsersName_shouldReturnBooks_whenRelationExist() {
-    List<Book> books = bookRepository.findByUsersName(USER_NAME);
+  void search_shouldFindUpdatedBook_whenTitleIsChanged() {
+    Book book = bookRepository.findById(BOOK_ID).orElseThrow();
+    book.setTitle("Refactoring");
+    bookRepository.saveAndFlush(book);
+
+    Page<Book> books = bookRepository.search("refactoring", PageRequest.of(0, 5));
 
-    assertFalse(books.isEmpty());
+    assertEquals(BOOK_ID, books.getContent().get(0).getId());
   }
 
   @Test
-  void isBookRelatedToAnyUser_shouldReturnFalse_whenBookHasNoRelation() {
-    boolean hasBookRelation = bookRepository.isBookRelatedToAnyUser(BOOK_ID.toString());
+  void findIdentitiesByUsersName_shouldReturnEmptyList_whenNoRelation() {
+    List<BookIdentity> books = bookRepository.findIdentitiesByUsersName(NOT_EXISTING_USER_NAME);
 
-    assertFalse(hasBookRelation);
+    assertTrue(books.isEmpty());
   }
 
   @Test
-  void isBookRelatedToAnyUser_shouldReturnTrue_whenBookHasRelation() {
-    boolean hasBookRelation = bookRepository.isBookRelatedToAnyUser(BOOK_ID_OF_USER.toString());
+  void findIdentitiesByUsersName_shouldReturnBooks_whenRelationExist() {
+    List<BookIdentity> books = bookRepository.findIdentitiesByUsersName(USER_NAME);
 
-    assertTrue(hasBookRelation);
+    assertEquals(List.of(BOOK_ID_OF_USER), books.stream().map(BookIdentity::id).toList());
   }
 
   @Test
@@ -76,4 +127,77 @@ class BookRepositoryTest {
 
     assertTrue(bookOptional.isPresent());
   }
+
+  @Test
+  void decreaseAmountByOneIfAvailable_shouldDecreaseAmount_whenAmountIsGreaterThanZero() {
+    int updatedBooks = bookRepository.decreaseAmountByOneIfAvailable(BOOK_ID);
+
+    Book book = bookRepository.findById(BOOK_ID).get();
+    assertEquals(1, updatedBooks);
+    assertEquals(0, book.getAmount());
+    assertEquals(1, book.getBorrowedCopies());
+    assertEquals(1, book.getVersion());
+  }
+
+  @Test
+  void decreaseAmountByOneIfAvailable_shouldNotDecreaseAmount_whenAmountIsZero() {
+    bookRepository.decreaseAmountByOneIfAvailable(BOOK_ID);
+
+    int updatedBooks = bookRepository.decreaseAmountByOneIfAvailable(BOOK_ID);
+
+    assertEquals(0, updatedBooks);
+  }
+
+  @Test
+  void decreaseAmountsByOneIfAvailable_shouldDecreaseAmounts_whenAmountsAreGreaterThanZero() {
+    int updatedBooks =
+        bookRepository.decreaseAmountsByOneIfAvailable(List.of(BOOK_ID, BOOK_ID_OF_USER));
+
+    assertEquals(2, updatedBooks);
+  }
+
+  @Test
+  void findIdsWithBorrowedCopiesDrift_shouldReturnBookId_whenCopiesDifferFromRelations() {
+    bookRepository.updateBorrowedCopies(BOOK_ID, 2);
+
+    List<UUID> bookIds = bookRepository.findIdsWithBorrowedCopiesDrift();
+
+    assertEquals(List.of(BOOK_ID), bookIds);
+  }
+
+  @Test
+  void findByIdInOrderById_shouldReturnBooks_whenBooksAreInDb() {
+    List<Book> books = bookRepository.findByIdInOrderById(List.of(BOOK_ID, BOOK_ID_OF_USER));
+
+    assertEquals(List.of(BOOK_ID_OF_USER, BOOK_ID), books.stream().map(Book::getId).toList());
+  }
+
+  @Test
+  void createBooks_shouldInsertBooks_whenRequested() {
+    Book book = Book.builder().title("Refactoring").author("Martin Fowler").amount(3).build();
+
+    bookRepository.createBooks(List.of(book));
+
+    Optional<Book> bookOptional =
+        bookRepository.findByAuthorAndTitle("Martin Fowler", "Refactoring");
+    assertTrue(bookOptional.isPresent());
+    assertEquals(3, bookOptional.get().getAmount());
+  }
+
+  @Test
+  void increaseBookAmounts_shouldIncreaseAmounts_whenBooksAreInDb() {
+    Book book = Book.builder().id(BOOK_ID).amount(2).build();
+
+    bookRepository.increaseBookAmounts(List.of(book));
+
+    assertEquals(3, bookRepository.findById(BOOK_ID).get().getAmount());
+  }
+
+  @Test
+  void findByAuthorInAndTitleIn_shouldReturnBookIdentities_whenBooksAreInDb() {
+    List<BookIdentity> books =
+        bookRepository.findByAuthorInAndTitleIn(List.of(AUTHOR), List.of(BOOK_TITLE));
+
+    assertEquals(List.of(new BookIdentity(BOOK_ID, AUTHOR, BOOK_TITLE)), books);
+  }
 }
@@ -0,0 +1,340 @@
+package com.nerdysoft.library.repository;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.nerdysoft.library.config.JpaConfig;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.jdbc.Sql;
+
+/**
+ * Verifies execution plans of repository queries against a synthetic dataset of 10000 users, 10000
+ * books and 2000 user-book relations. Every query is executed through its repository method, the
+ * SQL sent by Hibernate is captured and executed again with EXPLAIN ANALYZE. A test fails when the
+ * plan contains a table scan, doesn't use an expected index or reads more rows than its budget.
+ *
+ * @author Oleksandr Semenchenko
+ */
+@DataJpaTest
+@Import(JpaConfig.class)
+@Sql(scripts = {"/db/test-data.sql", "/db/query-plan-data.sql"})
+class QueryPlanTest {
+
+  private static final Pattern SCAN_COUNT = Pattern.compile("/\\* scanCount: (\\d+) \\*/");
+  private static final String TABLE_SCAN = ".tableScan";
+  private static final UUID USER_ID = UUID.fromString("00000000-0000-0000-0000-000000000005");
+  private static final UUID BOOK_ID = UUID.fromString("00000000-0000-0000-0001-000000000005");
+  private static final UUID OTHER_BOOK_ID = UUID.fromString("00000000-0000-0000-0001-000000001005");
+  private static final String USER_NAME = "User 5";
+  private static final String AUTHOR = "Author 5";
+  private static final String TITLE = "Title 5";
+  private static final UUID MIDDLE_USER_ID =
+      UUID.fromString("00000000-0000-0000-0000-000000005000");
+  private static final UUID MIDDLE_BOOK_ID =
+      UUID.fromString("00000000-0000-0000-0001-000000005000");
+  private static final String MIDDLE_USER_NAME = "User 5000";
+  private static final String MIDDLE_TITLE = "Title 5000";
+  private static final LocalDate MEMBERSHIP_DATE = LocalDate.of(2024, 8, 13);
+  private static final int PAGE_SIZE = 20;
+  private static final int USERS = 10000;
+  private static final int BOOKS = 10000;
+  private static final int BORROWED_BOOKS = 2000;
+  private static final int POINT_LOOKUP_BUDGET = 10;
+
+  /**
+   * H2 has no partial indexes, and for the borrowed_copies > 0 bound it walks the zero entries of
+   * the index too. In PostgreSQL, the listings read the partial index of borrowed books only.
+   */
+  private static final int BORROWED_LISTING_BUDGET = BOOKS + POINT_LOOKUP_BUDGET;
+
+  @Autowired private BookRepository bookRepository;
+  @Autowired private UserRepository userRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private RecordingStatementInspector statementInspector;
+
+  @BeforeEach
+  void setUp() {
+    statementInspector.clear();
+  }
+
+  @Test
+  void findAllBooksRelatedToUsers_shouldReadOnlyBorrowedBooks() {
+    bookRepository.findAllBooksRelatedToUsers(PageRequest.of(1, PAGE_SIZE));
+
+    assertPlan(
+        explain(0, PAGE_SIZE, PAGE_SIZE), "BOOKS_BORROWED_COPIES_IDX", BORROWED_LISTING_BUDGET);
+    assertPlan(explain(1), "BOOKS_BORROWED_COPIES_IDX", BORROWED_LISTING_BUDGET);
+  }
+
+  @Test
+  void findBooksRelatedToUsersAfter_shouldReadOnlyBorrowedBooks() {
+    bookRepository.findBooksRelatedToUsersAfter(BOOK_ID, PAGE_SIZE + 1);
+
+    assertPlan(explain(0, BOOK_ID, PAGE_SIZE + 1), null, BORROWED_LISTING_BUDGET);
+  }
+
+  @Test
+  void findIdentitiesByUsersName_shouldUseUserNameIndex() {
+    bookRepository.findIdentitiesByUsersName(USER_NAME);
+
+    assertPlan(explain(0, USER_NAME), "USERS_NAME_ID_IDX", POINT_LOOKUP_BUDGET);
+  }
+
+  @Test
+  void findByAuthorAndTitle_shouldUseAuthorTitleIndex() {
+    bookRepository.findByAuthorAndTitle(AUTHOR, TITLE);
+
+    assertPlan(explain(0, AUTHOR, TITLE), "BOOKS_AUTHOR_TITLE_ID_IDX", POINT_LOOKUP_BUDGET);
+  }
+
+  @Test
+  void findByAuthorInAndTitleIn_shouldUseAuthorTitleIndex() {
+    bookRepository.findByAuthorInAndTitleIn(List.of(AUTHOR, "Author 6"), List.of(TITLE, "Title 6"));
+
+    assertPlan(
+        explain(0, AUTHOR, "Author 6", TITLE, "Title 6"),
+        "BOOKS_AUTHOR_TITLE_ID_IDX",
+        BOOKS / 1000 * 2 + POINT_LOOKUP_BUDGET);
+  }
+
+  @Test
+  void findBooks_shouldSeekToCursorInTitleIndex() {
+    bookRepository.findBooks(null, null, MIDDLE_TITLE, MIDDLE_BOOK_ID, PAGE_SIZE + 1);
+
+    assertPlan(
+        explain(0, MIDDLE_TITLE, MIDDLE_BOOK_ID, PAGE_SIZE + 1),
+        "BOOKS_TITLE_ID_IDX",
+        PAGE_SIZE + POINT_LOOKUP_BUDGET);
+  }
+
+  @Test
+  void findBooks_shouldUseAuthorTitleIndex_whenAuthorIsProvided() {
+    bookRepository.findBooks(AUTHOR, true, null, null, PAGE_SIZE + 1);
+
+    assertPlan(
+        explain(0, AUTHOR, PAGE_SIZE + 1),
+        "BOOKS_AUTHOR_TITLE_ID_IDX",
+        BOOKS / 1000 + POINT_LOOKUP_BUDGET);
+  }
+
+  @Test
+  void decreaseAmountByOneIfAvailable_shouldUsePrimaryKey() {
+    bookRepository.decreaseAmountByOneIfAvailable(BOOK_ID);
+
+    assertPlan(explain(0, BOOK_ID), "PRIMARY_KEY", POINT_LOOKUP_BUDGET);
+  }
+
+  @Test
+  void decreaseAmountsByOneIfAvailable_shouldUsePrimaryKey() {
+    bookRepository.decreaseAmountsByOneIfAvailable(List.of(BOOK_ID, OTHER_BOOK_ID));
+
+    assertPlan(explain(0, BOOK_ID, OTHER_BOOK_ID), "PRIMARY_KEY", POINT_LOOKUP_BUDGET);
+  }
+
+  @Test
+  void updateBorrowedCopies_shouldUsePrimaryKey() {
+    bookRepository.updateBorrowedCopies(BOOK_ID, 1);
+
+    assertPlan(explain(0, 1, BOOK_ID), "PRIMARY_KEY", POINT_LOOKUP_BUDGET);
+  }
+
+  @Test
+  void findByIdInOrderById_shouldUsePrimaryKey() {
+    bookRepository.findByIdInOrderById(List.of(BOOK_ID, OTHER_BOOK_ID));
+
+    assertPlan(explain(0, BOOK_ID, OTHER_BOOK_ID), "PRIMARY_KEY", POINT_LOOKUP_BUDGET);
+  }
+
+  @Test
+  void findBookWithLockById_shouldUsePrimaryKey() {
+    bookRepository.findWithLockById(BOOK_ID);
+
+    assertPlan(explain(0, BOOK_ID), "PRIMARY_KEY", POINT_LOOKUP_BUDGET);
+  }
+
+  @Test
+  void countUserRelationsByBookId_shouldUseBookIndex() {
+    bookRepository.countUserRelationsByBookId(BOOK_ID);
+
+    assertPlan(explain(0, BOOK_ID), null, POINT_LOOKUP_BUDGET);
+  }
+
+  @Test
+  void findIdsWithBorrowedCopiesDrift_shouldReadEachBookOnce() {
+    bookRepository.findIdsWithBorrowedCopiesDrift();
+
+    assertBatchPlan(explain(0), BOOKS + 2 * BORROWED_BOOKS);
+  }
+
+  @Test
+  void increaseBorrowedCountIfBelow_shouldUsePrimaryKey() {
+    userRepository.increaseBorrowedCountIfBelow(USER_ID, 10);
+
+    assertPlan(explain(0, USER_ID, 10), "PRIMARY_KEY", POINT_LOOKUP_BUDGET);
+  }
+
+  @Test
+  void increaseBorrowedCount_shouldUsePrimaryKey() {
+    userRepository.increaseBorrowedCount(USER_ID, 1);
+
+    assertPlan(explain(0, 1, USER_ID), "PRIMARY_KEY", POINT_LOOKUP_BUDGET);
+  }
+
+  @Test
+  void updateBorrowedCount_shouldUsePrimaryKey() {
+    userRepository.updateBorrowedCount(USER_ID, 1);
+
+    assertPlan(explain(0, 1, USER_ID), "PRIMARY_KEY", POINT_LOOKUP_BUDGET);
+  }
+
+  @Test
+  void findBorrowedCountById_shouldUsePrimaryKey() {
+    userRepository.findBorrowedCountById(USER_ID);
+
+    assertPlan(explain(0, USER_ID), "PRIMARY_KEY", POINT_LOOKUP_BUDGET);
+  }
+
+  @Test
+  void findUserWithLockById_shouldUsePrimaryKey() {
+    userRepository.findWithLockById(USER_ID);
+
+    assertPlan(explain(0, USER_ID), "PRIMARY_KEY", POINT_LOOKUP_BUDGET);
+  }
+
+  @Test
+  void countBookRelationsByUserId_shouldUseUserIndex() {
+    userRepository.countBookRelationsByUserId(USER_ID);
+
+    assertPlan(explain(0, USER_ID), null, POINT_LOOKUP_BUDGET);
+  }
+
+  @Test
+  void existsByIdAndBooksId_shouldUseUniqueRelationIndex() {
+    userRepository.existsByIdAndBooksId(USER_ID, BOOK_ID);
+
+    assertPlan(explain(0, USER_ID, BOOK_ID, 1), "UQ_USERS_BOOKS", POINT_LOOKUP_BUDGET);
+  }
+
+  @Test
+  void findRelatedBookIds_shouldUseUniqueRelationIndex() {
+    userRepository.findRelatedBookIds(USER_ID, List.of(BOOK_ID, OTHER_BOOK_ID));
+
+    assertPlan(explain(0, USER_ID, BOOK_ID, OTHER_BOOK_ID), "UQ_USERS_BOOKS", POINT_LOOKUP_BUDGET);
+  }
+
+  @Test
+  void findUsersByName_shouldSeekToCursorInNameIndex() {
+    userRepository.findUsersByName(MIDDLE_USER_NAME, MIDDLE_USER_ID, PAGE_SIZE + 1);
+
+    assertPlan(
+        explain(0, MIDDLE_USER_NAME, MIDDLE_USER_ID, PAGE_SIZE + 1),
+        "USERS_NAME_ID_IDX",
+        PAGE_SIZE + POINT_LOOKUP_BUDGET);
+  }
+
+  @Test
+  void findUsersByMembershipDate_shouldReadFirstPageFromMembershipDateIndex() {
+    userRepository.findUsersByMembershipDate(
+        MEMBERSHIP_DATE, MEMBERSHIP_DATE, null, null, PAGE_SIZE + 1);
+
+    assertPlan(
+        explain(0, MEMBERSHIP_DATE, MEMBERSHIP_DATE, PAGE_SIZE + 1),
+        "USERS_MEMBERSHIP_DATE_ID_IDX",
+        PAGE_SIZE + POINT_LOOKUP_BUDGET);
+  }
+
+  @Test
+  void findIdsWithBorrowedCountDrift_shouldReadEachUserOnce() {
+    userRepository.findIdsWithBorrowedCountDrift();
+
+    assertBatchPlan(explain(0), USERS + 2 * BORROWED_BOOKS);
+  }
+
+  private String explain(int statementIndex, Object... parameters) {
+    String sql = statementInspector.statements.get(statementIndex);
+    return String.join(
+        "\n", jdbcTemplate.queryForList("EXPLAIN ANALYZE " + sql, String.class, parameters));
+  }
+
+  private void assertPlan(String plan, String expectedIndex, long scanCountBudget) {
+    assertFalse(plan.contains(TABLE_SCAN), () -> "Table scan in the plan:\n" + plan);
+
+    if (expectedIndex != null) {
+      assertTrue(
+          plan.contains("PUBLIC." + expectedIndex),
+          () -> expectedIndex + " is not used by the plan:\n" + plan);
+    }
+    long scanCount = scanCount(plan);
+    assertTrue(
+        scanCount <= scanCountBudget,
+        () -> "Scan count %d exceeds %d:\n%s".formatted(scanCount, scanCountBudget, plan));
+  }
+
+  /**
+   * Drift queries of the reconciliation read every row by design, only the budget is checked for
+   * them to catch a relation count that stops using an index.
+   */
+  private void assertBatchPlan(String plan, long scanCountBudget) {
+    long scanCount = scanCount(plan);
+    assertTrue(
+        scanCount <= scanCountBudget,
+        () -> "Scan count %d exceeds %d:\n%s".formatted(scanCount, scanCountBudget, plan));
+  }
+
+  private long scanCount(String plan) {
+    Matcher matcher = SCAN_COUNT.matcher(plan);
+    long scanCount = 0;
+
+    while (matcher.find()) {
+      scanCount += Long.parseLong(matcher.group(1));
+    }
+    return scanCount;
+  }
+
+  static class RecordingStatementInspector implements StatementInspector {
+
+    private final List<String> statements = new ArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+      statements.add(sql);
+      return sql;
+    }
+
+    void clear() {
+      statements.clear();
+    }
+  }
+
+  @TestConfiguration
+  static class StatementInspectorConfig {
+
+    @Bean
+    RecordingStatementInspector recordingStatementInspector() {
+      return new RecordingStatementInspector();
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer statementInspectorCustomizer(
+        RecordingStatementInspector statementInspector) {
+      return properties ->
+          properties.put("hibernate.session_factory.statement_inspector", statementInspector);
+    }
+  }
+}
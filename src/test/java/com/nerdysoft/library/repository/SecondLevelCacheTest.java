@@ -0,0 +1,207 @@
+package com.nerdysoft.library.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.nerdysoft.library.repository.entity.Book;
+import com.nerdysoft.library.service.BookService;
+import com.nerdysoft.library.service.UserService;
+import com.nerdysoft.library.service.dto.BookDto;
+import com.nerdysoft.library.service.dto.UserDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.UUID;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Test data scripts change rows behind Hibernate, so the second-level cache is cleared before each
+ * test. Each repository call runs in its own transaction, the way services call repositories.
+ */
+@SpringBootTest(
+    properties = {
+      "application.cache.second-level.enabled=true",
+      "logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=warn"
+    })
+@Sql(scripts = "/db/test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class SecondLevelCacheTest {
+
+  private static final UUID BOOK_ID = UUID.fromString("42d3f123-dd2f-4a10-a182-6506edd9d355");
+  private static final UUID OTHER_BOOK_ID = UUID.fromString("2decc0bd-9730-4145-b18e-94029dfb961f");
+  private static final UUID USER_ID = UUID.fromString("f0d9bdfc-38e7-4a34-b07f-8216574efbb5");
+  private static final UUID OTHER_USER_ID = UUID.fromString("ccc5848f-b32f-44b5-86f1-b51aac112be0");
+  private static final String USER_NAME = "John Doe";
+  private static final String BOOK_REGION = "book";
+  private static final String USER_REGION = "user";
+  private static final String USER_BOOKS_REGION = "user-books";
+
+  @Autowired private BookRepository bookRepository;
+  @Autowired private UserRepository userRepository;
+  @Autowired private BookService bookService;
+  @Autowired private UserService userService;
+  @Autowired private TransactionTemplate transactionTemplate;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+  @Autowired private MeterRegistry meterRegistry;
+
+  @BeforeEach
+  void clearCache() {
+    entityManagerFactory.getCache().evictAll();
+  }
+
+  @Test
+  void findById_shouldReadCache_whenBookWasLoadedBefore() {
+    long hitCount = regionStatistics(BOOK_REGION).getHitCount();
+
+    Book loadedBook = transactionTemplate.execute(status -> bookRepository.findById(BOOK_ID).get());
+    Book cachedBook = transactionTemplate.execute(status -> bookRepository.findById(BOOK_ID).get());
+
+    assertEquals(loadedBook, cachedBook);
+    assertEquals(hitCount + 1, regionStatistics(BOOK_REGION).getHitCount());
+    assertNotNull(
+        meterRegistry
+            .find("hibernate.second.level.cache.requests")
+            .tag("region", BOOK_REGION)
+            .tag("result", "hit")
+            .functionCounter());
+  }
+
+  @Test
+  void decreaseAmountByOneIfAvailable_shouldEvictOnlyBooks_whenBookIsCached() {
+    Book book = transactionTemplate.execute(status -> bookRepository.findById(BOOK_ID).get());
+    transactionTemplate.executeWithoutResult(status -> userRepository.findById(USER_ID));
+    long userHitCount = regionStatistics(USER_REGION).getHitCount();
+
+    transactionTemplate.executeWithoutResult(
+        status -> bookRepository.decreaseAmountByOneIfAvailable(BOOK_ID));
+    Book updatedBook =
+        transactionTemplate.execute(status -> bookRepository.findById(BOOK_ID).get());
+    transactionTemplate.executeWithoutResult(status -> userRepository.findById(USER_ID));
+
+    assertEquals(book.getAmount() - 1, updatedBook.getAmount());
+    assertEquals(book.getVersion() + 1, updatedBook.getVersion());
+    assertEquals(userHitCount + 1, regionStatistics(USER_REGION).getHitCount());
+  }
+
+  @Test
+  void decreaseAmountByOneIfAvailable_shouldKeepOtherBooksCached_whenBookIsBorrowed() {
+    transactionTemplate.executeWithoutResult(status -> bookRepository.findById(OTHER_BOOK_ID));
+    long hitCount = regionStatistics(BOOK_REGION).getHitCount();
+
+    transactionTemplate.executeWithoutResult(
+        status -> bookRepository.decreaseAmountByOneIfAvailable(BOOK_ID));
+    transactionTemplate.executeWithoutResult(status -> bookRepository.findById(OTHER_BOOK_ID));
+
+    assertEquals(hitCount + 1, regionStatistics(BOOK_REGION).getHitCount());
+  }
+
+  @Test
+  void createUserBookRelation_shouldKeepBooksOfOtherUsersCached_whenRelationIsCreated() {
+    transactionTemplate.executeWithoutResult(
+        status -> userRepository.findById(OTHER_USER_ID).get().getBooks().size());
+    long hitCount = regionStatistics(USER_BOOKS_REGION).getHitCount();
+
+    transactionTemplate.executeWithoutResult(
+        status -> userRepository.createUserBookRelation(UUID.randomUUID(), USER_ID, BOOK_ID));
+    transactionTemplate.executeWithoutResult(
+        status -> userRepository.findById(OTHER_USER_ID).get().getBooks().size());
+
+    assertEquals(hitCount + 1, regionStatistics(USER_BOOKS_REGION).getHitCount());
+  }
+
+  @Test
+  void createUserBookRelation_shouldInvalidateCachedQuery_whenBooksOfUserWereFoundBefore() {
+    int bookQuantity =
+        transactionTemplate.execute(
+            status -> bookRepository.findIdentitiesByUsersName(USER_NAME).size());
+
+    transactionTemplate.executeWithoutResult(
+        status -> userRepository.createUserBookRelation(UUID.randomUUID(), USER_ID, BOOK_ID));
+
+    int updatedBookQuantity =
+        transactionTemplate.execute(
+            status -> bookRepository.findIdentitiesByUsersName(USER_NAME).size());
+
+    assertEquals(bookQuantity + 1, updatedBookQuantity);
+  }
+
+  @Test
+  void createBooks_shouldInvalidateCachedQuery_whenBookWasNotFoundBefore() {
+    Book book = Book.builder().author("New Author").title("New Title").amount(1).build();
+    transactionTemplate.executeWithoutResult(
+        status -> bookRepository.findByAuthorAndTitle(book.getAuthor(), book.getTitle()));
+
+    transactionTemplate.executeWithoutResult(status -> bookRepository.createBooks(List.of(book)));
+
+    assertTrue(
+        transactionTemplate
+            .execute(
+                status -> bookRepository.findByAuthorAndTitle(book.getAuthor(), book.getTitle()))
+            .isPresent());
+  }
+
+  @Test
+  void createUserBookRelations_shouldEvictUserBooks_whenBooksOfUserAreCached() {
+    int bookQuantity =
+        transactionTemplate.execute(
+            status -> userRepository.findById(USER_ID).get().getBooks().size());
+
+    transactionTemplate.executeWithoutResult(
+        status -> userRepository.createUserBookRelations(USER_ID, List.of(BOOK_ID)));
+
+    int updatedBookQuantity =
+        transactionTemplate.execute(
+            status -> userRepository.findById(USER_ID).get().getBooks().size());
+
+    assertEquals(bookQuantity + 1, updatedBookQuantity);
+  }
+
+  @Test
+  void createUserBookRelation_shouldEvictUserBooks_whenBooksOfUserAreCached() {
+    int bookQuantity =
+        transactionTemplate.execute(
+            status -> userRepository.findById(USER_ID).get().getBooks().size());
+
+    transactionTemplate.executeWithoutResult(
+        status -> userRepository.createUserBookRelation(UUID.randomUUID(), USER_ID, BOOK_ID));
+    int updatedBookQuantity =
+        transactionTemplate.execute(
+            status -> userRepository.findById(USER_ID).get().getBooks().size());
+
+    assertEquals(bookQuantity + 1, updatedBookQuantity);
+  }
+
+  @Test
+  void deleteBookById_shouldDeleteBook_whenNewBookIsCached() {
+    BookDto book =
+        bookService.addBook(
+            BookDto.builder().author("New Author").title("New Title").amount(1).build());
+
+    bookService.deleteBookById(book.getId());
+
+    assertTrue(bookRepository.findById(book.getId()).isEmpty());
+  }
+
+  @Test
+  void deleteUser_shouldDeleteUser_whenNewUserIsCached() {
+    UserDto user = userService.createUser(UserDto.builder().name("New User").build());
+
+    userService.deleteUser(user.getId());
+
+    assertTrue(userRepository.findById(user.getId()).isEmpty());
+  }
+
+  private CacheRegionStatistics regionStatistics(String regionName) {
+    return entityManagerFactory
+        .unwrap(SessionFactory.class)
+        .getStatistics()
+        .getDomainDataRegionStatistics(regionName);
+  }
+}
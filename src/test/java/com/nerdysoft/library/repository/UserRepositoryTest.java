@@ -4,13 +4,20 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.nerdysoft.library.config.JpaConfig;
+import com.nerdysoft.library.repository.entity.User;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.jdbc.Sql;
 
 @DataJpaTest
+@Import(JpaConfig.class)
 @Sql(scripts = "/db/test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
 class UserRepositoryTest {
 
@@ -18,23 +25,60 @@ class UserRepositoryTest {
   private static final UUID BOOK_ID = UUID.fromString("42d3f123-dd2f-4a10-a182-6506edd9d355");
   private static final UUID BOOK_ID_RELATED_TO_USER =
       UUID.fromString("2decc0bd-9730-4145-b18e-94029dfb961f");
+  private static final UUID USER_WITHOUT_BOOKS_ID =
+      UUID.fromString("ccc5848f-b32f-44b5-86f1-b51aac112be0");
+  private static final int MAX_BOOK_QUANTITY = 10;
 
   @Autowired private UserRepository userRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
 
   @Test
   void createUserBookRelation_shouldCreateRelation_whenUserAndBookExist() {
-    userRepository.createUserBookRelation(
-        USER_ID.toString(), BOOK_ID.toString(), UUID.randomUUID().toString());
+    userRepository.createUserBookRelation(UUID.randomUUID(), USER_ID, BOOK_ID);
 
-    boolean isRelationExists = userRepository.existsByIdAndBooksId(USER_ID, BOOK_ID);
-    assertTrue(isRelationExists);
+    assertTrue(userRepository.existsByIdAndBooksId(USER_ID, BOOK_ID));
+  }
+
+  @Test
+  void increaseBorrowedCountIfBelow_shouldIncreaseCount_whenUserHasFewerBooksThanMax() {
+    int updatedUsers = userRepository.increaseBorrowedCountIfBelow(USER_ID, MAX_BOOK_QUANTITY);
+
+    assertEquals(1, updatedUsers);
+    assertEquals(Optional.of(2), userRepository.findBorrowedCountById(USER_ID));
+  }
+
+  @Test
+  void increaseBorrowedCountIfBelow_shouldNotIncreaseCount_whenUserHasMaxBookQuantity() {
+    int maxBookQuantity = 1;
+
+    int updatedUsers = userRepository.increaseBorrowedCountIfBelow(USER_ID, maxBookQuantity);
+
+    assertEquals(0, updatedUsers);
+    assertEquals(Optional.of(1), userRepository.findBorrowedCountById(USER_ID));
+  }
+
+  @Test
+  void increaseBorrowedCountIfBelow_shouldNotIncreaseCount_whenNoUserInDb() {
+    int updatedUsers =
+        userRepository.increaseBorrowedCountIfBelow(UUID.randomUUID(), MAX_BOOK_QUANTITY);
+
+    assertEquals(0, updatedUsers);
+  }
+
+  @Test
+  void findIdsWithBorrowedCountDrift_shouldReturnUserId_whenCountDiffersFromRelations() {
+    userRepository.updateBorrowedCount(USER_WITHOUT_BOOKS_ID, 3);
+
+    List<UUID> userIds = userRepository.findIdsWithBorrowedCountDrift();
+
+    assertEquals(List.of(USER_WITHOUT_BOOKS_ID), userIds);
   }
 
   @Test
   void countBookRelationsByUserId_shouldCountRelations_whenUserBookRelationsExist() {
     int expectedRelationsQuantity = 1;
 
-    int actualRelationQuantity = userRepository.countBookRelationsByUserId(USER_ID.toString());
+    int actualRelationQuantity = userRepository.countBookRelationsByUserId(USER_ID);
 
     assertEquals(expectedRelationsQuantity, actualRelationQuantity);
   }
@@ -52,4 +96,44 @@ class UserRepositoryTest {
 
     assertTrue(isRelationExist);
   }
+
+  @Test
+  void createUserBookRelations_shouldCreateRelations_whenUserAndBooksExist() {
+    userRepository.createUserBookRelations(
+        USER_WITHOUT_BOOKS_ID, List.of(BOOK_ID, BOOK_ID_RELATED_TO_USER));
+
+    assertTrue(userRepository.existsByIdAndBooksId(USER_WITHOUT_BOOKS_ID, BOOK_ID));
+    assertTrue(userRepository.existsByIdAndBooksId(USER_WITHOUT_BOOKS_ID, BOOK_ID_RELATED_TO_USER));
+  }
+
+  @Test
+  void findRelatedBookIds_shouldReturnOnlyRelatedBookIds_whenRequested() {
+    List<UUID> relatedBookIds =
+        userRepository.findRelatedBookIds(USER_ID, List.of(BOOK_ID, BOOK_ID_RELATED_TO_USER));
+
+    assertEquals(List.of(BOOK_ID_RELATED_TO_USER), relatedBookIds);
+  }
+
+  @Test
+  void keyColumns_shouldHaveUuidType_whenMigrationsAreApplied() {
+    List<String> dataTypes =
+        jdbcTemplate.queryForList(
+            """
+            SELECT DISTINCT data_type FROM information_schema.columns
+              WHERE LOWER(table_name) IN ('users', 'books', 'users_books')
+                AND (LOWER(column_name) = 'id' OR LOWER(column_name) LIKE '%\\_id' ESCAPE '\\')
+            """,
+            String.class);
+
+    assertEquals(List.of("UUID"), dataTypes);
+  }
+
+  @Test
+  void save_shouldGenerateTimeOrderedIds_whenUsersAreNew() {
+    UUID firstUserId = userRepository.save(User.builder().name("Jane Roe").build()).getId();
+    UUID secondUserId = userRepository.save(User.builder().name("Jane Doe").build()).getId();
+
+    assertEquals(7, firstUserId.version());
+    assertTrue(secondUserId.compareTo(firstUserId) > 0);
+  }
 }
@@ -0,0 +1,94 @@
+package com.nerdysoft.library.retry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.nerdysoft.library.exceptionhandler.exceptions.ConcurrentUpdateConflictException;
+import com.nerdysoft.library.repository.entity.Book;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+@ExtendWith(MockitoExtension.class)
+class OptimisticLockRetryTest {
+
+  private static final String BOOK_ID = "42d3f123-dd2f-4a10-a182-6506edd9d355";
+
+  @Mock ProceedingJoinPoint joinPoint;
+  @Mock Signature signature;
+
+  MeterRegistry meterRegistry;
+  OptimisticLockRetry optimisticLockRetry;
+
+  @BeforeEach
+  void setUp() {
+    OptimisticLockRetryProperties properties = new OptimisticLockRetryProperties();
+    properties.setInitialBackoff(Duration.ofMillis(1));
+    properties.setMaxBackoff(Duration.ofMillis(2));
+    meterRegistry = new SimpleMeterRegistry();
+    optimisticLockRetry = new OptimisticLockRetry(properties, meterRegistry);
+  }
+
+  @Test
+  void retry_shouldNotCountConflicts_whenMethodReturns() throws Throwable {
+    when(joinPoint.proceed()).thenReturn("book");
+
+    Object result = optimisticLockRetry.retry(joinPoint);
+
+    assertEquals("book", result);
+    assertNull(meterRegistry.find(OptimisticLockRetry.CONFLICT_COUNTER).counter());
+  }
+
+  @Test
+  void retry_shouldRepeatMethod_whenVersionConflictOccurs() throws Throwable {
+    when(joinPoint.getSignature()).thenReturn(signature);
+    when(signature.getName()).thenReturn("decreaseBookAmountByOne");
+    when(joinPoint.proceed()).thenThrow(conflict()).thenReturn("book");
+
+    Object result = optimisticLockRetry.retry(joinPoint);
+
+    assertEquals("book", result);
+    verify(joinPoint, times(2)).proceed();
+    assertEquals(1, count(OptimisticLockRetry.CONFLICT_COUNTER));
+    assertEquals(1, count(OptimisticLockRetry.RETRY_COUNTER));
+  }
+
+  @Test
+  void retry_shouldThrowConflict_whenAttemptsAreExhausted() throws Throwable {
+    when(joinPoint.getSignature()).thenReturn(signature);
+    when(signature.getName()).thenReturn("decreaseBookAmountByOne");
+    when(joinPoint.proceed()).thenThrow(conflict());
+
+    assertThrows(
+        ConcurrentUpdateConflictException.class, () -> optimisticLockRetry.retry(joinPoint));
+
+    verify(joinPoint, times(3)).proceed();
+    assertEquals(3, count(OptimisticLockRetry.CONFLICT_COUNTER));
+    assertEquals(2, count(OptimisticLockRetry.RETRY_COUNTER));
+    assertNull(meterRegistry.find(OptimisticLockRetry.CONFLICT_COUNTER).tagKeys("id").counter());
+  }
+
+  private ObjectOptimisticLockingFailureException conflict() {
+    return new ObjectOptimisticLockingFailureException(Book.class, BOOK_ID);
+  }
+
+  private double count(String counterName) {
+    return meterRegistry
+        .get(counterName)
+        .tags("method", "decreaseBookAmountByOne", "entity", "Book")
+        .counter()
+        .count();
+  }
+}
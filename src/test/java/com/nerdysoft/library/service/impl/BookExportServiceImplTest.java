@@ -0,0 +1,86 @@
+package com.nerdysoft.library.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nerdysoft.library.repository.BookRepository;
+import com.nerdysoft.library.repository.projection.BorrowedBook;
+import com.nerdysoft.library.service.dto.BookExportFormat;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BookExportServiceImplTest {
+
+  private static final UUID USER_ID = UUID.fromString("f0d9bdfc-38e7-4a34-b07f-8216574efbb5");
+  private static final UUID BOOK_ID = UUID.fromString("2decc0bd-9730-4145-b18e-94029dfb961f");
+  private static final BorrowedBook BORROWED_BOOK =
+      new BorrowedBook(USER_ID, "John Doe", BOOK_ID, "Effective Java, \"3rd\"", "Bloch Joshua");
+
+  @Mock private BookRepository bookRepository;
+
+  private BookExportServiceImpl bookExportService;
+
+  @BeforeEach
+  void setUp() {
+    bookExportService = new BookExportServiceImpl(bookRepository, new ObjectMapper());
+  }
+
+  @Test
+  void exportBorrowedBooks_shouldWriteQuotedCsvColumns_whenColumnsContainDelimiters() {
+    when(bookRepository.streamBorrowedBooks()).thenReturn(Stream.of(BORROWED_BOOK));
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    long writtenRows = bookExportService.exportBorrowedBooks(outputStream, BookExportFormat.CSV);
+
+    String expectedCsv =
+        "userId,userName,bookId,title,author\n"
+            + "f0d9bdfc-38e7-4a34-b07f-8216574efbb5,John Doe,2decc0bd-9730-4145-b18e-94029dfb961f,"
+            + "\"Effective Java, \"\"3rd\"\"\",Bloch Joshua\n";
+    assertEquals(1, writtenRows);
+    assertEquals(expectedCsv, outputStream.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void exportBorrowedBooks_shouldWriteJsonLines_whenFormatIsNdjson() throws Exception {
+    when(bookRepository.streamBorrowedBooks()).thenReturn(Stream.of(BORROWED_BOOK, BORROWED_BOOK));
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+    long writtenRows = bookExportService.exportBorrowedBooks(outputStream, BookExportFormat.NDJSON);
+
+    String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(2, writtenRows);
+    assertEquals(2, lines.length);
+    assertEquals(BORROWED_BOOK, new ObjectMapper().readValue(lines[1], BorrowedBook.class));
+  }
+
+  @Test
+  void exportBorrowedBooks_shouldCloseCursor_whenClientClosesConnection() {
+    AtomicBoolean isCursorClosed = new AtomicBoolean();
+    when(bookRepository.streamBorrowedBooks())
+        .thenReturn(Stream.generate(() -> BORROWED_BOOK).onClose(() -> isCursorClosed.set(true)));
+    OutputStream closedOutputStream =
+        new OutputStream() {
+          @Override
+          public void write(int b) throws IOException {
+            throw new IOException("Broken pipe");
+          }
+        };
+
+    bookExportService.exportBorrowedBooks(closedOutputStream, BookExportFormat.NDJSON);
+
+    assertTrue(isCursorClosed.get());
+  }
+}
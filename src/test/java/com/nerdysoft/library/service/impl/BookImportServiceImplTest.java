@@ -0,0 +1,154 @@
+package com.nerdysoft.library.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nerdysoft.library.repository.BookRepository;
+import com.nerdysoft.library.repository.entity.Book;
+import com.nerdysoft.library.repository.projection.BookIdentity;
+import com.nerdysoft.library.service.dto.BookImportErrorDto;
+import com.nerdysoft.library.service.dto.BookImportFormat;
+import com.nerdysoft.library.service.dto.BookImportReportDto;
+import com.nerdysoft.library.service.event.BookChangedEvent;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class BookImportServiceImplTest {
+
+  private static final UUID BOOK_ID = UUID.fromString("42d3f123-dd2f-4a10-a182-6506edd9d355");
+  private static final String AUTHOR_NAME = "Robert Martin";
+  private static final String BOOK_TITLE = "Clean Code";
+
+  private BookImportServiceImpl bookImportService;
+
+  @Mock private BookRepository bookRepository;
+
+  @Mock private TransactionTemplate transactionTemplate;
+
+  @Mock private CacheManager cacheManager;
+
+  @Mock private ApplicationEventPublisher eventPublisher;
+
+  @BeforeEach
+  void setUp() {
+    bookImportService =
+        new BookImportServiceImpl(
+            bookRepository, transactionTemplate, cacheManager, new ObjectMapper(), eventPublisher);
+    ReflectionTestUtils.setField(bookImportService, "chunkSize", 2);
+    ReflectionTestUtils.setField(bookImportService, "maxReportedErrors", 1);
+  }
+
+  @Test
+  void importBooks_shouldMergeRowsAndReportErrors_whenCsvHasDuplicatesAndNotValidRows()
+      throws Exception {
+    String csv =
+        """
+        title,author,amount
+        Clean Code,Robert Martin,1
+        "Clean Code",Robert Martin,2
+        Effective Java,Bloch Joshua,3
+        x,Bloch Joshua,1
+        Refactoring,Martin Fowler,not a number
+        """;
+    mockTransactionTemplate();
+    when(bookRepository.findByAuthorInAndTitleIn(anyCollection(), anyCollection()))
+        .thenReturn(List.of(new BookIdentity(BOOK_ID, AUTHOR_NAME, BOOK_TITLE)))
+        .thenReturn(List.of());
+
+    BookImportReportDto report = bookImportService.importBooks(toStream(csv), BookImportFormat.CSV);
+
+    assertEquals(5, report.getRowsRead());
+    assertEquals(2, report.getRowsRejected());
+    assertEquals(1, report.getErrors().size());
+    assertEquals(5, report.getErrors().get(0).getLine());
+    assertEquals(2, report.getChunks());
+    assertEquals(1, report.getBooksUpdated());
+    assertEquals(1, report.getBooksCreated());
+
+    ArgumentCaptor<Collection<Book>> increasedBooks = ArgumentCaptor.captor();
+    verify(bookRepository, times(2)).increaseBookAmounts(increasedBooks.capture());
+    Book increasedBook = increasedBooks.getAllValues().get(0).iterator().next();
+    assertEquals(BOOK_ID, increasedBook.getId());
+    assertEquals(3, increasedBook.getAmount());
+  }
+
+  @Test
+  void importBooks_shouldCreateBooks_whenNdjsonRowsAreValid() throws Exception {
+    String ndjson =
+        """
+        {"title": "Clean Code", "author": "Robert Martin", "amount": 1}
+        {"title": "Effective Java", "author": "Bloch Joshua", "amount": 2}
+        """;
+    mockTransactionTemplate();
+    when(bookRepository.findByAuthorInAndTitleIn(anyCollection(), anyCollection()))
+        .thenReturn(List.of());
+
+    BookImportReportDto report =
+        bookImportService.importBooks(toStream(ndjson), BookImportFormat.NDJSON);
+
+    assertEquals(2, report.getRowsRead());
+    assertEquals(0, report.getRowsRejected());
+    assertEquals(2, report.getBooksCreated());
+    verify(bookRepository).createBooks(anyCollection());
+    verify(eventPublisher, times(2)).publishEvent(any(BookChangedEvent.class));
+  }
+
+  @Test
+  void importBooks_shouldReportChunkAndContinue_whenChunkIsNotWritten() throws Exception {
+    String csv =
+        """
+        Clean Code,Robert Martin,1
+        Effective Java,Bloch Joshua,2
+        Refactoring,Martin Fowler,3
+        """;
+    when(transactionTemplate.execute(any()))
+        .thenThrow(new CannotAcquireLockException("Lock timeout"))
+        .thenAnswer(
+            invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    when(bookRepository.findByAuthorInAndTitleIn(anyCollection(), anyCollection()))
+        .thenReturn(List.of());
+
+    BookImportReportDto report = bookImportService.importBooks(toStream(csv), BookImportFormat.CSV);
+
+    assertEquals(3, report.getRowsRead());
+    assertEquals(1, report.getChunksFailed());
+    assertEquals(2, report.getRowsFailed());
+    assertEquals(1, report.getChunks());
+    assertEquals(1, report.getBooksCreated());
+    BookImportErrorDto error = report.getErrors().get(0);
+    assertEquals(1, error.getLine());
+    assertEquals(2, error.getLastLine());
+  }
+
+  private void mockTransactionTemplate() {
+    when(transactionTemplate.execute(any()))
+        .thenAnswer(
+            invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+  }
+
+  private InputStream toStream(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+}
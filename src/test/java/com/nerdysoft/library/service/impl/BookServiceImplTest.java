@@ -1,8 +1,14 @@
 package com.nerdysoft.library.service.impl;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -10,11 +16,17 @@ import com.nerdysoft.library.TestDataGenerator;
 import com.nerdysoft.library.exceptionhandler.exceptions.BookAmountConflictException;
 import com.nerdysoft.library.exceptionhandler.exceptions.BookNotFoundException;
 import com.nerdysoft.library.exceptionhandler.exceptions.DeleteBookConflictException;
+import com.nerdysoft.library.exceptionhandler.exceptions.InvalidCursorException;
 import com.nerdysoft.library.mapper.BookMapper;
 import com.nerdysoft.library.repository.BookRepository;
 import com.nerdysoft.library.repository.entity.Book;
+import com.nerdysoft.library.repository.projection.BookIdentity;
+import com.nerdysoft.library.repository.projection.BookSummary;
 import com.nerdysoft.library.service.dto.BookDto;
 import com.nerdysoft.library.service.dto.BookWrapper;
+import com.nerdysoft.library.service.dto.CursorPageDto;
+import com.nerdysoft.library.service.event.BookChangedEvent;
+import com.nerdysoft.library.service.event.StockChangedEvent;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -25,9 +37,12 @@ import org.mapstruct.factory.Mappers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.util.ReflectionTestUtils;
 
 @ExtendWith(MockitoExtension.class)
@@ -41,6 +56,8 @@ class BookServiceImplTest {
 
   @Mock private BookRepository bookRepository;
 
+  @Mock private ApplicationEventPublisher eventPublisher;
+
   @BeforeEach
   void setUp() {
     BookMapper bookMapper = Mappers.getMapper(BookMapper.class);
@@ -53,11 +70,13 @@ class BookServiceImplTest {
     Book book = TestDataGenerator.generateBook();
 
     when(bookRepository.findById(bookDto.getId())).thenReturn(Optional.of(book));
-    when(bookRepository.save(book)).thenReturn(book);
+    when(bookRepository.saveAndFlush(book)).thenReturn(book);
 
     BookDto updatedBookDto = bookService.updateBook(bookDto);
 
     assertEquals(bookDto, updatedBookDto);
+    BookIdentity bookIdentity = new BookIdentity(book.getId(), book.getAuthor(), book.getTitle());
+    verify(eventPublisher).publishEvent(BookChangedEvent.updated(bookIdentity, bookIdentity));
   }
 
   @Test
@@ -71,30 +90,110 @@ class BookServiceImplTest {
 
   @Test
   void getAllBorrowedBooks_shouldReturnBooks_whenRequested() {
-    Book book = TestDataGenerator.generateBook();
-    List<Book> books = List.of(book);
+    BookSummary book = toSummary(TestDataGenerator.generateBook());
+    List<BookSummary> books = List.of(book);
     int pageNumber = 1;
     int pageSize = 5;
 
     Pageable pageable = PageRequest.of(pageNumber, pageSize);
-    when(bookRepository.findAllBooksRelatedToUsers()).thenReturn(books);
+    when(bookRepository.findAllBooksRelatedToUsers(pageable))
+        .thenReturn(new PageImpl<>(books, pageable, books.size()));
 
     Page<BookDto> bookDtoPage = bookService.getAllBorrowedBooks(pageable);
     BookDto retrievedBookDto = bookDtoPage.getContent().get(0);
 
     BookDto expectedBookDto = TestDataGenerator.generateBookDto();
+    expectedBookDto.setVersion(null);
     assertEquals(expectedBookDto, retrievedBookDto);
   }
 
+  @Test
+  void searchBooks_shouldReturnFoundBooks_whenQueryIsNotBlank() {
+    Book book = TestDataGenerator.generateBook();
+    Pageable pageable = PageRequest.of(0, 5);
+    when(bookRepository.search("clean code", pageable))
+        .thenReturn(new PageImpl<>(List.of(book), pageable, 1));
+
+    Page<BookDto> bookDtoPage = bookService.searchBooks(" clean code ", pageable);
+
+    assertEquals(TestDataGenerator.generateBookDto(), bookDtoPage.getContent().get(0));
+  }
+
+  @Test
+  void searchBooks_shouldReturnEmptyPage_whenQueryIsBlank() {
+    Page<BookDto> bookDtoPage = bookService.searchBooks(" ", PageRequest.of(0, 5));
+
+    assertTrue(bookDtoPage.isEmpty());
+    verify(bookRepository, never()).search(any(), any());
+  }
+
+  @Test
+  void getBorrowedBooksAfter_shouldReturnSliceWithNext_whenMoreBooksThanSize() {
+    BookSummary book = toSummary(TestDataGenerator.generateBook());
+    BookSummary nextBook = toSummary(TestDataGenerator.generateBook());
+    int sliceSize = 1;
+
+    when(bookRepository.findBooksRelatedToUsersAfter(BOOK_ID, sliceSize + 1))
+        .thenReturn(List.of(book, nextBook));
+
+    Slice<BookDto> bookDtoSlice = bookService.getBorrowedBooksAfter(BOOK_ID, sliceSize);
+
+    assertEquals(sliceSize, bookDtoSlice.getNumberOfElements());
+    assertTrue(bookDtoSlice.hasNext());
+  }
+
+  @Test
+  void getBorrowedBooksAfter_shouldReturnLastSlice_whenNoMoreBooks() {
+    BookSummary book = toSummary(TestDataGenerator.generateBook());
+    int sliceSize = 5;
+
+    when(bookRepository.findBooksRelatedToUsersAfter(BOOK_ID, sliceSize + 1))
+        .thenReturn(List.of(book));
+
+    Slice<BookDto> bookDtoSlice = bookService.getBorrowedBooksAfter(BOOK_ID, sliceSize);
+
+    assertEquals(1, bookDtoSlice.getNumberOfElements());
+    assertFalse(bookDtoSlice.hasNext());
+  }
+
+  @Test
+  void getBooks_shouldReturnCursorOfLastBook_whenMoreBooksThanSize() {
+    Book book = TestDataGenerator.generateBook();
+    Book nextBook = TestDataGenerator.generateBook();
+    int pageSize = 1;
+
+    when(bookRepository.findBooks(null, true, null, null, pageSize + 1))
+        .thenReturn(List.of(book, nextBook));
+    when(bookRepository.findBooks(null, true, book.getTitle(), book.getId(), pageSize + 1))
+        .thenReturn(List.of(nextBook));
+
+    CursorPageDto<BookDto> firstPage = bookService.getBooks(null, true, null, pageSize);
+    CursorPageDto<BookDto> lastPage =
+        bookService.getBooks(null, true, firstPage.getNextCursor(), pageSize);
+
+    assertEquals(pageSize, firstPage.getContent().size());
+    assertNotNull(firstPage.getNextCursor());
+    assertEquals(1, lastPage.getContent().size());
+    assertNull(lastPage.getNextCursor());
+  }
+
+  @Test
+  void getBooks_shouldThrowException_whenCursorIsNotValid() {
+    assertThrows(InvalidCursorException.class, () -> bookService.getBooks(null, null, "@", 20));
+    verify(bookRepository, never()).findBooks(any(), any(), any(), any(), anyInt());
+  }
+
   @Test
   void getBooksBorrowedByUser_shouldReturnBooks_whenBorrowedBooksAreInDb() {
     Book book = TestDataGenerator.generateBook();
+    BookIdentity bookIdentity = new BookIdentity(book.getId(), book.getAuthor(), book.getTitle());
 
-    when(bookRepository.findByUsersName(USER_NAME)).thenReturn(List.of(book));
+    when(bookRepository.findIdentitiesByUsersName(USER_NAME)).thenReturn(List.of(bookIdentity));
     BookWrapper actualBookWrapper = bookService.getBooksBorrowedByUser(USER_NAME);
 
     BookDto expectedBookDto = TestDataGenerator.generateBookDto();
     expectedBookDto.setAmount(null);
+    expectedBookDto.setVersion(null);
     BookWrapper expectedBookWrapper =
         BookWrapper.builder().userName(USER_NAME).books(List.of(expectedBookDto)).build();
 
@@ -103,7 +202,7 @@ class BookServiceImplTest {
 
   @Test
   void getBooksBorrowedByUser_shouldThrowException_whenNoBorrowedBooks() {
-    when(bookRepository.findByUsersName(USER_NAME)).thenReturn(List.of());
+    when(bookRepository.findIdentitiesByUsersName(USER_NAME)).thenReturn(List.of());
 
     assertThrows(BookNotFoundException.class, () -> bookService.getBooksBorrowedByUser(USER_NAME));
   }
@@ -120,6 +219,7 @@ class BookServiceImplTest {
     BookDto updatedBook = bookService.decreaseBookAmountByOne(BOOK_ID);
 
     verifyBook(expectedBookDto, updatedBook);
+    verify(eventPublisher).publishEvent(StockChangedEvent.removed(BOOK_ID, 1));
   }
 
   @Test
@@ -156,17 +256,20 @@ class BookServiceImplTest {
   void deleteBookById_shouldDeleteBook_whenBookIsInDb() {
     Book book = TestDataGenerator.generateBook();
 
-    when(bookRepository.isBookRelatedToAnyUser(book.getId().toString())).thenReturn(false);
     when(bookRepository.findById(book.getId())).thenReturn(Optional.of(book));
 
     bookService.deleteBookById(book.getId());
 
     verify(bookRepository).delete(book);
+    verify(eventPublisher)
+        .publishEvent(
+            BookChangedEvent.deleted(
+                new BookIdentity(book.getId(), book.getAuthor(), book.getTitle())));
+    verify(eventPublisher).publishEvent(StockChangedEvent.deleted(book.getId(), book.getAmount()));
   }
 
   @Test
   void deleteBookById_shouldThrowException_whenNoBookInDb() {
-    when(bookRepository.isBookRelatedToAnyUser(BOOK_ID.toString())).thenReturn(false);
     when(bookRepository.findById(BOOK_ID)).thenReturn(Optional.empty());
 
     assertThrows(BookNotFoundException.class, () -> bookService.deleteBookById(BOOK_ID));
@@ -174,7 +277,10 @@ class BookServiceImplTest {
 
   @Test
   void deleteBookById_shouldThrowException_whenBookIsBorrowed() {
-    when(bookRepository.isBookRelatedToAnyUser(BOOK_ID.toString())).thenReturn(true);
+    Book book = TestDataGenerator.generateBook();
+    book.setBorrowedCopies(1);
+
+    when(bookRepository.findById(BOOK_ID)).thenReturn(Optional.of(book));
 
     assertThrows(DeleteBookConflictException.class, () -> bookService.deleteBookById(BOOK_ID));
   }
@@ -187,11 +293,14 @@ class BookServiceImplTest {
     when(bookRepository.findByAuthorAndTitle(bookDto.getAuthor(), bookDto.getTitle()))
         .thenReturn(Optional.of(book));
     when(bookRepository.save(any(Book.class))).thenReturn(book);
+    int addedAmount = bookDto.getAmount();
 
     BookDto addedBook = bookService.addBook(bookDto);
 
     bookDto.setAmount(EXPECTED_BOOKS_AMOUNT);
     verifyBook(bookDto, addedBook);
+    verify(eventPublisher, never()).publishEvent(any(BookChangedEvent.class));
+    verify(eventPublisher).publishEvent(StockChangedEvent.added(book.getId(), addedAmount));
   }
 
   @Test
@@ -206,6 +315,10 @@ class BookServiceImplTest {
     BookDto addedBook = bookService.addBook(bookDto);
 
     verifyBook(bookDto, addedBook);
+    verify(eventPublisher)
+        .publishEvent(
+            BookChangedEvent.created(
+                new BookIdentity(book.getId(), book.getAuthor(), book.getTitle())));
   }
 
   private void verifyBook(BookDto expectedBook, BookDto actualBook) {
@@ -214,4 +327,8 @@ class BookServiceImplTest {
     assertEquals(expectedBook.getAuthor(), actualBook.getAuthor());
     assertEquals(expectedBook.getAmount(), actualBook.getAmount());
   }
+
+  private BookSummary toSummary(Book book) {
+    return new BookSummary(book.getId(), book.getTitle(), book.getAuthor(), book.getAmount());
+  }
 }
@@ -0,0 +1,150 @@
+package com.nerdysoft.library.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+import com.nerdysoft.library.config.BookSuggestionProperties;
+import com.nerdysoft.library.repository.BookRepository;
+import com.nerdysoft.library.repository.projection.BookIdentity;
+import com.nerdysoft.library.service.dto.BookSuggestionsDto;
+import com.nerdysoft.library.service.event.BookChangedEvent;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+@ExtendWith(MockitoExtension.class)
+class BookSuggestionServiceImplTest {
+
+  private static final BookIdentity CLEAN_CODE =
+      new BookIdentity(
+          UUID.fromString("42d3f123-dd2f-4a10-a182-6506edd9d355"), "Robert Martin", "Clean Code");
+  private static final BookIdentity CLEAN_ARCHITECTURE =
+      new BookIdentity(
+          UUID.fromString("42d3f123-dd2f-4a10-a182-6506edd9d356"),
+          "Robert Martin",
+          "Clean Architecture");
+  private static final BookIdentity EFFECTIVE_JAVA =
+      new BookIdentity(
+          UUID.fromString("2decc0bd-9730-4145-b18e-94029dfb961f"),
+          "Bloch Joshua",
+          "Effective Java");
+
+  private static final UUID LOWEST_ID = new UUID(0, 0);
+  private static final UUID HIGHEST_ID = new UUID(-1L, -1L);
+
+  @Mock private BookRepository bookRepository;
+
+  private BookSuggestionServiceImpl bookSuggestionService;
+
+  @BeforeEach
+  void setUp() {
+    BookSuggestionProperties properties = new BookSuggestionProperties();
+    properties.setMaxResults(5);
+    properties.setLoadThreads(2);
+    properties.setLoadChunkSize(1);
+    bookSuggestionService = new BookSuggestionServiceImpl(bookRepository, properties);
+    lenient().when(bookRepository.findIdentitiesBetween(any(), any(), any())).thenReturn(List.of());
+  }
+
+  @Test
+  void loadSuggestions_shouldReadBooksByChunks_whenBooksAreInDb() {
+    when(bookRepository.findIdentitiesBetween(LOWEST_ID, HIGHEST_ID, Limit.of(1)))
+        .thenReturn(List.of(EFFECTIVE_JAVA));
+    when(bookRepository.findIdentitiesBetween(
+            UUID.fromString("2decc0bd-9730-4145-b18e-94029dfb9620"), HIGHEST_ID, Limit.of(1)))
+        .thenReturn(List.of(CLEAN_CODE));
+    when(bookRepository.findIdentitiesBetween(
+            UUID.fromString("42d3f123-dd2f-4a10-a182-6506edd9d356"), HIGHEST_ID, Limit.of(1)))
+        .thenReturn(List.of(CLEAN_ARCHITECTURE));
+
+    bookSuggestionService.loadSuggestions();
+
+    BookSuggestionsDto suggestions = bookSuggestionService.suggest("clean", null);
+    assertEquals(List.of("Clean Architecture", "Clean Code"), suggestions.getTitles());
+    assertEquals(List.of("Bloch Joshua"), bookSuggestionService.suggest("b", null).getAuthors());
+  }
+
+  @Test
+  void loadSuggestions_shouldKeepChange_whenReadBookIsChangedDuringLoad() {
+    BookIdentity updatedBook =
+        new BookIdentity(EFFECTIVE_JAVA.id(), EFFECTIVE_JAVA.author(), "Effective Java 3rd");
+    when(bookRepository.findIdentitiesBetween(LOWEST_ID, HIGHEST_ID, Limit.of(1)))
+        .thenReturn(List.of(EFFECTIVE_JAVA));
+    when(bookRepository.findIdentitiesBetween(
+            UUID.fromString("2decc0bd-9730-4145-b18e-94029dfb9620"), HIGHEST_ID, Limit.of(1)))
+        .thenAnswer(
+            invocation -> {
+              commit(BookChangedEvent.updated(EFFECTIVE_JAVA, updatedBook));
+              return List.of(CLEAN_CODE);
+            });
+
+    bookSuggestionService.loadSuggestions();
+
+    assertEquals(
+        List.of("Effective Java 3rd"),
+        bookSuggestionService.suggest("effective", null).getTitles());
+  }
+
+  @Test
+  void loadSuggestions_shouldNotReplayChange_whenChunkIsReadAfterChange() {
+    when(bookRepository.findIdentitiesBetween(LOWEST_ID, HIGHEST_ID, Limit.of(1)))
+        .thenReturn(List.of(EFFECTIVE_JAVA));
+    when(bookRepository.findIdentitiesBetween(
+            UUID.fromString("2decc0bd-9730-4145-b18e-94029dfb9620"), HIGHEST_ID, Limit.of(1)))
+        .thenAnswer(
+            invocation -> {
+              commit(BookChangedEvent.deleted(CLEAN_CODE));
+              return List.of(CLEAN_ARCHITECTURE);
+            });
+
+    bookSuggestionService.loadSuggestions();
+
+    BookSuggestionsDto suggestions = bookSuggestionService.suggest("r", null);
+    assertEquals(List.of("Robert Martin"), suggestions.getAuthors());
+    assertEquals(
+        List.of("Clean Architecture"), bookSuggestionService.suggest("clean", null).getTitles());
+  }
+
+  @Test
+  void onBookChanged_shouldReplaceSuggestions_whenBookIsUpdated() {
+    bookSuggestionService.onBookChanged(BookChangedEvent.created(CLEAN_CODE));
+    BookIdentity updatedBook =
+        new BookIdentity(CLEAN_CODE.id(), CLEAN_CODE.author(), "Clean Coder");
+
+    bookSuggestionService.onBookChanged(BookChangedEvent.updated(CLEAN_CODE, updatedBook));
+
+    assertEquals(List.of("Clean Coder"), bookSuggestionService.suggest("clean", null).getTitles());
+  }
+
+  @Test
+  void onBookChanged_shouldKeepSharedAuthor_whenOneOfAuthorBooksIsDeleted() {
+    bookSuggestionService.onBookChanged(BookChangedEvent.created(CLEAN_CODE));
+    bookSuggestionService.onBookChanged(BookChangedEvent.created(CLEAN_ARCHITECTURE));
+
+    bookSuggestionService.onBookChanged(BookChangedEvent.deleted(CLEAN_CODE));
+
+    BookSuggestionsDto suggestions = bookSuggestionService.suggest("r", null);
+    assertEquals(List.of("Robert Martin"), suggestions.getAuthors());
+  }
+
+  @Test
+  void suggest_shouldLimitSuggestions_whenLimitIsGreaterThanMaximum() {
+    bookSuggestionService.onBookChanged(BookChangedEvent.created(CLEAN_CODE));
+    bookSuggestionService.onBookChanged(BookChangedEvent.created(CLEAN_ARCHITECTURE));
+
+    assertEquals(1, bookSuggestionService.suggest("clean", 1).getTitles().size());
+    assertEquals(2, bookSuggestionService.suggest("clean", 100).getTitles().size());
+  }
+
+  private void commit(BookChangedEvent event) {
+    bookSuggestionService.onBookChanging(event);
+    bookSuggestionService.onBookChanged(event);
+  }
+}
@@ -0,0 +1,229 @@
+package com.nerdysoft.library.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.nerdysoft.library.repository.BookRepository;
+import com.nerdysoft.library.repository.UserRepository;
+import com.nerdysoft.library.repository.entity.Book;
+import com.nerdysoft.library.repository.entity.User;
+import com.nerdysoft.library.service.BookImportService;
+import com.nerdysoft.library.service.UserService;
+import com.nerdysoft.library.service.dto.BookBorrowingDto;
+import com.nerdysoft.library.service.dto.BookImportFormat;
+import com.nerdysoft.library.service.dto.BookImportReportDto;
+import com.nerdysoft.library.service.dto.BorrowingStatus;
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Counts statement executions sent through the data source, a JDBC batch is counted as one
+ * execution. Batch and chunk sizes are the production ones, so the counts are what a database gets
+ * in production.
+ */
+@SpringBootTest(
+    properties = {"application.jdbc.batch-size=500", "application.book-import.chunk-size=5000"})
+@Sql(scripts = "/db/test-data.sql", executionPhase = Sql.ExecutionPhase.BEFORE_TEST_METHOD)
+class BulkWriteIntegrationTest {
+
+  private static final UUID USER_ID_WITHOUT_BOOKS =
+      UUID.fromString("ccc5848f-b32f-44b5-86f1-b51aac112be0");
+  private static final int IMPORTED_BOOK_QUANTITY = 1000;
+  private static final int BORROWED_BOOK_QUANTITY = 10;
+  private static final int ENTITY_QUANTITY = 40;
+
+  @Autowired private BookImportService bookImportService;
+  @Autowired private UserService userService;
+  @Autowired private BookRepository bookRepository;
+  @Autowired private UserRepository userRepository;
+  @Autowired private TransactionTemplate transactionTemplate;
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private DataSource dataSource;
+
+  private StatementCountingDataSource statementCounter;
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    statementCounter = dataSource.unwrap(StatementCountingDataSource.class);
+  }
+
+  @Test
+  void importBooks_shouldSendFewStatements_whenThousandBooksAreImported() throws Exception {
+    String csv =
+        IntStream.range(0, IMPORTED_BOOK_QUANTITY)
+            .mapToObj(i -> "Title %d,Author Name,1".formatted(i))
+            .collect(Collectors.joining("\n"));
+    statementCounter.reset();
+
+    BookImportReportDto report =
+        bookImportService.importBooks(
+            new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), BookImportFormat.CSV);
+
+    assertEquals(IMPORTED_BOOK_QUANTITY, report.getBooksCreated());
+    // a lookup of existing books and two insert batches of 500 rows
+    assertEquals(3, statementCounter.getExecutions());
+  }
+
+  @Test
+  void borrowBooksByUser_shouldSendFewStatements_whenTenBooksAreBorrowed() {
+    List<UUID> bookIds = new ArrayList<>();
+
+    for (int i = 0; i < BORROWED_BOOK_QUANTITY; i++) {
+      UUID bookId = UUID.randomUUID();
+      jdbcTemplate.update(
+          "INSERT INTO books (id, title, author, amount) VALUES (?, ?, 'Author Name', 1)",
+          bookId,
+          "Title " + i);
+      bookIds.add(bookId);
+    }
+    statementCounter.reset();
+
+    List<BookBorrowingDto> borrowings =
+        userService.borrowBooksByUser(USER_ID_WITHOUT_BOOKS, bookIds);
+
+    assertEquals(
+        BORROWED_BOOK_QUANTITY,
+        borrowings.stream()
+            .filter(borrowing -> borrowing.getStatus() == BorrowingStatus.BORROWED)
+            .count());
+    // three lookups, a batch of relations and two updates of amounts and a borrowed count
+    assertEquals(6, statementCounter.getExecutions());
+  }
+
+  @Test
+  void saveAll_shouldInsertByOneBatch_whenSeveralUsersAreSaved() {
+    List<User> users =
+        IntStream.range(0, ENTITY_QUANTITY)
+            .mapToObj(i -> User.builder().name("User Name").build())
+            .toList();
+    statementCounter.reset();
+
+    transactionTemplate.executeWithoutResult(status -> userRepository.saveAll(users));
+
+    assertEquals(1, statementCounter.getExecutions());
+  }
+
+  @Test
+  void saveAll_shouldUpdateByOneBatch_whenSeveralBooksAreChanged() {
+    List<Book> books =
+        IntStream.range(0, ENTITY_QUANTITY)
+            .mapToObj(
+                i -> Book.builder().title("Title " + i).author("Author Name").amount(1).build())
+            .toList();
+    List<UUID> bookIds =
+        transactionTemplate.execute(
+            status -> bookRepository.saveAll(books).stream().map(Book::getId).toList());
+    statementCounter.reset();
+
+    transactionTemplate.executeWithoutResult(
+        status -> bookRepository.findAllById(bookIds).forEach(book -> book.setAmount(2)));
+
+    // a lookup of books and one update batch
+    assertEquals(2, statementCounter.getExecutions());
+  }
+
+  @TestConfiguration
+  static class StatementCountingConfig {
+
+    @Bean
+    static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+      return new BeanPostProcessor() {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+          return bean instanceof DataSource dataSource
+                  && !(bean instanceof StatementCountingDataSource)
+              ? new StatementCountingDataSource(dataSource)
+              : bean;
+        }
+      };
+    }
+  }
+
+  static class StatementCountingDataSource extends DelegatingDataSource {
+
+    private static final String EXECUTE = "execute";
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    StatementCountingDataSource(DataSource dataSource) {
+      super(dataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      return countExecutions(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+      return countExecutions(super.getConnection(username, password));
+    }
+
+    int getExecutions() {
+      return executions.get();
+    }
+
+    void reset() {
+      executions.set(0);
+    }
+
+    private Connection countExecutions(Connection connection) {
+      return (Connection)
+          Proxy.newProxyInstance(
+              getClass().getClassLoader(),
+              new Class<?>[] {Connection.class},
+              (proxy, method, args) -> {
+                Object result = invoke(connection, method, args);
+
+                if (result instanceof Statement statement) {
+                  return countExecutions(statement, method.getReturnType());
+                }
+                return result;
+              });
+    }
+
+    private Object countExecutions(Statement statement, Class<?> statementType) {
+      return Proxy.newProxyInstance(
+          getClass().getClassLoader(),
+          new Class<?>[] {statementType},
+          (proxy, method, args) -> {
+            if (method.getName().startsWith(EXECUTE)) {
+              executions.incrementAndGet();
+            }
+            return invoke(statement, method, args);
+          });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+  }
+}
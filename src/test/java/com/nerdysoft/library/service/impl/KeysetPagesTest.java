@@ -0,0 +1,49 @@
+package com.nerdysoft.library.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.nerdysoft.library.exceptionhandler.exceptions.InvalidCursorException;
+import com.nerdysoft.library.service.impl.KeysetPages.Cursor;
+import java.time.LocalDate;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class KeysetPagesTest {
+
+  private static final UUID ID = UUID.fromString("42d3f123-dd2f-4a10-a182-6506edd9d355");
+
+  @Test
+  void decode_shouldReturnEncodedCursor_whenKeyContainsSeparators() {
+    Cursor<String> cursor = new Cursor<>("title", "Clean\nCode, 2nd édition", ID);
+
+    String token = KeysetPages.encode(cursor);
+
+    assertEquals(cursor, KeysetPages.decode(token, "title", String::valueOf));
+  }
+
+  @Test
+  void decode_shouldThrowException_whenCursorBelongsToAnotherSortKey() {
+    String token = KeysetPages.encode(new Cursor<>("name", "John Doe", ID));
+
+    assertThrows(
+        InvalidCursorException.class,
+        () -> KeysetPages.decode(token, "membershipDate", LocalDate::parse));
+  }
+
+  @Test
+  void decode_shouldThrowException_whenKeyCannotBeParsed() {
+    String token = KeysetPages.encode(new Cursor<>("membershipDate", "2024-13-01", ID));
+
+    assertThrows(
+        InvalidCursorException.class,
+        () -> KeysetPages.decode(token, "membershipDate", LocalDate::parse));
+  }
+
+  @Test
+  void limitPageSize_shouldKeepSizeBetweenOneAndMaximum() {
+    assertEquals(1, KeysetPages.limitPageSize(0));
+    assertEquals(20, KeysetPages.limitPageSize(20));
+    assertEquals(KeysetPages.MAX_PAGE_SIZE, KeysetPages.limitPageSize(10000));
+  }
+}
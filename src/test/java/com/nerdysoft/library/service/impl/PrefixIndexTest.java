@@ -0,0 +1,61 @@
+package com.nerdysoft.library.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PrefixIndexTest {
+
+  private PrefixIndex prefixIndex;
+
+  @BeforeEach
+  void setUp() {
+    prefixIndex = new PrefixIndex();
+    prefixIndex.add("Clean Code");
+    prefixIndex.add("Clean Architecture");
+    prefixIndex.add("Code Complete");
+    prefixIndex.add("Émile");
+  }
+
+  @Test
+  void find_shouldReturnTextsInAlphabeticalOrder_whenTextsStartWithPrefix() {
+    assertEquals(List.of("Clean Architecture", "Clean Code"), prefixIndex.find("clean", 10));
+  }
+
+  @Test
+  void find_shouldIgnoreCaseDiacriticsAndRepeatedSpaces_whenPrefixIsNormalized() {
+    assertEquals(List.of("Clean Code"), prefixIndex.find("  CLEAN   co", 10));
+    assertEquals(List.of("Émile"), prefixIndex.find("emi", 10));
+  }
+
+  @Test
+  void find_shouldReturnLimitedTexts_whenMoreTextsMatchPrefix() {
+    assertEquals(List.of("Clean Architecture"), prefixIndex.find("c", 1));
+  }
+
+  @Test
+  void find_shouldReturnEmptyList_whenPrefixIsBlank() {
+    assertTrue(prefixIndex.find(" ", 10).isEmpty());
+  }
+
+  @Test
+  void find_shouldReturnTextOnce_whenTextsDifferInCaseOnly() {
+    prefixIndex.add("CLEAN CODE");
+
+    assertEquals(List.of("Clean Architecture", "CLEAN CODE"), prefixIndex.find("clean", 10));
+  }
+
+  @Test
+  void remove_shouldKeepText_whenTextWasAddedMoreTimes() {
+    prefixIndex.add("Clean Code");
+
+    prefixIndex.remove("Clean Code");
+    assertEquals(List.of("Clean Code"), prefixIndex.find("clean c", 10));
+
+    prefixIndex.remove("Clean Code");
+    assertTrue(prefixIndex.find("clean c", 10).isEmpty());
+  }
+}
@@ -0,0 +1,93 @@
+package com.nerdysoft.library.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.nerdysoft.library.TestDataGenerator;
+import com.nerdysoft.library.repository.BookRepository;
+import com.nerdysoft.library.repository.UserRepository;
+import com.nerdysoft.library.repository.entity.Book;
+import com.nerdysoft.library.repository.entity.User;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class ReconciliationServiceImplTest {
+
+  private static final UUID USER_ID = UUID.fromString("f0d9bdfc-38e7-4a34-b07f-8216574efbb5");
+  private static final UUID BOOK_ID = UUID.fromString("42d3f123-dd2f-4a10-a182-6506edd9d355");
+
+  @InjectMocks private ReconciliationServiceImpl reconciliationService;
+
+  @Mock private UserRepository userRepository;
+
+  @Mock private BookRepository bookRepository;
+
+  @Mock private TransactionTemplate transactionTemplate;
+
+  @BeforeEach
+  void setUp() {
+    when(transactionTemplate.execute(any()))
+        .thenAnswer(
+            invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+  }
+
+  @Test
+  void reconcileBorrowedCounts_shouldRepairCount_whenCountDiffersFromRelations() {
+    User user = TestDataGenerator.generateUser();
+    user.setBorrowedCount(3);
+
+    when(userRepository.findIdsWithBorrowedCountDrift()).thenReturn(List.of(USER_ID));
+    when(userRepository.findWithLockById(USER_ID)).thenReturn(Optional.of(user));
+    when(userRepository.countBookRelationsByUserId(USER_ID)).thenReturn(1);
+
+    int repairedUsers = reconciliationService.reconcileBorrowedCounts();
+
+    assertEquals(1, repairedUsers);
+    verify(userRepository).updateBorrowedCount(USER_ID, 1);
+  }
+
+  @Test
+  void reconcileBorrowedCounts_shouldNotRepairCount_whenDriftDisappearedAfterLocking() {
+    User user = TestDataGenerator.generateUser();
+    user.setBorrowedCount(1);
+
+    when(userRepository.findIdsWithBorrowedCountDrift()).thenReturn(List.of(USER_ID));
+    when(userRepository.findWithLockById(USER_ID)).thenReturn(Optional.of(user));
+    when(userRepository.countBookRelationsByUserId(USER_ID)).thenReturn(1);
+
+    int repairedUsers = reconciliationService.reconcileBorrowedCounts();
+
+    assertEquals(0, repairedUsers);
+    verify(userRepository, never()).updateBorrowedCount(eq(USER_ID), anyInt());
+  }
+
+  @Test
+  void reconcileBorrowedCopies_shouldRepairCopies_whenCopiesDifferFromRelations() {
+    Book book = TestDataGenerator.generateBook();
+    book.setBorrowedCopies(2);
+
+    when(bookRepository.findIdsWithBorrowedCopiesDrift()).thenReturn(List.of(BOOK_ID));
+    when(bookRepository.findWithLockById(BOOK_ID)).thenReturn(Optional.of(book));
+    when(bookRepository.countUserRelationsByBookId(BOOK_ID)).thenReturn(0);
+
+    int repairedBooks = reconciliationService.reconcileBorrowedCopies();
+
+    assertEquals(1, repairedBooks);
+    verify(bookRepository).updateBorrowedCopies(BOOK_ID, 0);
+  }
+}
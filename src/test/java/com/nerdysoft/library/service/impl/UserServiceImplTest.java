@@ -1,22 +1,39 @@
 package com.nerdysoft.library.service.impl;
 
+import static com.nerdysoft.library.exceptionhandler.ExceptionMessages.MAX_USER_BOOKS_QUANTITY;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.nerdysoft.library.TestDataGenerator;
 import com.nerdysoft.library.exceptionhandler.exceptions.BookAmountConflictException;
+import com.nerdysoft.library.exceptionhandler.exceptions.BookNotFoundException;
+import com.nerdysoft.library.exceptionhandler.exceptions.ConcurrentUpdateConflictException;
+import com.nerdysoft.library.exceptionhandler.exceptions.InvalidCursorException;
 import com.nerdysoft.library.exceptionhandler.exceptions.UserBookRelationConflictException;
 import com.nerdysoft.library.exceptionhandler.exceptions.UserNotFoundException;
+import com.nerdysoft.library.id.TimeOrderedIdGenerator;
 import com.nerdysoft.library.mapper.UserMapper;
+import com.nerdysoft.library.repository.BookRepository;
 import com.nerdysoft.library.repository.UserRepository;
+import com.nerdysoft.library.repository.entity.Book;
 import com.nerdysoft.library.repository.entity.User;
-import com.nerdysoft.library.service.BookService;
-import com.nerdysoft.library.service.dto.BookDto;
+import com.nerdysoft.library.service.dto.BookBorrowingDto;
+import com.nerdysoft.library.service.dto.BorrowingStatus;
+import com.nerdysoft.library.service.dto.CursorPageDto;
 import com.nerdysoft.library.service.dto.UserDto;
+import com.nerdysoft.library.service.event.StockChangedEvent;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.junit.jupiter.api.BeforeEach;
@@ -27,6 +44,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.util.ReflectionTestUtils;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,19 +56,26 @@ class UserServiceImplTest {
   private static final UUID USER_ID = UUID.fromString("f0d9bdfc-38e7-4a34-b07f-8216574efbb5");
   private static final UUID NOT_EXISTING_USER_ID = UUID.randomUUID();
   private static final UUID BOOK_ID = UUID.randomUUID();
-  private static final String USER_NAME = "John Doe";
+  private static final int MAX_BOOKS_QUANTITY = 10;
 
   @InjectMocks private UserServiceImpl userService;
 
   @Mock private UserRepository userRepository;
 
-  @Mock private BookService bookService;
+  @Mock private BookRepository bookRepository;
+
+  @Mock private CacheManager cacheManager;
+
+  @Mock private Cache cache;
+
+  @Mock private ApplicationEventPublisher eventPublisher;
 
   @BeforeEach
   void setUp() {
     UserMapper userMapper = Mappers.getMapper(UserMapper.class);
     ReflectionTestUtils.setField(userService, "userMapper", userMapper);
-    ReflectionTestUtils.setField(userService, "maxBookQuantityForUser", 10);
+    ReflectionTestUtils.setField(userService, "idGenerator", new TimeOrderedIdGenerator());
+    ReflectionTestUtils.setField(userService, "maxBookQuantityForUser", MAX_BOOKS_QUANTITY);
   }
 
   @Test
@@ -56,7 +84,7 @@ class UserServiceImplTest {
     User user = TestDataGenerator.generateUser();
 
     when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
-    when(userRepository.save(user)).thenReturn(user);
+    when(userRepository.saveAndFlush(user)).thenReturn(user);
 
     UserDto updatedUser = userService.updateUser(userDto);
 
@@ -99,11 +127,9 @@ class UserServiceImplTest {
   @Test
   void deleteUser_shouldThrowException_whenUserHasBorrowedBooks() {
     User user = TestDataGenerator.generateUser();
-    int userBorrowedBook = 1;
+    user.setBorrowedCount(1);
 
     when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
-    when(userRepository.countBookRelationsByUserId(USER_ID.toString()))
-        .thenReturn(userBorrowedBook);
 
     assertThrows(UserBookRelationConflictException.class, () -> userService.deleteUser(USER_ID));
   }
@@ -117,33 +143,22 @@ class UserServiceImplTest {
 
   @Test
   void borrowBookByUser_shouldCreateUserBookRelation_whenRequested() {
-    User user = TestDataGenerator.generateUser();
-    BookDto bookDto = TestDataGenerator.generateBookDto();
-    int userBooksQuantity = 1;
-
-    when(userRepository.existsByIdAndBooksId(USER_ID, BOOK_ID)).thenReturn(false);
-    when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
-    when(bookService.getBookById(BOOK_ID)).thenReturn(bookDto);
-    when(userRepository.countBookRelationsByUserId(USER_ID.toString()))
-        .thenReturn(userBooksQuantity);
+    when(bookRepository.decreaseAmountByOneIfAvailable(BOOK_ID)).thenReturn(1);
+    when(userRepository.increaseBorrowedCountIfBelow(USER_ID, MAX_BOOKS_QUANTITY)).thenReturn(1);
 
     userService.borrowBookByUser(USER_ID, BOOK_ID);
 
-    verify(userRepository).createUserBookRelation(anyString(), anyString(), anyString());
-    verify(bookService).decreaseBookAmountByOne(BOOK_ID);
+    verify(userRepository).createUserBookRelation(any(UUID.class), eq(USER_ID), eq(BOOK_ID));
+    verify(userRepository, never()).existsByIdAndBooksId(USER_ID, BOOK_ID);
+    verify(eventPublisher).publishEvent(StockChangedEvent.borrowed(USER_ID, BOOK_ID));
   }
 
   @Test
   void borrowBookByUser_shouldThrowException_whenUserHasMaxBooksQuantity() {
-    User user = TestDataGenerator.generateUser();
-    BookDto bookDto = TestDataGenerator.generateBookDto();
-    int maxBooksQuantity = 10;
-
+    when(bookRepository.decreaseAmountByOneIfAvailable(BOOK_ID)).thenReturn(1);
+    when(userRepository.increaseBorrowedCountIfBelow(USER_ID, MAX_BOOKS_QUANTITY)).thenReturn(0);
     when(userRepository.existsByIdAndBooksId(USER_ID, BOOK_ID)).thenReturn(false);
-    when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
-    when(bookService.getBookById(BOOK_ID)).thenReturn(bookDto);
-    when(userRepository.countBookRelationsByUserId(USER_ID.toString()))
-        .thenReturn(maxBooksQuantity);
+    when(userRepository.findBorrowedCountById(USER_ID)).thenReturn(Optional.of(MAX_BOOKS_QUANTITY));
 
     assertThrows(
         UserBookRelationConflictException.class,
@@ -151,32 +166,57 @@ class UserServiceImplTest {
   }
 
   @Test
-  void borrowBookByUser_shouldThrowException_whenNoAvailableBooksInDb() {
-    User user = TestDataGenerator.generateUser();
-    BookDto bookDto = TestDataGenerator.generateBookDto();
-    bookDto.setAmount(0);
-    int userBooksQuantity = 1;
+  void borrowBookByUser_shouldReportMaxBooksQuantity_whenUserWithMaxBooksQuantityTakesLastCopy() {
+    when(bookRepository.decreaseAmountByOneIfAvailable(BOOK_ID)).thenReturn(1);
+    when(userRepository.increaseBorrowedCountIfBelow(USER_ID, MAX_BOOKS_QUANTITY)).thenReturn(0);
+    when(userRepository.existsByIdAndBooksId(USER_ID, BOOK_ID)).thenReturn(false);
+    when(userRepository.findBorrowedCountById(USER_ID)).thenReturn(Optional.of(MAX_BOOKS_QUANTITY));
 
+    UserBookRelationConflictException exception =
+        assertThrows(
+            UserBookRelationConflictException.class,
+            () -> userService.borrowBookByUser(USER_ID, BOOK_ID));
+
+    assertEquals(MAX_USER_BOOKS_QUANTITY.formatted(MAX_BOOKS_QUANTITY), exception.getMessage());
+    verify(bookRepository, never()).findById(BOOK_ID);
+    verify(bookRepository, never()).existsById(BOOK_ID);
+  }
+
+  @Test
+  void borrowBookByUser_shouldThrowException_whenNoAvailableBooksInDb() {
+    when(bookRepository.decreaseAmountByOneIfAvailable(BOOK_ID)).thenReturn(0);
     when(userRepository.existsByIdAndBooksId(USER_ID, BOOK_ID)).thenReturn(false);
-    when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
-    when(bookService.getBookById(BOOK_ID)).thenReturn(bookDto);
-    when(userRepository.countBookRelationsByUserId(USER_ID.toString()))
-        .thenReturn(userBooksQuantity);
+    when(userRepository.findBorrowedCountById(USER_ID)).thenReturn(Optional.of(0));
+    when(bookRepository.existsById(BOOK_ID)).thenReturn(true);
 
     assertThrows(
         BookAmountConflictException.class, () -> userService.borrowBookByUser(USER_ID, BOOK_ID));
   }
 
+  @Test
+  void borrowBookByUser_shouldThrowException_whenNoBookInDb() {
+    when(bookRepository.decreaseAmountByOneIfAvailable(BOOK_ID)).thenReturn(0);
+    when(userRepository.existsByIdAndBooksId(USER_ID, BOOK_ID)).thenReturn(false);
+    when(userRepository.findBorrowedCountById(USER_ID)).thenReturn(Optional.of(0));
+    when(bookRepository.existsById(BOOK_ID)).thenReturn(false);
+
+    assertThrows(BookNotFoundException.class, () -> userService.borrowBookByUser(USER_ID, BOOK_ID));
+  }
+
   @Test
   void borrowBookByUser_shouldThrowException_whenNoUserInDb() {
+    when(bookRepository.decreaseAmountByOneIfAvailable(BOOK_ID)).thenReturn(1);
+    when(userRepository.increaseBorrowedCountIfBelow(USER_ID, MAX_BOOKS_QUANTITY)).thenReturn(0);
     when(userRepository.existsByIdAndBooksId(USER_ID, BOOK_ID)).thenReturn(false);
-    when(userRepository.findById(USER_ID)).thenReturn(Optional.empty());
+    when(userRepository.findBorrowedCountById(USER_ID)).thenReturn(Optional.empty());
 
     assertThrows(UserNotFoundException.class, () -> userService.borrowBookByUser(USER_ID, BOOK_ID));
   }
 
   @Test
   void borrowBookByUser_shouldThrowException_whenUserBookRelationAlreadyExists() {
+    when(bookRepository.decreaseAmountByOneIfAvailable(BOOK_ID)).thenReturn(1);
+    when(userRepository.increaseBorrowedCountIfBelow(USER_ID, MAX_BOOKS_QUANTITY)).thenReturn(0);
     when(userRepository.existsByIdAndBooksId(USER_ID, BOOK_ID)).thenReturn(true);
 
     assertThrows(
@@ -184,6 +224,111 @@ class UserServiceImplTest {
         () -> userService.borrowBookByUser(USER_ID, BOOK_ID));
   }
 
+  @Test
+  void borrowBookByUser_shouldThrowException_whenRelationIsCreatedConcurrently() {
+    when(bookRepository.decreaseAmountByOneIfAvailable(BOOK_ID)).thenReturn(1);
+    when(userRepository.increaseBorrowedCountIfBelow(USER_ID, MAX_BOOKS_QUANTITY)).thenReturn(1);
+    doThrow(DataIntegrityViolationException.class)
+        .when(userRepository)
+        .createUserBookRelation(any(UUID.class), eq(USER_ID), eq(BOOK_ID));
+
+    assertThrows(
+        UserBookRelationConflictException.class,
+        () -> userService.borrowBookByUser(USER_ID, BOOK_ID));
+  }
+
+  @Test
+  void borrowBooksByUser_shouldReturnOutcomeForEachBook_whenSomeBooksCannotBeBorrowed() {
+    Book availableBook = TestDataGenerator.generateBook();
+    Book notAvailableBook = TestDataGenerator.generateBook();
+    notAvailableBook.setId(UUID.randomUUID());
+    notAvailableBook.setAmount(0);
+    Book relatedBook = TestDataGenerator.generateBook();
+    relatedBook.setId(UUID.randomUUID());
+    UUID notExistingBookId = UUID.randomUUID();
+    List<UUID> bookIds =
+        List.of(
+            availableBook.getId(),
+            notAvailableBook.getId(),
+            relatedBook.getId(),
+            notExistingBookId,
+            availableBook.getId());
+
+    User user = TestDataGenerator.generateUser();
+    user.setBorrowedCount(1);
+
+    when(bookRepository.findByIdInOrderById(anyCollection()))
+        .thenReturn(List.of(availableBook, notAvailableBook, relatedBook));
+    when(userRepository.findWithLockById(USER_ID)).thenReturn(Optional.of(user));
+    when(userRepository.findRelatedBookIds(eq(USER_ID), anyCollection()))
+        .thenReturn(List.of(relatedBook.getId()));
+    when(bookRepository.decreaseAmountsByOneIfAvailable(List.of(availableBook.getId())))
+        .thenReturn(1);
+    when(cacheManager.getCache(anyString())).thenReturn(cache);
+
+    List<BookBorrowingDto> borrowings = userService.borrowBooksByUser(USER_ID, bookIds);
+
+    List<BorrowingStatus> expectedStatuses =
+        List.of(
+            BorrowingStatus.BORROWED,
+            BorrowingStatus.NOT_AVAILABLE,
+            BorrowingStatus.ALREADY_BORROWED,
+            BorrowingStatus.NOT_FOUND);
+    assertEquals(expectedStatuses, borrowings.stream().map(BookBorrowingDto::getStatus).toList());
+    verify(userRepository).createUserBookRelations(USER_ID, List.of(availableBook.getId()));
+    verify(userRepository).increaseBorrowedCount(USER_ID, 1);
+    verify(bookRepository).decreaseAmountsByOneIfAvailable(List.of(availableBook.getId()));
+    verify(cache).evict(availableBook.getId());
+    verify(eventPublisher).publishEvent(StockChangedEvent.borrowed(USER_ID, availableBook.getId()));
+  }
+
+  @Test
+  void borrowBooksByUser_shouldThrowException_whenBookIsBorrowedConcurrently() {
+    Book book = TestDataGenerator.generateBook();
+    Book concurrentlyBorrowedBook = TestDataGenerator.generateBook();
+    concurrentlyBorrowedBook.setId(UUID.randomUUID());
+    List<UUID> bookIds = List.of(book.getId(), concurrentlyBorrowedBook.getId());
+
+    when(bookRepository.findByIdInOrderById(anyCollection()))
+        .thenReturn(List.of(book, concurrentlyBorrowedBook));
+    when(userRepository.findWithLockById(USER_ID))
+        .thenReturn(Optional.of(TestDataGenerator.generateUser()));
+    when(userRepository.findRelatedBookIds(eq(USER_ID), anyCollection())).thenReturn(List.of());
+    when(bookRepository.decreaseAmountsByOneIfAvailable(bookIds)).thenReturn(1);
+
+    assertThrows(
+        ConcurrentUpdateConflictException.class,
+        () -> userService.borrowBooksByUser(USER_ID, bookIds));
+    verify(eventPublisher, never()).publishEvent(any());
+  }
+
+  @Test
+  void borrowBooksByUser_shouldNotBorrowBooks_whenUserHasMaxBooksQuantity() {
+    Book book = TestDataGenerator.generateBook();
+    User user = TestDataGenerator.generateUser();
+    user.setBorrowedCount(MAX_BOOKS_QUANTITY);
+
+    when(bookRepository.findByIdInOrderById(anyCollection())).thenReturn(List.of(book));
+    when(userRepository.findWithLockById(USER_ID)).thenReturn(Optional.of(user));
+    when(userRepository.findRelatedBookIds(eq(USER_ID), anyCollection())).thenReturn(List.of());
+
+    List<BookBorrowingDto> borrowings =
+        userService.borrowBooksByUser(USER_ID, List.of(book.getId()));
+
+    assertEquals(BorrowingStatus.LIMIT_EXCEEDED, borrowings.get(0).getStatus());
+    verify(userRepository, never()).createUserBookRelations(any(), anyCollection());
+  }
+
+  @Test
+  void borrowBooksByUser_shouldThrowException_whenNoUserInDb() {
+    List<UUID> bookIds = List.of(BOOK_ID);
+
+    when(userRepository.findWithLockById(USER_ID)).thenReturn(Optional.empty());
+
+    assertThrows(
+        UserNotFoundException.class, () -> userService.borrowBooksByUser(USER_ID, bookIds));
+  }
+
   @Test
   void getUserById_shouldReturnUser_whenUserIsInDb() {
     User user = TestDataGenerator.generateUser();
@@ -203,4 +348,40 @@ class UserServiceImplTest {
 
     assertThrows(UserNotFoundException.class, () -> userService.getUserById(NOT_EXISTING_USER_ID));
   }
+
+  @Test
+  void getUsers_shouldPageByMembershipDate_whenDateRangeIsProvided() {
+    User user = TestDataGenerator.generateUser();
+    LocalDate membershipFrom = user.getMembershipDate();
+    int pageSize = 1;
+
+    when(userRepository.findUsersByMembershipDate(membershipFrom, null, null, null, pageSize + 1))
+        .thenReturn(List.of(user, user));
+    when(userRepository.findUsersByMembershipDate(
+            membershipFrom, null, membershipFrom, USER_ID, pageSize + 1))
+        .thenReturn(List.of(user));
+
+    CursorPageDto<UserDto> firstPage = userService.getUsers(membershipFrom, null, null, pageSize);
+    CursorPageDto<UserDto> lastPage =
+        userService.getUsers(membershipFrom, null, firstPage.getNextCursor(), pageSize);
+
+    assertNotNull(firstPage.getNextCursor());
+    assertEquals(List.of(TestDataGenerator.generateUserDto()), lastPage.getContent());
+    verify(userRepository, never()).findUsersByName(any(), any(), anyInt());
+  }
+
+  @Test
+  void getUsers_shouldThrowException_whenCursorBelongsToAnotherOrder() {
+    User user = TestDataGenerator.generateUser();
+    int pageSize = 1;
+
+    when(userRepository.findUsersByName(null, null, pageSize + 1)).thenReturn(List.of(user, user));
+
+    String nameCursor = userService.getUsers(null, null, null, pageSize).getNextCursor();
+    LocalDate membershipFrom = user.getMembershipDate();
+
+    assertThrows(
+        InvalidCursorException.class,
+        () -> userService.getUsers(membershipFrom, null, nameCursor, pageSize));
+  }
 }
@@ -0,0 +1,19 @@
+INSERT INTO users(id, name, membership_date, borrowed_count)
+  SELECT CAST('00000000-0000-0000-0000-' || LPAD(x, 12, '0') AS UUID), 'User ' || x,
+      DATE '2024-08-13', CASE WHEN x <= 1000 THEN 2 ELSE 0 END
+    FROM SYSTEM_RANGE(1, 10000);
+
+INSERT INTO books(id, title, author, amount, borrowed_copies)
+  SELECT CAST('00000000-0000-0000-0001-' || LPAD(x, 12, '0') AS UUID), 'Title ' || x,
+      'Author ' || MOD(x, 1000), 10, CASE WHEN x <= 2000 THEN 1 ELSE 0 END
+    FROM SYSTEM_RANGE(1, 10000);
+
+INSERT INTO users_books(id, user_id, book_id)
+  SELECT RANDOM_UUID(), CAST('00000000-0000-0000-0000-' || LPAD(x, 12, '0') AS UUID),
+      CAST('00000000-0000-0000-0001-' || LPAD(x, 12, '0') AS UUID)
+    FROM SYSTEM_RANGE(1, 1000);
+
+INSERT INTO users_books(id, user_id, book_id)
+  SELECT RANDOM_UUID(), CAST('00000000-0000-0000-0000-' || LPAD(x, 12, '0') AS UUID),
+      CAST('00000000-0000-0000-0001-' || LPAD(x + 1000, 12, '0') AS UUID)
+    FROM SYSTEM_RANGE(1, 1000);